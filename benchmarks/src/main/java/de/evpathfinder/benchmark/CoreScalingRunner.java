@@ -0,0 +1,46 @@
+package de.evpathfinder.benchmark;
+
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Misst {@link ParallelScalingBenchmark} fuer jede Kernanzahl des ersten Arguments (z.B. 1,2,4,8) in einer eigenen JVM mit
+ * -XX:ActiveProcessorCount und ebenso vielen Threads und gibt die Beschleunigung gegenueber der ersten Kernanzahl aus.
+ * Alle weiteren Argumente sind JMH-Optionen. Die JVM wird dabei nur auf die Anzahl Prozessoren eingestellt, echte Kerne ersetzt das nicht.
+ */
+public class CoreScalingRunner {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        if (args.length == 0) {
+            throw new IllegalArgumentException("Expected the core counts as first argument, e.g. 1,2,4,8");
+        }
+        int[] cores = Arrays.stream(args[0].split(",")).mapToInt(Integer::parseInt).toArray();
+        CommandLineOptions commandLine = new CommandLineOptions(Arrays.copyOfRange(args, 1, args.length));
+        double[][] scores = new double[cores.length][];
+        for (int i = 0; i < cores.length; i++) {
+            Collection<RunResult> results = new Runner(new OptionsBuilder().parent(commandLine)
+                    .include(ParallelScalingBenchmark.class.getSimpleName())
+                    .param("threads", String.valueOf(cores[i]))
+                    .jvmArgsAppend("-XX:ActiveProcessorCount=" + cores[i])
+                    .build()).run();
+            scores[i] = new double[2];
+            for (RunResult result : results) {
+                int column = result.getParams().getBenchmark().endsWith(".sequential") ? 0 : 1;
+                scores[i][column] = result.getPrimaryResult().getScore();
+            }
+        }
+        System.out.println();
+        System.out.println("cores  sequential [ms]  parallel [ms]  speedup");
+        for (int i = 0; i < cores.length; i++) {
+            System.out.println(String.format(Locale.ROOT, "%5d  %15.1f  %13.1f  %7.2f", cores[i], scores[i][0], scores[i][1], scores[0][1] / scores[i][1]));
+        }
+    }
+}
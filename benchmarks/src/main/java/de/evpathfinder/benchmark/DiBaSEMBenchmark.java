@@ -0,0 +1,135 @@
+package de.evpathfinder.benchmark;
+
+import de.evpathfinder.DiBaSEM;
+import de.evpathfinder.GraphProcedures;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Result;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latenz von executeDiBaSEM auf einem synthetischen Netz in einer eingebetteten Neo4j-Instanz,
+ * abhaengig von Netzgroesse, Luftlinie der Anfrage, maxSoc und minChargingTime.
+ * Jeder Aufruf fuehrt die naechste von QUERY_COUNT fest ausgewaehlten Anfragen aus, sodass alle Messungen dieselben Anfragen enthalten.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class DiBaSEMBenchmark {
+
+    private static final int QUERY_COUNT = 32;
+    private static final long SEED = 42;
+
+    @Param({"GRID", "GEOMETRIC"})
+    public RoadNetworkGenerator.Type type;
+
+    @Param({"2500", "10000"})
+    public int nodes;
+
+    @Param({"0.1"})
+    public double stationDensity;
+
+    @Param({"uniform:0.6:1.5"})
+    public String durationPerKm;
+
+    @Param({"uniform:0.12:0.3"})
+    public String consumptionPerKm;
+
+    // Luftlinie der Anfragen relativ zur Seitenlaenge des Netzes
+    @Param({"short", "long"})
+    public String tripLength;
+
+    @Param({"20", "60"})
+    public double maxSoc;
+
+    @Param({"0", "10"})
+    public double minChargingTime;
+
+    // Anfragen auf dem Snapshot (dibasem.loadGraph) oder direkt auf dem Store
+    @Param({"true"})
+    public boolean snapshot;
+
+    // Suchverfahren (dijkstra oder parallel) und Threads der parallelen Suche; die Beschleunigung je Kernanzahl misst CoreScalingRunner
+    @Param({"dijkstra"})
+    public String engine;
+
+    @Param({"1"})
+    public int threads;
+
+    private Neo4j neo4j;
+    private GraphDatabaseService db;
+    private final List<Map<String, Object>> queries = new ArrayList<>();
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        this.neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().withProcedure(DiBaSEM.class).withProcedure(GraphProcedures.class).build();
+        this.db = this.neo4j.defaultDatabaseService();
+        RoadNetworkGenerator generator = new RoadNetworkGenerator(this.type, this.nodes, this.stationDensity,
+                Distribution.parse(this.durationPerKm), Distribution.parse(this.consumptionPerKm), SEED);
+        RoadNetworkGenerator.Network network = generator.generate(this.db);
+        this.execute("CALL dibasem.createIndex()");
+        this.execute("CALL db.awaitIndexes()");
+        if (this.snapshot) {
+            this.execute("CALL dibasem.loadGraph()");
+        }
+        this.selectQueries(network);
+    }
+
+    private void selectQueries(RoadNetworkGenerator.Network network) {
+        double[] band = switch (this.tripLength) {
+            case "short" -> new double[]{0.1, 0.25};
+            case "medium" -> new double[]{0.25, 0.5};
+            case "long" -> new double[]{0.5, 0.9};
+            default -> throw new IllegalArgumentException("Unknown tripLength '" + this.tripLength + "', expected one of short, medium, long");
+        };
+        Random random = new Random(SEED);
+        int count = network.ids().length;
+        while (this.queries.size() < QUERY_COUNT) {
+            int start = random.nextInt(count);
+            int end = random.nextInt(count);
+            double distance = network.distance(start, end) / network.size();
+            if (distance >= band[0] && distance <= band[1]) {
+                this.queries.add(Map.of("start", network.ids()[start], "end", network.ids()[end], "maxSoc", this.maxSoc,
+                        "initialCharge", this.maxSoc * (0.3 + 0.7 * random.nextDouble()), "minChargingTime", this.minChargingTime,
+                        "config", Map.of("engine", this.engine, "threads", this.threads)));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.neo4j.close();
+    }
+
+    @Benchmark
+    public void executeDiBaSEM(Blackhole blackhole) {
+        Map<String, Object> query = this.queries.get(this.next);
+        this.next = (this.next + 1) % this.queries.size();
+        try (Transaction tx = this.db.beginTx()) {
+            Result result = tx.execute("CALL de.evpathfinder.executeDiBaSEM($start, $end, $maxSoc, $initialCharge, $minChargingTime, $config)", query);
+            while (result.hasNext()) {
+                blackhole.consume(result.next());
+            }
+        }
+    }
+
+    private void execute(String query) {
+        try (Transaction tx = this.db.beginTx()) {
+            tx.execute(query).resultAsString();
+            tx.commit();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package de.evpathfinder.benchmark;
+
+import java.util.Random;
+
+/**
+ * Verteilung der Kantenwerte des Generators je Kilometer Kantenlaenge.
+ * Normalverteilte Werte werden nach unten bei min abgeschnitten, damit keine Kante kostenlos oder negativ wird.
+ */
+public record Distribution(Kind kind, double first, double second, double min) {
+
+    public enum Kind {
+        UNIFORM,
+        NORMAL
+    }
+
+    public static Distribution uniform(double lower, double upper) {
+        return new Distribution(Kind.UNIFORM, lower, upper, lower);
+    }
+
+    public static Distribution normal(double mean, double standardDeviation, double min) {
+        return new Distribution(Kind.NORMAL, mean, standardDeviation, min);
+    }
+
+    public double sample(Random random) {
+        double value = switch (this.kind) {
+            case UNIFORM -> this.first + random.nextDouble() * (this.second - this.first);
+            case NORMAL -> this.first + random.nextGaussian() * this.second;
+        };
+        // Wie in den Daten des Strassennetzes auf zwei Nachkommastellen gerundet
+        return Math.round(Math.max(value, this.min) * 100.0) / 100.0;
+    }
+
+    public static Distribution parse(String value) {
+        // Format "uniform:lower:upper" oder "normal:mean:standardDeviation:min", damit Verteilungen als JMH-Parameter angegeben werden koennen
+        String[] parts = value.split(":");
+        try {
+            if (parts[0].equals("uniform") && parts.length == 3) {
+                return uniform(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]));
+            }
+            if (parts[0].equals("normal") && parts.length == 4) {
+                return normal(Double.parseDouble(parts[1]), Double.parseDouble(parts[2]), Double.parseDouble(parts[3]));
+            }
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid distribution '" + value + "'", e);
+        }
+        throw new IllegalArgumentException("Invalid distribution '" + value + "', expected uniform:lower:upper or normal:mean:standardDeviation:min");
+    }
+}
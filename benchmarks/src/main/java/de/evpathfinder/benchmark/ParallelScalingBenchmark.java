@@ -0,0 +1,117 @@
+package de.evpathfinder.benchmark;
+
+import de.evpathfinder.data.Path;
+import de.evpathfinder.graph.GraphSnapshot;
+import de.evpathfinder.search.DiBaSEMSearch;
+import de.evpathfinder.search.Heuristic;
+import de.evpathfinder.search.ParallelDiBaSEMSearch;
+import de.evpathfinder.search.SearchThreads;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Laufzeit der parallelen Suche abhaengig von der Anzahl Threads, direkt auf dem Snapshot und ohne Procedure.
+ * Zum Vergleich misst sequential dieselben Anfragen mit der Standardsuche. Da der Pool so viele Threads wie Prozessoren hat,
+ * startet {@link CoreScalingRunner} fuer jede Kernanzahl eine eigene JVM mit passendem -XX:ActiveProcessorCount.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g"})
+public class ParallelScalingBenchmark {
+
+    private static final int QUERY_COUNT = 16;
+    private static final long SEED = 42;
+
+    @Param({"GRID"})
+    public RoadNetworkGenerator.Type type;
+
+    @Param({"10000"})
+    public int nodes;
+
+    @Param({"0.1"})
+    public double stationDensity;
+
+    // Lange Anfragen fuellen die Buckets, kurze zeigen den Aufwand des Pools
+    @Param({"long"})
+    public String tripLength;
+
+    @Param({"20"})
+    public double maxSoc;
+
+    @Param({"10"})
+    public double delta;
+
+    @Param({"1"})
+    public int threads;
+
+    private GraphSnapshot graph;
+    private final List<double[]> queries = new ArrayList<>();
+    private int next = 0;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build()) {
+            RoadNetworkGenerator generator = new RoadNetworkGenerator(this.type, this.nodes, this.stationDensity,
+                    Distribution.parse("uniform:0.6:1.5"), Distribution.parse("uniform:0.12:0.3"), SEED);
+            RoadNetworkGenerator.Network network = generator.generate(neo4j.defaultDatabaseService());
+            // Der Snapshot haengt nach dem Aufbau nicht mehr von der Datenbank ab
+            try (Transaction tx = neo4j.defaultDatabaseService().beginTx()) {
+                this.graph = GraphSnapshot.build(tx);
+            }
+            this.selectQueries(network);
+        }
+    }
+
+    private void selectQueries(RoadNetworkGenerator.Network network) {
+        double[] band = switch (this.tripLength) {
+            case "short" -> new double[]{0.1, 0.25};
+            case "medium" -> new double[]{0.25, 0.5};
+            case "long" -> new double[]{0.5, 0.9};
+            default -> throw new IllegalArgumentException("Unknown tripLength '" + this.tripLength + "', expected one of short, medium, long");
+        };
+        Random random = new Random(SEED);
+        int count = network.ids().length;
+        while (this.queries.size() < QUERY_COUNT) {
+            int start = random.nextInt(count);
+            int end = random.nextInt(count);
+            double distance = network.distance(start, end) / network.size();
+            if (distance >= band[0] && distance <= band[1]) {
+                this.queries.add(new double[]{this.graph.findNode(network.ids()[start]), this.graph.findNode(network.ids()[end]),
+                        this.maxSoc * (0.3 + 0.7 * random.nextDouble())});
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        SearchThreads.shutdown();
+    }
+
+    @Benchmark
+    public Path sequential() {
+        double[] query = this.nextQuery();
+        return new DiBaSEMSearch(this.graph, this.maxSoc, query[2], 0.0).search((int) query[0], (int) query[1]);
+    }
+
+    @Benchmark
+    public Path parallel() {
+        double[] query = this.nextQuery();
+        return new ParallelDiBaSEMSearch(this.graph, this.maxSoc, query[2], 0.0, Heuristic.NONE, this.threads, this.delta).search((int) query[0], (int) query[1]);
+    }
+
+    private double[] nextQuery() {
+        double[] query = this.queries.get(this.next);
+        this.next = (this.next + 1) % this.queries.size();
+        return query;
+    }
+}
@@ -0,0 +1,178 @@
+package de.evpathfinder.benchmark;
+
+import de.evpathfinder.graph.StoreGraph;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * Deterministischer Generator fuer synthetische Strassennetze. Gleiche Einstellungen und gleicher Seed erzeugen immer dasselbe Netz.
+ * Knoten liegen in einem Quadrat mit etwa einem Kilometer Abstand, sodass Reisezeit (Minuten) und Verbrauch (kWh) je Kilometer
+ * aus den beiden Verteilungen gezogen und mit der Kantenlaenge multipliziert werden. Jede Strasse ist in beide Richtungen befahrbar.
+ */
+public class RoadNetworkGenerator {
+
+    public static final RelationshipType ROAD = RelationshipType.withName("ROAD");
+
+    // Ungefaehre Laenge eines Breitengrades in km
+    private static final double KM_PER_DEGREE = 111.2;
+    private static final double BASE_LATITUDE = 50.0;
+    private static final double BASE_LONGITUDE = 8.0;
+    private static final int BATCH_SIZE = 10_000;
+    // Anzahl der naechsten Nachbarn, mit denen ein Knoten im geometrischen Netz verbunden wird
+    private static final int NEIGHBOURS = 3;
+
+    public enum Type {
+        // Gitter mit Kanten zu den vier Nachbarn
+        GRID,
+        // Zufaellig verteilte Knoten, jeweils mit den naechsten Nachbarn verbunden
+        GEOMETRIC
+    }
+
+    private final Type type;
+    private final int nodeCount;
+    private final double stationDensity;
+    private final Distribution durationPerKm;
+    private final Distribution consumptionPerKm;
+    private final long seed;
+
+    public RoadNetworkGenerator(Type type, int nodeCount, double stationDensity, Distribution durationPerKm, Distribution consumptionPerKm, long seed) {
+        this.type = type;
+        this.nodeCount = nodeCount;
+        this.stationDensity = stationDensity;
+        this.durationPerKm = durationPerKm;
+        this.consumptionPerKm = consumptionPerKm;
+        this.seed = seed;
+    }
+
+    /**
+     * Das erzeugte Netz: die ids der Knoten und ihre Lage in km, um Anfragen nach Luftlinie auswaehlen zu koennen.
+     */
+    public record Network(String[] ids, double[] x, double[] y, double size) {
+
+        public double distance(int a, int b) {
+            return Math.hypot(this.x[a] - this.x[b], this.y[a] - this.y[b]);
+        }
+    }
+
+    public Network generate(GraphDatabaseService db) {
+        Random random = new Random(this.seed);
+        int side = (int) Math.ceil(Math.sqrt(this.nodeCount));
+        int count = this.type == Type.GRID ? side * side : this.nodeCount;
+        String[] ids = new String[count];
+        double[] x = new double[count];
+        double[] y = new double[count];
+        for (int node = 0; node < count; node++) {
+            ids[node] = "n" + node;
+            if (this.type == Type.GRID) {
+                x[node] = node % side;
+                y[node] = node / side;
+            } else {
+                x[node] = random.nextDouble() * side;
+                y[node] = random.nextDouble() * side;
+            }
+        }
+        List<int[]> roads = this.type == Type.GRID ? this.gridRoads(side) : this.geometricRoads(x, y, side);
+
+        // Knoten und Kanten werden in Bloecken geschrieben, damit grosse Netze nicht in einer einzigen Transaktion liegen
+        String[] elementIds = new String[count];
+        for (int first = 0; first < count; first += BATCH_SIZE) {
+            try (Transaction tx = db.beginTx()) {
+                for (int node = first; node < Math.min(first + BATCH_SIZE, count); node++) {
+                    Node created = tx.createNode(StoreGraph.NODE_LABEL);
+                    created.setProperty(StoreGraph.ID_PROPERTY, ids[node]);
+                    created.setProperty(StoreGraph.CHARGING_POWER_PROPERTY, random.nextDouble() < this.stationDensity ? (random.nextBoolean() ? 50.0 : 150.0) : 0.0);
+                    created.setProperty(StoreGraph.LATITUDE_PROPERTY, BASE_LATITUDE + y[node] / KM_PER_DEGREE);
+                    created.setProperty(StoreGraph.LONGITUDE_PROPERTY, BASE_LONGITUDE + x[node] / (KM_PER_DEGREE * Math.cos(Math.toRadians(BASE_LATITUDE))));
+                    elementIds[node] = created.getElementId();
+                }
+                tx.commit();
+            }
+        }
+        for (int first = 0; first < roads.size(); first += BATCH_SIZE) {
+            try (Transaction tx = db.beginTx()) {
+                for (int i = first; i < Math.min(first + BATCH_SIZE, roads.size()); i++) {
+                    int[] road = roads.get(i);
+                    double length = Math.hypot(x[road[0]] - x[road[1]], y[road[0]] - y[road[1]]);
+                    for (int direction = 0; direction < 2; direction++) {
+                        Node source = tx.getNodeByElementId(elementIds[road[direction]]);
+                        Node target = tx.getNodeByElementId(elementIds[road[1 - direction]]);
+                        Relationship relationship = source.createRelationshipTo(target, ROAD);
+                        relationship.setProperty(StoreGraph.DURATION_PROPERTY, Math.max(0.01, Math.round(length * this.durationPerKm.sample(random) * 100.0) / 100.0));
+                        relationship.setProperty(StoreGraph.CONSUMPTION_PROPERTY, Math.max(0.01, Math.round(length * this.consumptionPerKm.sample(random) * 100.0) / 100.0));
+                    }
+                }
+                tx.commit();
+            }
+        }
+        return new Network(ids, x, y, side);
+    }
+
+    private List<int[]> gridRoads(int side) {
+        List<int[]> roads = new ArrayList<>();
+        for (int node = 0; node < side * side; node++) {
+            if (node % side + 1 < side) {
+                roads.add(new int[]{node, node + 1});
+            }
+            if (node + side < side * side) {
+                roads.add(new int[]{node, node + side});
+            }
+        }
+        return roads;
+    }
+
+    private List<int[]> geometricRoads(double[] x, double[] y, int side) {
+        // Die naechsten Nachbarn werden ueber ein Raster mit Zellen von 1 km gesucht
+        List<List<Integer>> cells = new ArrayList<>(side * side);
+        for (int cell = 0; cell < side * side; cell++) {
+            cells.add(new ArrayList<>());
+        }
+        for (int node = 0; node < x.length; node++) {
+            cells.get(this.cell(x[node], side) + this.cell(y[node], side) * side).add(node);
+        }
+        List<int[]> roads = new ArrayList<>();
+        Set<Long> existing = new HashSet<>();
+        for (int node = 0; node < x.length; node++) {
+            int cx = this.cell(x[node], side);
+            int cy = this.cell(y[node], side);
+            List<Integer> candidates = new ArrayList<>();
+            for (int radius = 1; candidates.size() <= NEIGHBOURS && radius <= side; radius++) {
+                candidates.clear();
+                for (int gx = Math.max(0, cx - radius); gx <= Math.min(side - 1, cx + radius); gx++) {
+                    for (int gy = Math.max(0, cy - radius); gy <= Math.min(side - 1, cy + radius); gy++) {
+                        candidates.addAll(cells.get(gx + gy * side));
+                    }
+                }
+            }
+            final int current = node;
+            Integer[] sorted = candidates.toArray(new Integer[0]);
+            Arrays.sort(sorted, (a, b) -> Double.compare(Math.hypot(x[a] - x[current], y[a] - y[current]), Math.hypot(x[b] - x[current], y[b] - y[current])));
+            int added = 0;
+            for (int i = 0; i < sorted.length && added < NEIGHBOURS; i++) {
+                int other = sorted[i];
+                if (other == node) {
+                    continue;
+                }
+                added++;
+                long key = (long) Math.min(node, other) * x.length + Math.max(node, other);
+                if (existing.add(key)) {
+                    roads.add(new int[]{node, other});
+                }
+            }
+        }
+        return roads;
+    }
+
+    private int cell(double coordinate, int side) {
+        return Math.min(side - 1, (int) coordinate);
+    }
+}
@@ -1,12 +1,53 @@
 package de.evpathfinder;
 
-import de.evpathfinder.data.*;
+import de.evpathfinder.cache.CachedRoute;
+import de.evpathfinder.cache.RouteCache;
+import de.evpathfinder.cache.RouteCaches;
+import de.evpathfinder.cache.RouteKey;
+import de.evpathfinder.data.MatrixResult;
 import de.evpathfinder.data.Path;
-import de.evpathfinder.data.PriorityQueue;
+import de.evpathfinder.data.ReachableNodeResult;
+import de.evpathfinder.data.SearchStatisticsResult;
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.data.VisitedNodeId;
+import de.evpathfinder.data.VisitedNodeResult;
+import de.evpathfinder.graph.GraphSnapshot;
+import de.evpathfinder.graph.GraphSnapshots;
+import de.evpathfinder.graph.RoadGraph;
+import de.evpathfinder.graph.StoreGraph;
+import de.evpathfinder.hierarchy.ContractionHierarchy;
+import de.evpathfinder.hierarchy.Hierarchies;
+import de.evpathfinder.hierarchy.HierarchyQueryGraph;
+import de.evpathfinder.overlay.OverlayQueryGraph;
+import de.evpathfinder.overlay.StationOverlay;
+import de.evpathfinder.overlay.StationOverlays;
+import de.evpathfinder.search.Approximation;
+import de.evpathfinder.search.DiBaSEMSearch;
+import de.evpathfinder.search.EnergyBound;
+import de.evpathfinder.search.Heuristic;
+import de.evpathfinder.search.MatrixSearch;
+import de.evpathfinder.search.ParallelDiBaSEMSearch;
+import de.evpathfinder.search.ReachabilitySearch;
+import de.evpathfinder.search.SearchConfig;
+import de.evpathfinder.search.SearchLimits;
+import de.evpathfinder.search.SearchStatus;
+import de.evpathfinder.search.SearchThreads;
+import de.evpathfinder.search.StaleLandmarks;
+import de.evpathfinder.stats.CountingRoadGraph;
+import de.evpathfinder.stats.SearchEvent;
+import de.evpathfinder.stats.SearchStatistics;
+import de.evpathfinder.stats.SearchStatisticsCollector;
 import org.neo4j.graphdb.*;
 import org.neo4j.procedure.*;
 
-import java.util.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 public class DiBaSEM {
@@ -14,405 +55,421 @@ public class DiBaSEM {
     @Context
     public Transaction tx;
 
-    public record NodeContainer(Node node, String id, double chargingPower) {}
-    public record EdgeContainer(Relationship relationship, double duration, double consumption, String sourceId, String destinationId) {
-        public EdgeContainer(Relationship relationship, double duration, double consumption) {
-            this(relationship, duration, consumption, (String) relationship.getStartNode().getProperty("id", ""), (String) relationship.getEndNode().getProperty("id", ""));
-        }
-    }
-    private static Map<VisitedNodeId, Path> pathOfNode;
+    @Context
+    public GraphDatabaseService db;
+
+    @Context
+    public TerminationGuard guard;
 
     @Procedure
-    public Stream<VisitedNodeResult> executeDiBaSEM(@Name("startId") String startId, @Name("endId") String endId, @Name("maxSoc") double maxSoc, @Name("initialCharge") double initialCharge, @Name("minChargingTime") double minChargingTime) {
-        NodeContainer start = this.getNodeById(startId);
-        NodeContainer end = this.getNodeById(endId);
-        if (start == null || end == null) {
-            return Stream.empty();
+    public Stream<VisitedNodeResult> executeDiBaSEM(@Name("startId") String startId, @Name("endId") String endId, @Name("maxSoc") double maxSoc, @Name("initialCharge") double initialCharge, @Name("minChargingTime") double minChargingTime,
+                                                 @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        SearchConfig searchConfig = SearchConfig.from(config);
+        RouteCache cache = searchConfig.isCache() ? RouteCaches.get(this.db.databaseName()) : null;
+        RouteKey key = cache == null ? null : cache.createKey(startId, endId, maxSoc, initialCharge, minChargingTime, searchConfig.getRouteSettings());
+        if (cache != null) {
+            List<VisitedNode> cachedRoute = cache.get(key, initialCharge);
+            if (cachedRoute != null) {
+                return this.toResults(cachedRoute, SearchStatus.CACHED, null);
+            }
         }
-
-        PriorityQueue queue = new PriorityQueue();
-
-        // Initialisierung des Algorithmus
-        this.initialize(queue, start, initialCharge);
-
-        Path result = null;
-
-        while (!queue.isEmpty()) {
-            // Aktuell bearbeiteter Knoten = u aus queue holen
-            Path pathOfU = pathOfNode.get(queue.poll());
-            VisitedNode u = pathOfU.getLastNode();
-
-            // Falls u der Zielknoten ist, wird while-Schleife beendet
-            if (u.id().getName().equals(end.id)) {
-                // Endknoten gefunden. Dessen Nachbarn muessen nicht mehr ueberprueft werden.
-                result = pathOfU;
-                break;
+        // Zaehler nur, falls sie gesammelt oder per JFR aufgezeichnet werden, sonst laeuft die Suche ohne Instrumentierung
+        SearchStatistics statistics = SearchStatisticsCollector.isEnabled() || SearchEvent.isRecording() ? new SearchStatistics() : null;
+        SearchLimits limits = SearchLimits.from(searchConfig, this.guard::check);
+        Approximation approximation = Approximation.from(searchConfig);
+        // Wird der Cache waehrend der Suche invalidiert, kann der Weg auf einem veralteten Graphen gefunden worden sein
+        long cacheGeneration = cache == null ? 0 : cache.getGeneration();
+        List<VisitedNode> route = this.findRoute(startId, endId, maxSoc, initialCharge, minChargingTime, searchConfig, limits, approximation, statistics);
+        if (cache != null && route != null && limits.getStatus() == SearchStatus.COMPLETE && approximation == null) {
+            // Nach einem Abbruch ist der Weg nicht unbedingt der schnellste und wird daher nicht gespeichert, ebenso approximativ gefundene Wege
+            CachedRoute cachedRoute = this.toCachedRoute(initialCharge, route);
+            if (cachedRoute != null) {
+                cache.put(key, cachedRoute, cacheGeneration);
             }
+        }
+        if (statistics != null) {
+            if (SearchStatisticsCollector.isEnabled()) {
+                SearchStatisticsCollector.record(statistics);
+            }
+            SearchEvent.commit(searchConfig.getEngine(), route != null && limits.getStatus() == SearchStatus.COMPLETE, this.getStatus(searchConfig, limits).name(), statistics);
+        }
+        // Falls kein Pfad gefunden werden konnte, gebe einen leeren Stream zurueck
+        SearchStatus status = this.getStatus(searchConfig, limits);
+        return route == null ? Stream.empty() : this.toResults(route, status, this.getErrorEstimate(status, approximation, minChargingTime));
+    }
 
-            // edgesFromU = Alle Kanten, die von u ausgehen
-            List<EdgeContainer> edgesFromU = this.getEdgesFromSourceNode(u.id().getName());
-
-            // Fuer alle Kanten, die von u ausgehen, folgende Schleife durchgehen
-            for (EdgeContainer edgeFromU : edgesFromU) {
-                // v = aktueller Nachbar dieses Schleifendurchlaufs
-                NodeContainer v = this.getNodeById(edgeFromU.destinationId);
-
-
-                // speichern der Eigenschaften der Kante in Variablen
-                double duration = edgeFromU.duration;
-                double consumption = edgeFromU.consumption;
-
-                // Berechnungen der entsprechenden Reisezeit und des Ladestands bei v
-                double currentTravelTime = pathOfU.getTravelTimeOfNode(u.id()) + duration;
-                double currentSoc = pathOfU.getSocOfNode(u.id()) - consumption;
-
-                // Ueberpruefung, ob der Ladestand bei v groesser oder kleiner als 0 ist
-                if (currentSoc < 0) {
-                    // Ladestand bei v kleiner als 0, nicht genuegend Energie vorhanden, um nach jetzigem Stand erreichen zu koennen
-
-                    // Letzte Ladestation erhalten und Initialwerte fuer die darauffolgenden Ueberpruefungen setzen
-                    VisitedNodeId lastStationId = pathOfU.getLastStation();
-                    double lastStationChargingTime = 0.0;
-                    double oldChargingTime = 0.0;
-                    double totalConsumption = 0.0;
-                    boolean lastStationChargedEnough = true;
-
-                    // Ueberpruefung, ob bisher bei einer Ladestation geladen wurde, d.h. ob eine Ladestation gefunden wurde
-                    if (lastStationId != null) {
-                        // Falls bereits bei einer Ladestation geladen wurde
-                        if (pathOfU.getSocOfNode(lastStationId) >= maxSoc) {
-                            // Falls der Ladestand bei dieser Ladestation bereits auf 100 % ist, setze Flag, dass spaeter eine weitere Ladestation gefunden werden muss
-                            lastStationChargedEnough = false;
-                        }
-
-                        // Gehe von jetzigem Knoten u bis zur Ladestation durch, um den Gesamtverbrauch von der Ladestation bis v zu berechnen und daraus die notwendige Ladezeit zu bestimmen
-                        VisitedNodeId currentNodeId = u.id();
-                        totalConsumption = consumption;
-                        while (currentNodeId != null && !currentNodeId.equals(lastStationId)) {
-                            VisitedNodeId parentNodeId = pathOfU.getParentOfNode(currentNodeId);
-                            if (parentNodeId != null) {
-                                totalConsumption += this.getShortestEdgeBetweenNodes(parentNodeId.getName(), currentNodeId.getName()).consumption;
-                            }
-                            currentNodeId = parentNodeId;
-                        }
-
-                        // Ueberprufung, ob der Gesamtverbrauch groesser als die maximale Akkukapazitaet ist
-                        if (totalConsumption > maxSoc) {
-                            // Falls der Gesamtverbrauch groeßer als die maximale Akkukapazitaet ist, reicht das Laden bei dieser Ladestation nicht aus, um v erreichen zu koennen
-                            lastStationChargedEnough = false;
-                            oldChargingTime = 0.0;
-                        } else {
-                            // Laden bei dieser Ladestation reicht aus, um v erreichen zu koennen, weshalb die neue Ladezeit fuer diese Ladestation berechnet und in einer Variable gespeichert wird
-                            double socWithOutCharging = pathOfU.getSocOfNode(pathOfU.getParentOfNode(lastStationId)) - this.getShortestEdgeBetweenNodes(pathOfU.getParentOfNode(lastStationId).getName(), lastStationId.getName()).consumption;
-                            lastStationChargingTime = this.calculateAdditionalChargeTime(socWithOutCharging, totalConsumption, this.getNodeById(lastStationId.getName()).chargingPower);
-                            // speichere die bisherige Ladezeit der Ladestation in einer Variable
-                            oldChargingTime = pathOfU.getChargingTimeOfNode(lastStationId);
-                        }
-                    }
-
-                    boolean newLastStationAdded = false;
-                    // Ueberpruefung, ob eine Ladestation gefunden wurde, oder ob bei einer bereits geladenen Ladestation ausreichend nachgeladen wurde
-                    if (lastStationId == null || !lastStationChargedEnough) {
-                        // Bisher keine Ladestation gefunden oder es konnte bei einer bereits geladenen Ladestation nicht ausreichend zusaetzlich geladen werden
-
-                        // Suche nach allen Ladestationen von u bis p und speichere diese in lastStations mit zu ladender Energiemenge
-                        // Falls der Verbrauch groeßer als die maximale Akkukapazitaet wird, kann die Suche abgebrochen werden
-                        totalConsumption = consumption;
-                        VisitedNodeId currentNodeId = u.id();
-                        Map<VisitedNodeId, Double> lastStations = new HashMap<>();
-                        while (currentNodeId != null && !currentNodeId.equals(lastStationId)) {
-                            if (this.getNodeById(currentNodeId.getName()).chargingPower > 0 && totalConsumption < maxSoc) {
-                                // Falls dieser Knoten eine Ladestation ist und noch ausreichend Energie dort geladen werden kann, fuege diese Ladestation zur Auswahl hinzu
-                                lastStations.put(currentNodeId, totalConsumption);
-                            }
-                            // Erhalte Parent von diesem Knoten fuer weitere Suche und falls Parent vorhanden, addiere den Kantenverbrauch zum Gesamtverbrauch hinzu
-                            VisitedNodeId parentNodeId = pathOfU.getParentOfNode(currentNodeId);
-                            if (parentNodeId != null) {
-                                totalConsumption += this.getShortestEdgeBetweenNodes(parentNodeId.getName(), currentNodeId.getName()).consumption;
-                            }
-                            currentNodeId = parentNodeId;
-                        }
-
-                        lastStationId = null;
-                        // Gehe gefundene Ladestationen durch
-                        double newChargingTimeLastStation = Double.MAX_VALUE;
-                        for (Map.Entry<VisitedNodeId, Double> lastStation : lastStations.entrySet()) {
-                            VisitedNodeId w = lastStation.getKey();
-                            double necessarySoc = lastStation.getValue();
-                            if (necessarySoc > maxSoc) {
-                                // Falls Gesamtverbrauch (notwendige Energiemenge) groesser als die maximale Akkukapazitaet ist, kann bei dieser und allen folgenden Ladestation nicht geladen werden
-                                break;
-                            }
-                            if (pathOfU.getSocOfNode(w) > necessarySoc) {
-                                // Falls bei dieser Ladestation der Ladestand bereits groesser als die notwendige Energiemenge ist, wird direkt diese Ladestation gewaehlt
-                                lastStationId = w;
-                                newLastStationAdded = true;
-                                break;
-                            }
-                            // Berechne die neue Ladezeit bei dieser Ladestation
-                            double tempNewChargingTimeLastStation = this.calculateAdditionalChargeTime(pathOfU.getSocOfNode(w), necessarySoc, this.getNodeById(w.getName()).chargingPower);
-                            if (tempNewChargingTimeLastStation < newChargingTimeLastStation) {
-                                // Falls die Ladezeit der aktuellen Ladestation kleiner ist, als die bisher beste Ladezeit, wird diese Ladestation als neue beste Ladestation gewaehlt
-                                newChargingTimeLastStation = tempNewChargingTimeLastStation;
-                                lastStationId = w;
-                                lastStationChargingTime = newChargingTimeLastStation;
-                                totalConsumption = necessarySoc;
-                                newLastStationAdded = true;
-                            }
-                        }
-                    }
-
-                    if (lastStationId == null) {
-                        // Es konnte keine Ladestation gefunden werden, weshalb v ueber diesen Weg nicht erreichbar ist
-                        continue;
-                    }
+    @Procedure
+    public Stream<SearchStatisticsResult> profileDiBaSEM(@Name("startId") String startId, @Name("endId") String endId, @Name("maxSoc") double maxSoc, @Name("initialCharge") double initialCharge, @Name("minChargingTime") double minChargingTime,
+                                                         @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        // Dieselbe Suche wie executeDiBaSEM, liefert statt des Weges eine Zeile mit dem Ergebnis und den Zaehlern der Suche
+        SearchConfig searchConfig = SearchConfig.from(config);
+        SearchStatistics statistics = new SearchStatistics();
+        SearchLimits limits = SearchLimits.from(searchConfig, this.guard::check);
+        Approximation approximation = Approximation.from(searchConfig);
+        List<VisitedNode> route = this.findRoute(startId, endId, maxSoc, initialCharge, minChargingTime, searchConfig, limits, approximation, statistics);
+        VisitedNode end = route == null ? null : route.get(route.size() - 1);
+        return Stream.of(new SearchStatisticsResult(
+                route != null && limits.getStatus() == SearchStatus.COMPLETE,
+                this.getStatus(searchConfig, limits).name(),
+                end == null ? null : end.travelTime(),
+                end == null ? null : end.soc(),
+                route == null ? null : route.stream().mapToDouble(VisitedNode::chargingTime).sum(),
+                route == null ? null : this.getErrorEstimate(this.getStatus(searchConfig, limits), approximation, minChargingTime),
+                statistics.getLabelsCreated(),
+                statistics.getLabelsDominated(),
+                statistics.getLabelsPruned(),
+                statistics.getQueuePolls(),
+                statistics.getRechargeBacktracks(),
+                statistics.getNodeLookups(),
+                statistics.getEdgeScans(),
+                statistics.getShortestEdgeLookups(),
+                statistics.getPeakLabels(),
+                statistics.getSetupNanos() / 1_000_000.0,
+                statistics.getSearchNanos() / 1_000_000.0,
+                statistics.getUnpackNanos() / 1_000_000.0
+        ));
+    }
 
-                    if (minChargingTime > lastStationChargingTime && pathOfU.getNodeById(lastStationId).soc() < totalConsumption) {
-                        // Falls die berechnete Ladestation kleiner als die gewuenschte Minimalladezeit ist und tatsaechlich geladen werden muss, dann setze die Ladezeit auf die gewuenschte Ladezeit
-                        lastStationChargingTime = minChargingTime;
-                    }
+    @Procedure
+    public Stream<VisitedNodeResult> reroute(@Name("previousRoute") List<Map<String, Object>> previousRoute, @Name("currentId") String currentId, @Name("currentSoc") double currentSoc,
+                                             @Name("maxSoc") double maxSoc, @Name("minChargingTime") double minChargingTime,
+                                             @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        // Neuberechnung waehrend der Fahrt ab currentId. Der Rest des bisherigen Weges wird mit currentSoc und den aktuellen Werten des Graphen
+        // nachgerechnet. Danach wird immer neu gesucht, wobei die Reisezeit des nachgerechneten Weges als obere Schranke dient, sodass nur
+        // schnellere Labels verfolgt werden. Nur wenn diese Suche keinen Weg findet, wird der nachgerechnete Weg geliefert.
+        // Es ist eine beschraenkte Neusuche: Suchbaum oder Labels der vorherigen Suche werden nicht wiederverwendet.
+        SearchConfig searchConfig = SearchConfig.from(config);
+        if (previousRoute == null || previousRoute.isEmpty()) {
+            throw new IllegalArgumentException("previousRoute must contain the rows of the previous executeDiBaSEM call");
+        }
+        String endId = this.getRowId(previousRoute.get(previousRoute.size() - 1));
+        List<VisitedNode> remainingRoute = this.getRemainingRoute(previousRoute, currentId);
+        List<VisitedNode> repairedRoute = null;
+        if (remainingRoute != null) {
+            CachedRoute cachedRoute = this.toCachedRoute(remainingRoute.get(0).soc(), remainingRoute);
+            repairedRoute = cachedRoute == null ? null : cachedRoute.replay(currentSoc, maxSoc, minChargingTime);
+        }
+        SearchLimits limits = SearchLimits.from(searchConfig, this.guard::check);
+        if (repairedRoute != null) {
+            limits.setUpperBound(repairedRoute.get(repairedRoute.size() - 1).travelTime());
+        }
+        Approximation approximation = Approximation.from(searchConfig);
+        List<VisitedNode> route = this.findRoute(currentId, endId, maxSoc, currentSoc, minChargingTime, searchConfig, limits, approximation, null);
+        boolean routeComplete = route != null && route.get(route.size() - 1).id().getName().equals(endId);
+        if (repairedRoute != null && (!routeComplete || limits.getStatus() != SearchStatus.COMPLETE)) {
+            // Kein Weg war hoechstens so schnell wie der nachgerechnete, oder die Suche wurde an einer Grenze abgebrochen.
+            // Im ersten Fall ist der nachgerechnete Weg durch die vollstaendige Suche bestaetigt.
+            return this.toResults(repairedRoute, limits.getStatus() == SearchStatus.COMPLETE ? SearchStatus.REPAIRED : limits.getStatus(), null);
+        }
+        SearchStatus status = this.getStatus(searchConfig, limits);
+        return route == null ? Stream.empty() : this.toResults(route, status, this.getErrorEstimate(status, approximation, minChargingTime));
+    }
 
-                    // Erstelle den neuen Weg nach v
-                    List<VisitedNode> visitedNodes = new ArrayList<>();
+    private List<VisitedNode> getRemainingRoute(List<Map<String, Object>> previousRoute, String currentId) {
+        // Rest des bisherigen Weges ab dem ersten Vorkommen von currentId mit Reisezeiten ab dort, null falls der Knoten nicht auf dem Weg liegt.
+        // Beim ersten Vorkommen bleibt ein Umweg zu einer Ladestation erhalten, der den Knoten zweimal besucht.
+        int current = -1;
+        for (int i = 0; i < previousRoute.size() && current < 0; i++) {
+            if (this.getRowId(previousRoute.get(i)).equals(currentId)) {
+                current = i;
+            }
+        }
+        if (current < 0) {
+            return null;
+        }
+        double startTime = this.getRowValue(previousRoute.get(current), "travelTime");
+        List<VisitedNode> remainingRoute = new ArrayList<>(previousRoute.size() - current);
+        for (int i = current; i < previousRoute.size(); i++) {
+            Map<String, Object> row = previousRoute.get(i);
+            remainingRoute.add(new VisitedNode(new VisitedNodeId(this.getRowId(row), -1, i), this.getRowValue(row, "travelTime") - startTime,
+                    this.getRowValue(row, "soc"), this.getRowValue(row, "chargingTime")));
+        }
+        return remainingRoute;
+    }
 
-                    int lastStationIndex = -1;
-                    VisitedNodeId oldLastStationId = null;
-                    // Speichere alle Knoten nach u in einer separaten Liste
-                    List<VisitedNode> visitedNodesFromU = pathOfU.getPath();
-                    // ID von der letzten Ladestation erhalten
-                    for (int i = visitedNodesFromU.size() - 1; i >= 0; i--) {
-                        if (visitedNodesFromU.get(i).chargingTime() > 0.0) {
-                            lastStationIndex = i;
-                            oldLastStationId = visitedNodesFromU.get(i).id();
-                            break;
-                        }
-                    }
-                    // Ueberpruefe, ob bisher eine Ladestation existiert hat und ob eine neue Ladestation hinzugefuegt wurde
-                    if (lastStationIndex != -1 && newLastStationAdded) {
-                        // Falls bisher eine Ladestation existiert hat und eine neue Ladestation hinzugefuegt wurde
-                        // fuege alle Knoten von Start bis zu der zuletzt geladenen Ladestation zum Weg hinzu
-                        for (int i = 0; i < lastStationIndex; i++) {
-                            visitedNodes.add(visitedNodesFromU.get(i));
-                        }
-                        // Berechne Verbrauch von bisher letzter Ladestation zu neuer Ladestation
-                        double consumptionFromOldStationToNewStation = 0.0;
-                        for (int i = lastStationIndex; i < visitedNodesFromU.size() - 1; i++) {
-                            consumptionFromOldStationToNewStation += this.getShortestEdgeBetweenNodes(visitedNodesFromU.get(i).id().getName(), visitedNodesFromU.get(i+1).id().getName()).consumption;
-                            if (visitedNodesFromU.get(i + 1).id().equals(lastStationId)) {
-                                break;
-                            }
-                        }
-                        // Erstelle Werte fuer die Ladestation bei der bisher zuletzt geladen wurde und erstelle einen neuen VisitedNode fuer diese und fuege sie zum Weg hinzu
-                        VisitedNode lastNodeBeforeLastStation = visitedNodesFromU.get(lastStationIndex - 1);
-                        double oldLastStationChargingPower = this.getNodeById(oldLastStationId.getName()).chargingPower;
-                        double oldLastStationSocWithoutCharging = lastNodeBeforeLastStation.soc() - this.getShortestEdgeBetweenNodes(lastNodeBeforeLastStation.id().getName(), visitedNodesFromU.get(lastStationIndex).id().getName()).consumption;
-                        double oldLastStationChargingTime = this.calculateAdditionalChargeTime(oldLastStationSocWithoutCharging, consumptionFromOldStationToNewStation, oldLastStationChargingPower);
-                        if (oldLastStationChargingTime < minChargingTime) {
-                            oldLastStationChargingTime = minChargingTime;
-                        }
-                        double oldLastStationTravelTime = lastNodeBeforeLastStation.travelTime() + this.getShortestEdgeBetweenNodes(lastNodeBeforeLastStation.id().getName(), visitedNodesFromU.get(lastStationIndex).id().getName()).duration + oldLastStationChargingTime;
-                        double oldLastStationSocAfterCharging = this.calculateNewSoc(maxSoc, oldLastStationSocWithoutCharging, oldLastStationChargingTime, oldLastStationChargingPower);
-                        VisitedNode oldLastStation = new VisitedNode(oldLastStationId.getName(), oldLastStationTravelTime, oldLastStationSocAfterCharging, oldLastStationChargingTime);
-                        visitedNodes.add(oldLastStation);
-                        // Fuege alle Knoten von der zuletzt geladenen Ladestation zur neu hinzgefuegten Ladestation zum Weg hinzu
-                        for (int i = lastStationIndex; i < visitedNodesFromU.size() - 1; i++) {
-                            VisitedNode node = visitedNodes.get(i);
-                            VisitedNode successor = visitedNodesFromU.get(i + 1);
-                            if (successor.id().equals(lastStationId)) {
-                                break;
-                            }
-                            double edgeConsumption = this.getShortestEdgeBetweenNodes(node.id().getName(), successor.id().getName()).consumption;
-                            double edgeDuration = this.getShortestEdgeBetweenNodes(node.id().getName(), successor.id().getName()).duration;
-                            VisitedNode visitedNode = new VisitedNode(successor.id().getName(), node.travelTime() + edgeDuration, node.soc() - edgeConsumption, successor.chargingTime());
-                            visitedNodes.add(visitedNode);
-                        }
-                    } else {
-                        // Falls bisher keine Ladestation existiert hat oder keine neue Ladestation hinzugefuegt wurde
-                        // Uebernehme alle Knoten start bis zur neuen Ladestation von dem Weg nach u
-                        for (VisitedNode node : visitedNodesFromU) {
-                            if (node.id().equals(lastStationId)) {
-                                break;
-                            }
-                            visitedNodes.add(node);
-                        }
-                    }
+    private String getRowId(Map<String, Object> row) {
+        Object id = row.get("id");
+        if (!(id instanceof String)) {
+            throw new IllegalArgumentException("Every row of previousRoute needs an id");
+        }
+        return (String) id;
+    }
 
-                    VisitedNode lastNodeBeforeStation = visitedNodes.get(visitedNodes.size() - 1);
+    private double getRowValue(Map<String, Object> row, String key) {
+        Object value = row.get(key);
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException("Every row of previousRoute needs a numeric " + key);
+        }
+        return ((Number) value).doubleValue();
+    }
 
-                    // Erstelle ein neues VisitedNode-Objekt fuer die neue Ladestation
-                    double lastStationTravelTime = lastNodeBeforeStation.travelTime() + this.getShortestEdgeBetweenNodes(lastNodeBeforeStation.id().getName(), lastStationId.getName()).duration + lastStationChargingTime;
-                    double lastStationSocWithoutCharging = lastNodeBeforeStation.soc() - this.getShortestEdgeBetweenNodes(lastNodeBeforeStation.id().getName(), lastStationId.getName()).consumption;
-                    double lastStationSocAfterCharging = this.calculateNewSoc(maxSoc, lastStationSocWithoutCharging, lastStationChargingTime, this.getNodeById(lastStationId.getName()).chargingPower);
-                    VisitedNode visitedNodeLastStation = new VisitedNode(lastStationId.getName(), lastStationTravelTime, lastStationSocAfterCharging, lastStationChargingTime);
-                    visitedNodes.add(visitedNodeLastStation);
+    private List<VisitedNode> findRoute(String startId, String endId, double maxSoc, double initialCharge, double minChargingTime, SearchConfig searchConfig, SearchLimits limits,
+                                        Approximation approximation, SearchStatistics statistics) {
+        // Liefert den Weg als Knotenliste im Strassennetz, oder null falls kein Weg existiert. Wurde eine Grenze erreicht, ist es der beste bisher gefundene Weg.
+        if (SearchConfig.HEURISTIC_LANDMARKS.equals(searchConfig.getHeuristic()) && StaleLandmarks.isStale(this.db.databaseName())) {
+            // Mit zu grossen Landmark-Distanzen ist die Schranke nicht mehr zulaessig und die Suche koennte schnellere Wege uebersehen
+            throw new IllegalArgumentException("The landmark distances are out of date after a change of the road network, run CALL dibasem.computeLandmarks() again");
+        }
+        if (SearchConfig.ENGINE_HIERARCHY.equals(searchConfig.getEngine())) {
+            return this.findRouteOnHierarchy(startId, endId, maxSoc, initialCharge, minChargingTime, limits, approximation, statistics);
+        }
+        if (SearchConfig.ENGINE_OVERLAY.equals(searchConfig.getEngine())) {
+            return this.findRouteOnOverlay(startId, endId, maxSoc, initialCharge, minChargingTime, searchConfig, limits, approximation, statistics);
+        }
+        long setupStart = System.nanoTime();
+        RoadGraph roadGraph = this.getRoadGraph();
+        // Der Store darf nur vom Thread der Transaktion gelesen werden, daher sucht die parallele Suche ohne Snapshot sequentiell mit identischem Ergebnis,
+        // ebenso auf einem einzelnen Prozessor, wo der Pool nur Aufwand verursachen wuerde.
+        // Die Zaehler der Graphzugriffe sind nicht threadsicher und werden bei der parallelen Suche nicht erfasst.
+        boolean parallel = SearchConfig.ENGINE_PARALLEL.equals(searchConfig.getEngine()) && roadGraph instanceof GraphSnapshot
+                && SearchThreads.clamp(searchConfig.getThreads()) > 1;
+        RoadGraph graph = parallel ? roadGraph : this.instrument(roadGraph, statistics);
+        int start = graph.findNode(startId);
+        int end = graph.findNode(endId);
+        if (start < 0 || end < 0) {
+            return null;
+        }
+        // Der gesamte Suchzustand gehoert zu diesem Aufruf, sodass der Procedure parallel aufgerufen werden kann
+        Heuristic heuristic = searchConfig.createHeuristic(graph, end);
+        DiBaSEMSearch search = parallel
+                ? new ParallelDiBaSEMSearch(graph, maxSoc, initialCharge, minChargingTime, heuristic, searchConfig.getThreads(), searchConfig.getDelta())
+                : new DiBaSEMSearch(graph, maxSoc, initialCharge, minChargingTime, heuristic);
+        if (searchConfig.isEnergyPruning()) {
+            search.setEnergyBound(new EnergyBound(graph, end));
+        }
+        Path result = this.search(search, start, end, setupStart, limits, approximation, statistics);
+        long unpackStart = System.nanoTime();
+        List<VisitedNode> route = result == null ? null : result.getPath();
+        if (statistics != null) {
+            statistics.unpackFinished(System.nanoTime() - unpackStart);
+        }
+        return route;
+    }
 
-                    double newSocV = lastStationSocAfterCharging - totalConsumption;
+    private List<VisitedNode> findRouteOnHierarchy(String startId, String endId, double maxSoc, double initialCharge, double minChargingTime, SearchLimits limits, Approximation approximation,
+                                                   SearchStatistics statistics) {
+        // Dieselbe Suche auf dem Auf- und Abstiegsgraphen der Contraction Hierarchy, die Shortcuts werden anschliessend wieder entpackt
+        long setupStart = System.nanoTime();
+        ContractionHierarchy hierarchy = Hierarchies.get(this.db.databaseName(), this.tx);
+        if (hierarchy == null) {
+            throw new IllegalStateException("No contraction hierarchy for database " + this.db.databaseName() + ", run CALL dibasem.buildHierarchy() first");
+        }
+        int start = hierarchy.findNode(startId);
+        int end = hierarchy.findNode(endId);
+        if (start < 0 || end < 0) {
+            return null;
+        }
+        HierarchyQueryGraph graph = new HierarchyQueryGraph(hierarchy, end);
+        Path result = this.search(new DiBaSEMSearch(this.instrument(graph, statistics), maxSoc, initialCharge, minChargingTime), start, end, setupStart, limits, approximation, statistics);
+        long unpackStart = System.nanoTime();
+        List<VisitedNode> route = result == null ? null : graph.unpack(result);
+        if (statistics != null) {
+            statistics.unpackFinished(System.nanoTime() - unpackStart);
+        }
+        return route;
+    }
 
-                    // Fuege alle Knoten mit den angepassten Werten von der Ladestation an bis einschließlich u zur Liste hinzu
-                    for (int i = visitedNodes.size() - 1; i < visitedNodesFromU.size() - 1; i++) {
-                        VisitedNode node = visitedNodes.get(i);
-                        VisitedNode successor = visitedNodesFromU.get(i + 1);
-                        double  edgeConsumption = this.getShortestEdgeBetweenNodes(node.id().getName(), successor.id().getName()).consumption;
-                        double edgeDuration = this.getShortestEdgeBetweenNodes(node.id().getName(), successor.id().getName()).duration;
-                        VisitedNode visitedNode = new VisitedNode(successor.id().getName(), node.travelTime() + edgeDuration, node.soc() - edgeConsumption, successor.chargingTime());
-                        visitedNodes.add(visitedNode);
-                    }
+    private List<VisitedNode> findRouteOnOverlay(String startId, String endId, double maxSoc, double initialCharge, double minChargingTime, SearchConfig searchConfig, SearchLimits limits,
+                                                 Approximation approximation, SearchStatistics statistics) {
+        // Dieselbe Suche auf dem Graphen der Ladestationen, Start und Ziel werden ueber lokale Suchen angebunden
+        long setupStart = System.nanoTime();
+        StationOverlay overlay = StationOverlays.get(this.db.databaseName());
+        if (overlay == null) {
+            throw new IllegalStateException("No station overlay for database " + this.db.databaseName() + ", run CALL dibasem.buildOverlay(maxBattery) first");
+        }
+        if (maxSoc > overlay.getMaxBattery()) {
+            // Strecken zwischen Ladestationen, die mehr als maxBattery verbrauchen, fehlen im Overlay
+            throw new IllegalArgumentException("maxSoc " + maxSoc + " exceeds the battery capacity " + overlay.getMaxBattery() + " the overlay was built for");
+        }
+        int start = overlay.getGraph().findNode(startId);
+        int end = overlay.getGraph().findNode(endId);
+        if (start < 0 || end < 0) {
+            return null;
+        }
+        OverlayQueryGraph graph = new OverlayQueryGraph(overlay, start, end);
+        RoadGraph searchGraph = this.instrument(graph, statistics);
+        DiBaSEMSearch search = new DiBaSEMSearch(searchGraph, maxSoc, initialCharge, minChargingTime, searchConfig.createHeuristic(searchGraph, end));
+        Path result = this.search(search, start, end, setupStart, limits, approximation, statistics);
+        long unpackStart = System.nanoTime();
+        List<VisitedNode> route = result == null ? null : graph.unpack(result);
+        if (statistics != null) {
+            statistics.unpackFinished(System.nanoTime() - unpackStart);
+        }
+        return route;
+    }
 
-                    // Erstelle ein neues VisitedNode-Objekt fuer v
-                    VisitedNode newU = visitedNodes.get(visitedNodes.size() - 1);
-                    // Berechne die neue Reisezeit von Start nach v
-                    double newTravelTimeV = newU.travelTime() + this.getShortestEdgeBetweenNodes(newU.id().getName(), v.id()).duration;
-                    VisitedNode visitedNodeV = new VisitedNode(v.id(), newTravelTimeV, newSocV, 0.0);
-                    // Ueberpruefe, ob der neue Zustand von v schlechter als irgendein anderer Zustand in V ist
-                    if (this.checkIfCurrentNodeIsBetter(visitedNodeV)) {
-                        // Vervollstaendige die Liste durch Hinzufuegen von v und erstelle ein Path-Objekt und fuege dieses zu pathOfNode hinzu, sowie den VisitedNode von v zur Queue
-                        visitedNodes.add(visitedNodeV);
-                        Path path = new Path(visitedNodes);
-                        pathOfNode.put(visitedNodeV.id(), path);
-                        queue.put(visitedNodeV.id(), newTravelTimeV);
-                    }
-                }
-                else {
-                    // Ladestand bei v groesser als 0, genuegend Energie vorhanden, um v erreichen zu koennen, sodass nicht geladen werden muss
+    private Path search(DiBaSEMSearch search, int start, int end, long setupStart, SearchLimits limits, Approximation approximation, SearchStatistics statistics) {
+        search.setLimits(limits);
+        search.setApproximation(approximation);
+        if (statistics == null) {
+            return search.search(start, end);
+        }
+        long searchStart = System.nanoTime();
+        statistics.setupFinished(searchStart - setupStart);
+        search.setStatistics(statistics);
+        Path result = search.search(start, end);
+        statistics.searchFinished(System.nanoTime() - searchStart);
+        return result;
+    }
 
-                    // Uebernehme den Pfad nach u
-                    List<VisitedNode> visitedNodes = new ArrayList<>(pathOfU.getPath());
-                    // Erstelle ein VisitedNode-Objekt fuer v, fuege dieses sowohl zur Liste fuer den neuen Pfad als auch zur Queue hinzu
-                    VisitedNode visitedNodeV = new VisitedNode(v.id(), currentTravelTime, currentSoc, 0.0);
-                    // Ueberpruefe, ob der neue Zustand von v schlechter als irgendein anderer Zustand in V ist
-                    if (this.checkIfCurrentNodeIsBetter(visitedNodeV)) {
-                        visitedNodes.add(visitedNodeV);
-                        queue.put(visitedNodeV.id(), currentTravelTime);
-                        // Erstelle einen neuen Pfad fuer den Knoten v
-                        Path path = new Path(visitedNodes);
-                        pathOfNode.put(visitedNodeV.id(), path);
-                    }
+    private CachedRoute toCachedRoute(double initialCharge, List<VisitedNode> route) {
+        // Reisezeit, Verbrauch und Ladeleistung werden einmalig im Strassennetz nachgeschlagen, damit der Weg spaeter ohne Graph nachgerechnet werden kann.
+        // Liefert null, falls ein Knoten oder eine Kante des Weges nicht mehr existiert.
+        RoadGraph graph = this.getRoadGraph();
+        double[] edgeDurations = new double[route.size()];
+        double[] edgeConsumptions = new double[route.size()];
+        double[] chargingPowers = new double[route.size()];
+        int previous = -1;
+        for (int i = 0; i < route.size(); i++) {
+            int node = graph.findNode(route.get(i).id().getName());
+            if (node < 0) {
+                return null;
+            }
+            if (previous >= 0) {
+                int edge = graph.getShortestEdge(previous, node);
+                if (edge < 0) {
+                    return null;
                 }
+                edgeDurations[i] = graph.getDuration(edge);
+                edgeConsumptions[i] = graph.getConsumption(edge);
             }
+            chargingPowers[i] = graph.getChargingPower(node);
+            previous = node;
         }
-
-        // Ueberpruefe, ob ein Pfad gefunden wurde
-        if (result != null) {
-            // Falls ein Pfad zum Zielknoten gefunden wurde, gebe diesen als Stream von VisitedNodeResults zurueck
-            return result.getPath().stream()
-                    .map(visitedNode -> new VisitedNodeResult(
-                            visitedNode.id().getName(),
-                            visitedNode.travelTime(),
-                            visitedNode.soc(),
-                            visitedNode.chargingTime()
-                    ));
-        } else {
-            // Falls kein Pfad gefunden werden konnte, gebe einen leeren Stream zurueck
-            return Stream.empty();
-        }
+        return new CachedRoute(initialCharge, route, edgeDurations, edgeConsumptions, chargingPowers);
     }
 
-    private void initialize(PriorityQueue queue, NodeContainer start, double initialCharge) {
-        pathOfNode = new HashMap<>();
-
-        // Erstelle eine Liste fuer den Weg des Startknotens mit diesem als VisitedNode darin enthalten
-        List<VisitedNode> startPath = new ArrayList<>();
-        VisitedNode startNode = new VisitedNode(start.id, 0.0, initialCharge, 0.0);
-        startPath.add(startNode);
-        Path path = new Path(startPath);
-        pathOfNode.put(startNode.id(), path);
-        // Fuege ausschließlich den Startknoten zur Priority Queue hinzu
-        queue.put(startNode.id(), 0.0);
+    private RoadGraph instrument(RoadGraph graph, SearchStatistics statistics) {
+        // Ohne Instrumentierung wird der Graph unveraendert verwendet
+        return statistics == null ? graph : new CountingRoadGraph(graph, statistics);
     }
 
-    private boolean checkIfCurrentNodeIsBetter(VisitedNode visitedNode) {
-        for (Map.Entry<VisitedNodeId, Path> entry : pathOfNode.entrySet()) {
-            VisitedNodeId nodeId = entry.getKey();
-            Path path = entry.getValue();
-
-            // Prüfen, ob der Name des aktuellen Knotens mit dem Namen des Knotens im Path übereinstimmt
-            if (nodeId.getName().equals(visitedNode.id().getName())) {
-                VisitedNode nodeInPath = path.getNodeById(nodeId);
+    @Procedure
+    public Stream<ReachableNodeResult> executeReachability(@Name("startId") String startId, @Name("maxSoc") double maxSoc, @Name("initialCharge") double initialCharge, @Name("minChargingTime") double minChargingTime,
+                                                          @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        SearchConfig searchConfig = this.getOneToAllConfig(config, "reachability");
+        RoadGraph graph = this.getRoadGraph();
+        int start = graph.findNode(startId);
+        if (start < 0) {
+            return Stream.empty();
+        }
+        // Die Knoten werden erst beim Lesen des Streams gesucht, sodass der Aufrufer sie erhaelt, sobald sie abgearbeitet sind
+        ReachabilitySearch search = new ReachabilitySearch(graph, start, maxSoc, initialCharge, minChargingTime, searchConfig.getMaxTravelTime(), searchConfig.getMaxConsumption());
+        search.setLimits(SearchLimits.from(searchConfig, this.guard::check));
+        return Stream.iterate(search.next(), Objects::nonNull, path -> search.next())
+                .map(path -> new ReachableNodeResult(
+                        path.getLastNode().id().getName(),
+                        path.getLastNode().travelTime(),
+                        path.getLastNode().soc(),
+                        path.getChargingTime(),
+                        path.getConsumption(),
+                        searchConfig.isIncludePath() ? path.getPath().stream().map(visitedNode -> visitedNode.id().getName()).toList() : null
+                ))
+                // Wird der Stream vor dem letzten Knoten geschlossen, etwa durch LIMIT, gibt onClose den Speicher frei
+                .onClose(search::release);
+    }
 
-                // Wenn der Knoten gefunden wurde, vergleichen Sie die Reisezeit und den SOC
-                if (nodeInPath != null) {
-                    if (visitedNode.travelTime() > nodeInPath.travelTime() && visitedNode.soc() < nodeInPath.soc()) {
-                        // Der aktuelle Knoten ist schlechter oder gleich in Bezug auf Reisezeit und SOC
-                        return false;
-                    } else {
-                        // Der aktuelle Knoten ist besser in Bezug auf Reisezeit und SOC
-                        continue;
-                    }
+    @Procedure
+    public Stream<MatrixResult> executeMatrix(@Name("sourceIds") List<String> sourceIds, @Name("targetIds") List<String> targetIds, @Name("maxSoc") double maxSoc, @Name("initialCharge") double initialCharge,
+                                              @Name("minChargingTime") double minChargingTime, @Name(value = "config", defaultValue = "{}") Map<String, Object> config) {
+        SearchConfig searchConfig = this.getOneToAllConfig(config, "matrix");
+        RoadGraph graph = this.getRoadGraph();
+        int[] targets = targetIds.stream().mapToInt(graph::findNode).filter(target -> target >= 0).distinct().toArray();
+        List<Integer> sources = sourceIds.stream().map(graph::findNode).filter(source -> source >= 0).toList();
+        MatrixSearch search = new MatrixSearch(graph, maxSoc, initialCharge, minChargingTime);
+        if (!(graph instanceof GraphSnapshot) || searchConfig.getThreads() == 1 || sources.size() < 2) {
+            // Der Store darf nur vom Thread der Transaktion gelesen werden, daher wird ohne Snapshot ein Startknoten nach dem anderen gesucht
+            return sources.stream().flatMap(source -> this.toMatrixResults(graph, source, search.searchFrom(source, targets, SearchLimits.from(searchConfig, this.guard::check))).stream());
+        }
+        // Jeder Startknoten ist eine eigene Aufgabe mit eigenem Suchzustand und eigenen Grenzen, die auch den Abbruch der Transaktion pruefen.
+        // Hoechstens threads Worker laufen gleichzeitig im gemeinsamen Pool, jeder holt sich den naechsten noch nicht gesuchten Startknoten.
+        // Die Zeilen werden in der Reihenfolge der Startknoten gestreamt.
+        List<CompletableFuture<List<MatrixResult>>> rows = new ArrayList<>(sources.size());
+        for (int i = 0; i < sources.size(); i++) {
+            rows.add(new CompletableFuture<>());
+        }
+        AtomicInteger nextSource = new AtomicInteger();
+        Runnable worker = () -> {
+            for (int i = nextSource.getAndIncrement(); i < sources.size(); i = nextSource.getAndIncrement()) {
+                CompletableFuture<List<MatrixResult>> row = rows.get(i);
+                if (row.isDone()) {
+                    // Der Stream wurde geschlossen, die uebrigen Startknoten werden nicht mehr gesucht
+                    continue;
+                }
+                try {
+                    int source = sources.get(i);
+                    row.complete(this.toMatrixResults(graph, source, search.searchFrom(source, targets, SearchLimits.from(searchConfig, this.guard::check))));
+                } catch (Throwable e) {
+                    row.completeExceptionally(e);
                 }
             }
+        };
+        ForkJoinPool pool = SearchThreads.get();
+        for (int i = Math.min(SearchThreads.clamp(searchConfig.getThreads()), sources.size()); i > 0; i--) {
+            pool.execute(worker);
         }
-        // Der aktuelle Knoten ist besser als alle Knoten mit demselben Namen im Path
-        return true;
+        return rows.stream().flatMap(row -> {
+            try {
+                return row.join().stream();
+            } catch (CompletionException e) {
+                // Ein Abbruch der Transaktion wird unveraendert weitergegeben
+                throw e.getCause() instanceof RuntimeException cause ? cause : new RuntimeException("Matrix search failed", e.getCause());
+            }
+        }).onClose(() -> rows.forEach(row -> row.cancel(false)));
     }
 
-    private double calculateNewSoc(double maxSoc, double soc, double chargingTime, double chargingPower) {
-        // Berechne aus dem aktuellen SoC und der chargingTime den neuen Ladestand in kWh abhaengig von Ladeleistung und maximaler Akkukapazitaet
-        double chargedEnergy = (chargingTime / 60.0) * chargingPower;
-        chargedEnergy = Math.round(chargedEnergy * 100.0) / 100.0;
-        double newSoc = soc + chargedEnergy;
-        return Math.min(newSoc, maxSoc);
+    private List<MatrixResult> toMatrixResults(RoadGraph graph, int source, List<Path> paths) {
+        // Nicht erreichbare Zielknoten erhalten keine Zeile
+        List<MatrixResult> results = new ArrayList<>(paths.size());
+        for (Path path : paths) {
+            VisitedNode target = path.getLastNode();
+            results.add(new MatrixResult(graph.getId(source), target.id().getName(), target.travelTime(), target.soc(), path.getChargingTime()));
+        }
+        return results;
     }
 
-    private double calculateAdditionalChargeTime(double currentSoc, double necessarySoc, double chargingPower) {
-        // Berechne die benoetigte Ladezeit, um von dem aktuellen SoC auf den neuen SoC zu gelangen in min abhaengig von der Ladeleistung
-        if (chargingPower == 0.0 || necessarySoc < currentSoc)
-            return 0.0;
-        double necessaryChargedEnergy = necessarySoc - currentSoc;
-        double chargingTime = (necessaryChargedEnergy / chargingPower) * 60.0;
-        chargingTime = Math.round(chargingTime * 100.0) / 100.0;
-        return chargingTime;
+    private SearchConfig getOneToAllConfig(Map<String, Object> config, String procedure) {
+        SearchConfig searchConfig = SearchConfig.from(config);
+        if (!SearchConfig.ENGINE_DIJKSTRA.equals(searchConfig.getEngine()) || !SearchConfig.HEURISTIC_NONE.equals(searchConfig.getHeuristic()) || searchConfig.isBackwardPotential()) {
+            // Ohne einzelnen Zielknoten gibt es keine Schranke fuer die Restreisezeit, und Hierarchie bzw. Overlay setzen einen Zielknoten voraus
+            throw new IllegalArgumentException("The " + procedure + " search only supports the dijkstra engine without heuristic or backward potential");
+        }
+        return searchConfig;
     }
 
-    private NodeContainer getNodeById(String nodeId) {
-        // Liefert den Node aus der Datenbank anhand seiner ID zurueck
-        Result result = tx.execute("MATCH (n) WHERE n.id = $id RETURN n AS node, n.id AS id, n.chargingPower AS chargingPower", Collections.singletonMap("id", nodeId));
-        if (result.hasNext()) {
-            Map<String, Object> row = result.next();
-            Node node = (Node) row.get("node");
-            String id = (String) node.getProperty("id", "");
-            double chargingPower = ((Number) node.getProperty("chargingPower", 0.0)).doubleValue();
-            return new NodeContainer(node, id, chargingPower);
-        } else {
-            return null;
-        }
+    private RoadGraph getRoadGraph() {
+        // Falls ein Snapshot des Strassennetzes geladen ist, wird ausschliesslich dieser gelesen, sonst der Store
+        RoadGraph graph = GraphSnapshots.get(this.db.databaseName());
+        return graph == null ? new StoreGraph(this.tx) : graph;
     }
 
-    private List<EdgeContainer> getEdgesFromSourceNode(String nodeId) {
-        // Liefert alle Edges, die von einem bestimmten Knoten aus gehen zurueck
-        NodeContainer sourceNodeContainer = getNodeById(nodeId);
-        if (sourceNodeContainer != null) {
-            List<EdgeContainer> edges = new ArrayList<>();
-            for (Relationship relationship : sourceNodeContainer.node.getRelationships(Direction.OUTGOING)) {
-                double duration = ((Number) relationship.getProperty("duration", 0.0)).doubleValue();
-                double consumption = ((Number) relationship.getProperty("consumption", 0.0)).doubleValue();
-                edges.add(new EdgeContainer(relationship, duration, consumption));
-            }
-            return edges;
-        } else {
-            return Collections.emptyList();
-        }
+    private SearchStatus getStatus(SearchConfig searchConfig, SearchLimits limits) {
+        // Hierarchie und Overlay fuehren dieselbe Suche auf einem anderen Graphen aus. Die Ladeentscheidungen haengen von der Reihenfolge ab,
+        // in der Labels abgeschlossen und verworfen werden, daher kann der Weg bei gleicher Eingabe von dem im Strassennetz abweichen.
+        boolean derivedGraph = SearchConfig.ENGINE_HIERARCHY.equals(searchConfig.getEngine()) || SearchConfig.ENGINE_OVERLAY.equals(searchConfig.getEngine());
+        return derivedGraph && limits.getStatus() == SearchStatus.COMPLETE ? SearchStatus.HEURISTIC : limits.getStatus();
     }
 
-    private EdgeContainer getShortestEdgeBetweenNodes(String sourceId, String destinationId) {
-        // Liefert die kuerzeste Kante zwischen zwei Knoten zurueck
-        NodeContainer sourceNodeContainer = getNodeById(sourceId);
-        NodeContainer destinationNodeContainer = getNodeById(destinationId);
-        if (sourceNodeContainer != null && destinationNodeContainer != null) {
-            Result result = tx.execute(
-                    "MATCH (start)-[r]->(end) " +
-                            "WHERE start.id = $sourceId AND end.id = $destinationId " +
-                            "RETURN r AS relationship, r.duration AS duration, r.consumption AS consumption " +
-                            "ORDER BY r.duration ASC LIMIT 1",
-                    Map.of("sourceId", sourceId, "destinationId", destinationId));
-            if (result.hasNext()) {
-                Map<String, Object> row = result.next();
-                Relationship relationship = (Relationship) row.get("relationship");
-                double duration = ((Number) row.get("duration")).doubleValue();
-                double consumption = ((Number) row.get("consumption")).doubleValue();
-                return new EdgeContainer(relationship, duration, consumption);
-            }
+    private Double getErrorEstimate(SearchStatus status, Approximation approximation, double minChargingTime) {
+        // Geschaetzter Fehler gegenueber der exakten Suche. Nach einem Abbruch an einer Grenze oder auf einem abgeleiteten Graphen ist keiner bekannt.
+        if (status != SearchStatus.COMPLETE) {
+            return null;
         }
-        return null;
+        if (approximation == null) {
+            return 0.0;
+        }
+        return approximation.getErrorEstimate(minChargingTime);
     }
 
+    private Stream<VisitedNodeResult> toResults(List<VisitedNode> path, SearchStatus status, Double errorEstimate) {
+        return path.stream()
+                .map(visitedNode -> new VisitedNodeResult(
+                        visitedNode.id().getName(),
+                        visitedNode.travelTime(),
+                        visitedNode.soc(),
+                        visitedNode.chargingTime(),
+                        status.name(),
+                        errorEstimate
+                ));
+    }
 }
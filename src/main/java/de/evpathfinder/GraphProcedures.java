@@ -0,0 +1,177 @@
+package de.evpathfinder;
+
+import de.evpathfinder.cache.RouteCache;
+import de.evpathfinder.cache.RouteCaches;
+import de.evpathfinder.data.CacheResult;
+import de.evpathfinder.data.GraphResult;
+import de.evpathfinder.data.HierarchyResult;
+import de.evpathfinder.data.IndexResult;
+import de.evpathfinder.data.LandmarkResult;
+import de.evpathfinder.data.OverlayResult;
+import de.evpathfinder.data.StatsResult;
+import de.evpathfinder.graph.GraphSnapshot;
+import de.evpathfinder.graph.GraphSnapshots;
+import de.evpathfinder.graph.StoreGraph;
+import de.evpathfinder.hierarchy.ContractionHierarchy;
+import de.evpathfinder.hierarchy.Hierarchies;
+import de.evpathfinder.overlay.StationOverlay;
+import de.evpathfinder.overlay.StationOverlays;
+import de.evpathfinder.search.Landmarks;
+import de.evpathfinder.search.StaleLandmarks;
+import de.evpathfinder.stats.Histogram;
+import de.evpathfinder.stats.SearchStatisticsCollector;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.ResourceIterator;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.schema.IndexDefinition;
+import org.neo4j.graphdb.schema.IndexType;
+import org.neo4j.graphdb.schema.Schema;
+import org.neo4j.procedure.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.StreamSupport;
+import java.util.stream.Stream;
+
+public class GraphProcedures {
+
+    public static final String INDEX_NAME = "dibasem_location_id";
+    // Knoten je Transaktion beim Schreiben der Landmark-Distanzen
+    private static final int LANDMARK_BATCH_SIZE = 10_000;
+
+    @Context
+    public Transaction tx;
+
+    @Context
+    public GraphDatabaseService db;
+
+    @Procedure(name = "dibasem.createIndex", mode = Mode.SCHEMA)
+    public Stream<IndexResult> createIndex() {
+        // Legt den Index auf :Location(id) an, ueber den DiBaSEM Start- und Zielknoten findet, falls er noch nicht existiert
+        Schema schema = this.tx.schema();
+        for (IndexDefinition index : schema.getIndexes(StoreGraph.NODE_LABEL)) {
+            if (index.getIndexType() == IndexType.RANGE && !index.isCompositeIndex() && List.of(StoreGraph.ID_PROPERTY).equals(this.getPropertyKeys(index))) {
+                // Index existiert bereits, liefere dessen aktuellen Zustand zurueck
+                return Stream.of(new IndexResult(index.getName(), StoreGraph.NODE_LABEL.name(), StoreGraph.ID_PROPERTY, schema.getIndexState(index).name()));
+            }
+        }
+        IndexDefinition index = schema.indexFor(StoreGraph.NODE_LABEL).on(StoreGraph.ID_PROPERTY).withIndexType(IndexType.RANGE).withName(INDEX_NAME).create();
+        return Stream.of(new IndexResult(index.getName(), StoreGraph.NODE_LABEL.name(), StoreGraph.ID_PROPERTY, "CREATED"));
+    }
+
+    @Procedure(name = "dibasem.loadGraph")
+    public Stream<GraphResult> loadGraph() {
+        // Laedt das Strassennetz als In-Memory-Snapshot, den alle folgenden Routing-Anfragen dieser Datenbank verwenden
+        long startTime = System.currentTimeMillis();
+        GraphSnapshot snapshot = GraphSnapshots.load(this.db.databaseName(), this.tx);
+        return Stream.of(new GraphResult(this.db.databaseName(), snapshot.getNodeCount(), snapshot.getEdgeCount(), System.currentTimeMillis() - startTime));
+    }
+
+    @Procedure(name = "dibasem.unloadGraph")
+    public void unloadGraph() {
+        // Verwirft den Snapshot, Routing-Anfragen lesen danach wieder direkt aus dem Store
+        GraphSnapshots.unload(this.db.databaseName());
+    }
+
+    @Procedure(name = "dibasem.computeLandmarks", mode = Mode.WRITE)
+    public Stream<LandmarkResult> computeLandmarks(@Name(value = "count", defaultValue = "16") long count) {
+        // Berechnet die Reisezeiten von und zu den Landmarks fuer die ALT-Heuristik und speichert sie an jedem Knoten
+        long startTime = System.currentTimeMillis();
+        List<Node> nodes = new ArrayList<>();
+        try (ResourceIterator<Node> networkNodes = this.tx.findNodes(StoreGraph.NODE_LABEL)) {
+            networkNodes.forEachRemaining(nodes::add);
+        }
+        GraphSnapshot graph = GraphSnapshot.build(nodes);
+        Landmarks landmarks = Landmarks.compute(graph, (int) Math.max(1, count));
+        // Die Distanzen werden in eigenen Transaktionen zu je LANDMARK_BATCH_SIZE Knoten geschrieben,
+        // da eine einzige Transaktion ueber alle Knoten bei grossen Netzen den Speicher der Transaktion sprengt
+        for (int first = 0; first < nodes.size(); first += LANDMARK_BATCH_SIZE) {
+            try (Transaction batch = this.db.beginTx()) {
+                for (int node = first, end = Math.min(first + LANDMARK_BATCH_SIZE, nodes.size()); node < end; node++) {
+                    Node batchNode = batch.getNodeByElementId(nodes.get(node).getElementId());
+                    batchNode.setProperty(StoreGraph.LANDMARK_DISTANCES_FROM_PROPERTY, landmarks.getDistancesFrom(node));
+                    batchNode.setProperty(StoreGraph.LANDMARK_DISTANCES_TO_PROPERTY, landmarks.getDistancesTo(node));
+                }
+                batch.commit();
+            }
+        }
+        StaleLandmarks.clear(this.db.databaseName());
+        List<String> landmarkIds = new ArrayList<>(landmarks.getCount());
+        for (int i = 0; i < landmarks.getCount(); i++) {
+            landmarkIds.add(graph.getId(landmarks.getLandmark(i)));
+        }
+        return Stream.of(new LandmarkResult(landmarkIds, nodes.size(), System.currentTimeMillis() - startTime));
+    }
+
+    @Procedure(name = "dibasem.buildHierarchy")
+    public Stream<HierarchyResult> buildHierarchy(@Name(value = "maxEdgeDifference", defaultValue = "2") double maxEdgeDifference) {
+        // Baut die Contraction Hierarchy fuer die Anfragen mit engine 'hierarchy' und speichert sie auf der Festplatte
+        long startTime = System.currentTimeMillis();
+        String databaseName = this.db.databaseName();
+        ContractionHierarchy hierarchy = Hierarchies.build(databaseName, this.tx, maxEdgeDifference);
+        return Stream.of(new HierarchyResult(databaseName, hierarchy.getNodeCount(), hierarchy.getCoreNodeCount(), hierarchy.getEdgeCount(),
+                hierarchy.getShortcutCount(), System.currentTimeMillis() - startTime, Hierarchies.getFile(databaseName).getAbsolutePath()));
+    }
+
+    @Procedure(name = "dibasem.buildOverlay")
+    public Stream<OverlayResult> buildOverlay(@Name("maxBattery") double maxBattery) {
+        // Baut den Overlay-Graphen der Ladestationen fuer Anfragen mit engine 'overlay' und haelt ihn bei Aenderungen aktuell
+        long startTime = System.currentTimeMillis();
+        StationOverlay overlay = StationOverlays.build(this.db.databaseName(), this.tx, maxBattery);
+        return Stream.of(new OverlayResult(this.db.databaseName(), overlay.getStationCount(), overlay.getEdgeCount(), maxBattery, System.currentTimeMillis() - startTime));
+    }
+
+    @Procedure(name = "dibasem.dropOverlay")
+    public void dropOverlay() {
+        StationOverlays.drop(this.db.databaseName());
+    }
+
+    @Procedure(name = "dibasem.configureCache")
+    public Stream<CacheResult> configureCache(@Name(value = "maxEntries", defaultValue = "10000") long maxEntries, @Name(value = "bucketWidth", defaultValue = "1.0") double bucketWidth) {
+        // Richtet einen leeren Routen-Cache fuer diese Datenbank ein, maxEntries = 0 entfernt ihn
+        if (maxEntries < 0 || bucketWidth <= 0.0) {
+            throw new IllegalArgumentException("maxEntries must not be negative and bucketWidth must be positive");
+        }
+        if (maxEntries == 0) {
+            RouteCaches.drop(this.db.databaseName());
+            return Stream.empty();
+        }
+        return Stream.of(this.toCacheResult(RouteCaches.configure(this.db.databaseName(), (int) Math.min(maxEntries, Integer.MAX_VALUE), bucketWidth)));
+    }
+
+    @Procedure(name = "dibasem.cacheStats")
+    public Stream<CacheResult> cacheStats() {
+        RouteCache cache = RouteCaches.get(this.db.databaseName());
+        return cache == null ? Stream.empty() : Stream.of(this.toCacheResult(cache));
+    }
+
+    private CacheResult toCacheResult(RouteCache cache) {
+        long lookups = cache.getHits() + cache.getMisses();
+        return new CacheResult(this.db.databaseName(), cache.getSize(), cache.getMaxEntries(), cache.getBucketWidth(), cache.getHits(), cache.getMisses(),
+                cache.getRevalidationFailures(), cache.getEvictions(), cache.getInvalidations(), lookups == 0 ? 0.0 : (double) cache.getHits() / lookups);
+    }
+
+    @Procedure(name = "dibasem.collectStats")
+    public void collectStats(@Name("enabled") boolean enabled) {
+        // Schaltet die Histogramme ueber alle Routing-Anfragen ein (mit leeren Histogrammen) oder aus
+        SearchStatisticsCollector.setEnabled(enabled);
+    }
+
+    @Procedure(name = "dibasem.stats")
+    public Stream<StatsResult> stats() {
+        return SearchStatisticsCollector.getHistograms().entrySet().stream()
+                .map(entry -> {
+                    Histogram histogram = entry.getValue();
+                    long calls = histogram.getCount();
+                    return new StatsResult(entry.getKey(), calls, histogram.getSum(), histogram.getMin(), histogram.getMax(),
+                            calls == 0 ? 0.0 : (double) histogram.getSum() / calls,
+                            histogram.getPercentile(50), histogram.getPercentile(90), histogram.getPercentile(99), histogram.getBuckets());
+                });
+    }
+
+    private List<String> getPropertyKeys(IndexDefinition index) {
+        return StreamSupport.stream(index.getPropertyKeys().spliterator(), false).toList();
+    }
+
+}
@@ -0,0 +1,86 @@
+package de.evpathfinder.cache;
+
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.search.DiBaSEMSearch;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Ein zwischengespeicherter Weg mit der Anfangsladung, fuer die er berechnet wurde, sowie Reisezeit, Verbrauch und Ladeleistung
+ * je Knoten, damit er fuer eine andere Anfangsladung ohne Zugriff auf den Graphen nachgerechnet werden kann.
+ */
+public class CachedRoute {
+
+    private final double initialCharge;
+    private final List<VisitedNode> route;
+    // Reisezeit und Verbrauch der Kante zum Knoten i, beim Startknoten 0
+    private final double[] edgeDurations;
+    private final double[] edgeConsumptions;
+    private final double[] chargingPowers;
+    private final Set<String> nodeIds;
+
+    public CachedRoute(double initialCharge, List<VisitedNode> route, double[] edgeDurations, double[] edgeConsumptions, double[] chargingPowers) {
+        this.initialCharge = initialCharge;
+        this.route = List.copyOf(route);
+        this.edgeDurations = edgeDurations;
+        this.edgeConsumptions = edgeConsumptions;
+        this.chargingPowers = chargingPowers;
+        this.nodeIds = new HashSet<>();
+        for (VisitedNode visitedNode : route) {
+            this.nodeIds.add(visitedNode.id().getName());
+        }
+    }
+
+    public boolean contains(String nodeId) {
+        return this.nodeIds.contains(nodeId);
+    }
+
+    public List<VisitedNode> revalidate(double initialCharge, double maxSoc, double minChargingTime) {
+        // Bei gleicher Anfangsladung wird der Weg unveraendert verwendet, sonst nachgerechnet
+        if (initialCharge == this.initialCharge) {
+            return this.route;
+        }
+        return this.replay(initialCharge, maxSoc, minChargingTime);
+    }
+
+    public List<VisitedNode> replay(double initialCharge, double maxSoc, double minChargingTime) {
+        // Faehrt den Weg mit der neuen Anfangsladung nach. Am ersten Ladestopp wird so lange geladen, bis der zwischengespeicherte
+        // Ladestand wieder erreicht ist, alle weiteren Ladestopps bleiben unveraendert. Der Weg wird nur verwendet, wenn der Ladestand
+        // dabei nirgends negativ wird, wo er es im zwischengespeicherten Weg nicht schon war. Sonst wird null zurueckgegeben.
+        List<VisitedNode> replayed = new ArrayList<>(this.route.size());
+        double travelTime = 0.0;
+        double soc = initialCharge;
+        double cachedSoc = this.initialCharge;
+        boolean firstStopAdjusted = false;
+        for (int i = 0; i < this.route.size(); i++) {
+            VisitedNode cached = this.route.get(i);
+            travelTime += this.edgeDurations[i];
+            soc -= this.edgeConsumptions[i];
+            cachedSoc -= this.edgeConsumptions[i];
+            if (soc < 0.0 && soc < cachedSoc) {
+                return null;
+            }
+            double chargingTime = cached.chargingTime();
+            if (chargingTime > 0.0 && !firstStopAdjusted) {
+                firstStopAdjusted = true;
+                chargingTime = DiBaSEMSearch.calculateAdditionalChargeTime(soc, cached.soc(), this.chargingPowers[i]);
+                if (chargingTime > 0.0 && chargingTime < minChargingTime) {
+                    chargingTime = minChargingTime;
+                }
+            }
+            if (chargingTime > 0.0) {
+                travelTime += chargingTime;
+                soc = DiBaSEMSearch.calculateNewSoc(maxSoc, soc, chargingTime, this.chargingPowers[i]);
+            }
+            cachedSoc = cached.soc();
+            if (soc < 0.0 && soc < cachedSoc) {
+                return null;
+            }
+            replayed.add(new VisitedNode(cached.id(), travelTime, soc, chargingTime));
+        }
+        return replayed;
+    }
+}
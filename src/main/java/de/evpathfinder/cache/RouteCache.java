@@ -0,0 +1,139 @@
+package de.evpathfinder.cache;
+
+import de.evpathfinder.data.VisitedNode;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Begrenzter LRU-Cache der Wege einer Datenbank. Anfragen, deren Anfangsladung in denselben Bucket der Breite bucketWidth faellt,
+ * teilen sich einen Eintrag, der vor der Verwendung mit der exakten Anfangsladung nachgerechnet wird.
+ */
+public class RouteCache {
+
+    private final int maxEntries;
+    private final double bucketWidth;
+    private final Map<RouteKey, CachedRoute> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidationFailures = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+    // Wird bei jeder Invalidierung erhoeht. Ein Weg, dessen Suche vor einer Invalidierung begonnen hat, kann veraltet sein und wird nicht gespeichert.
+    private long generation = 0;
+
+    public RouteCache(int maxEntries, double bucketWidth) {
+        this.maxEntries = maxEntries;
+        this.bucketWidth = bucketWidth;
+        // Zugriffsreihenfolge, sodass der am laengsten nicht genutzte Eintrag zuerst verdraengt wird
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<RouteKey, CachedRoute> eldest) {
+                if (this.size() > RouteCache.this.maxEntries) {
+                    RouteCache.this.evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    public RouteKey createKey(String startId, String endId, double maxSoc, double initialCharge, double minChargingTime, String settings) {
+        return new RouteKey(startId, endId, maxSoc, minChargingTime, (long) Math.floor(initialCharge / this.bucketWidth), settings);
+    }
+
+    public List<VisitedNode> get(RouteKey key, double initialCharge) {
+        // Liefert den nachgerechneten Weg, oder null falls kein passender Eintrag existiert
+        CachedRoute cachedRoute;
+        synchronized (this.entries) {
+            cachedRoute = this.entries.get(key);
+        }
+        if (cachedRoute == null) {
+            this.misses.increment();
+            return null;
+        }
+        List<VisitedNode> route = cachedRoute.revalidate(initialCharge, key.maxSoc(), key.minChargingTime());
+        if (route == null) {
+            this.revalidationFailures.increment();
+            this.misses.increment();
+            return null;
+        }
+        this.hits.increment();
+        return route;
+    }
+
+    public long getGeneration() {
+        // Vor der Suche zu lesen und an put zu uebergeben
+        synchronized (this.entries) {
+            return this.generation;
+        }
+    }
+
+    public void put(RouteKey key, CachedRoute cachedRoute, long generation) {
+        synchronized (this.entries) {
+            if (generation == this.generation) {
+                this.entries.put(key, cachedRoute);
+            }
+        }
+    }
+
+    public void invalidate(Set<String> nodeIds) {
+        // Verwirft alle Eintraege, deren Weg einen der Knoten beruehrt
+        synchronized (this.entries) {
+            this.generation++;
+            for (Iterator<CachedRoute> iterator = this.entries.values().iterator(); iterator.hasNext(); ) {
+                CachedRoute cachedRoute = iterator.next();
+                if (nodeIds.stream().anyMatch(cachedRoute::contains)) {
+                    iterator.remove();
+                    this.invalidations.increment();
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (this.entries) {
+            this.generation++;
+            this.invalidations.add(this.entries.size());
+            this.entries.clear();
+        }
+    }
+
+    public int getSize() {
+        synchronized (this.entries) {
+            return this.entries.size();
+        }
+    }
+
+    public int getMaxEntries() {
+        return this.maxEntries;
+    }
+
+    public double getBucketWidth() {
+        return this.bucketWidth;
+    }
+
+    public long getHits() {
+        return this.hits.sum();
+    }
+
+    public long getMisses() {
+        return this.misses.sum();
+    }
+
+    public long getRevalidationFailures() {
+        return this.revalidationFailures.sum();
+    }
+
+    public long getEvictions() {
+        return this.evictions.sum();
+    }
+
+    public long getInvalidations() {
+        return this.invalidations.sum();
+    }
+}
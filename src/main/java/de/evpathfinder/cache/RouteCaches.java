@@ -0,0 +1,44 @@
+package de.evpathfinder.cache;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Prozessweite Verwaltung der {@link RouteCache}s je Datenbank. Ohne Aufruf von dibasem.configureCache werden keine Wege zwischengespeichert.
+ */
+public final class RouteCaches {
+
+    private static final Map<String, RouteCache> caches = new ConcurrentHashMap<>();
+
+    private RouteCaches() {
+    }
+
+    public static RouteCache get(String databaseName) {
+        return caches.get(databaseName);
+    }
+
+    public static RouteCache configure(String databaseName, int maxEntries, double bucketWidth) {
+        // Ersetzt einen bestehenden Cache durch einen leeren mit den neuen Einstellungen
+        RouteCache cache = new RouteCache(maxEntries, bucketWidth);
+        caches.put(databaseName, cache);
+        return cache;
+    }
+
+    public static void drop(String databaseName) {
+        caches.remove(databaseName);
+    }
+
+    public static void invalidate(String databaseName, Set<String> nodeIds) {
+        // nodeIds == null bedeutet, dass alle Eintraege betroffen sein koennen
+        RouteCache cache = caches.get(databaseName);
+        if (cache == null) {
+            return;
+        }
+        if (nodeIds == null) {
+            cache.clear();
+        } else if (!nodeIds.isEmpty()) {
+            cache.invalidate(nodeIds);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package de.evpathfinder.cache;
+
+/**
+ * Schluessel eines zwischengespeicherten Weges. Die Anfangsladung geht nur ueber ihren Bucket ein, die Einstellungen der Suche
+ * (engine, heuristic, backwardPotential, maxSpeed) ueber settings, da sie das Ergebnis beeinflussen koennen.
+ */
+public record RouteKey(String startId, String endId, double maxSoc, double minChargingTime, long initialChargeBucket, String settings) {
+}
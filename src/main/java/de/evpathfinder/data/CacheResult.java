@@ -0,0 +1,5 @@
+package de.evpathfinder.data;
+
+public record CacheResult(String database, long entries, long maxEntries, double bucketWidth, long hits, long misses, long revalidationFailures,
+                          long evictions, long invalidations, double hitRatio) {
+}
@@ -0,0 +1,4 @@
+package de.evpathfinder.data;
+
+public record GraphResult(String database, long nodes, long relationships, long loadMillis) {
+}
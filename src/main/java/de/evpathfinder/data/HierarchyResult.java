@@ -0,0 +1,4 @@
+package de.evpathfinder.data;
+
+public record HierarchyResult(String database, long nodes, long coreNodes, long edges, long shortcuts, long buildMillis, String file) {
+}
@@ -0,0 +1,4 @@
+package de.evpathfinder.data;
+
+public record IndexResult(String name, String label, String property, String state) {
+}
@@ -0,0 +1,149 @@
+package de.evpathfinder.data;
+
+import java.util.Arrays;
+
+/**
+ * Speicher einer Suche fuer die gehaltenen Labels und die Pareto-Fronten der Knoten.
+ * Jedes gehaltene Label belegt einen Platz in einer Tabelle, dessen Index wie die Position in der {@link PriorityQueue} direkt in der
+ * {@link VisitedNodeId} steht, Fronten werden ueber den Knotenindex angesprochen. So ist weder Hashing noch Boxing noetig.
+ * Plaetze entfernter Labels werden fuer neue Labels wiederverwendet, sodass die Tabelle nur mit der Zahl gleichzeitig gehaltener Labels waechst.
+ * Die Labels bleiben dabei {@link Path}-Objekte, die Tabelle haelt nur Referenzen auf sie; eine Ablage der Werte in primitiven Arrays
+ * (struct of arrays) gibt es nicht.
+ * Mit {@link #acquire()} und {@link #release()} werden die Tabellen je Thread fuer die naechste Suche aufbewahrt, zu grosse Tabellen
+ * werden dabei durch kleine ersetzt.
+ */
+public final class LabelStore {
+
+    // Groessere Tabellen werden nach der Suche nicht aufbewahrt, damit einzelne grosse Anfragen keinen Speicher dauerhaft belegen.
+    // Je Thread bleiben so hoechstens etwa 0,6 MB: zwei Tabellen mit 2^14 und zwei mit 2^16 Eintraegen zu je 4 Byte.
+    static final int MAX_POOLED_LABELS = 1 << 14;
+    static final int MAX_POOLED_NODES = 1 << 16;
+    private static final int INITIAL_CAPACITY = 64;
+
+    private static final ThreadLocal<LabelStore> POOL = new ThreadLocal<>();
+
+    private Path[] labels = new Path[INITIAL_CAPACITY];
+    // Bisher hoechster belegter Platz plus eins, darunter liegen belegte und freie Plaetze
+    private int usedSlots = 0;
+    private int[] freeSlots = new int[INITIAL_CAPACITY];
+    private int freeCount = 0;
+    private int size = 0;
+    private ParetoFront[] fronts = new ParetoFront[INITIAL_CAPACITY];
+    // Knoten mit Front, damit beim Leeren nicht die gesamte Tabelle durchlaufen werden muss
+    private int[] frontNodes = new int[INITIAL_CAPACITY];
+    private int frontCount = 0;
+
+    private LabelStore() {
+    }
+
+    public static LabelStore acquire() {
+        // Liefert den aufbewahrten Speicher des Threads oder einen neuen, falls keiner frei ist (z.B. bei verschachtelten Suchen)
+        LabelStore store = POOL.get();
+        if (store == null) {
+            return new LabelStore();
+        }
+        POOL.remove();
+        return store;
+    }
+
+    public void release() {
+        // Leert den Speicher und bewahrt ihn fuer die naechste Suche dieses Threads auf. Danach darf er nicht mehr verwendet werden.
+        if (this.labels.length > MAX_POOLED_LABELS) {
+            this.labels = new Path[INITIAL_CAPACITY];
+            this.freeSlots = new int[INITIAL_CAPACITY];
+        } else {
+            Arrays.fill(this.labels, 0, this.usedSlots, null);
+        }
+        if (this.fronts.length > MAX_POOLED_NODES) {
+            this.fronts = new ParetoFront[INITIAL_CAPACITY];
+            this.frontNodes = new int[INITIAL_CAPACITY];
+        } else {
+            for (int i = 0; i < this.frontCount; i++) {
+                this.fronts[this.frontNodes[i]] = null;
+            }
+        }
+        this.usedSlots = 0;
+        this.freeCount = 0;
+        this.size = 0;
+        this.frontCount = 0;
+        POOL.set(this);
+    }
+
+    public void put(VisitedNodeId label, Path path) {
+        // Legt das Label auf einen freien Platz, oder ersetzt den Weg, falls es bereits gehalten wird
+        if (this.contains(label)) {
+            this.labels[label.storeIndex] = path;
+            return;
+        }
+        int slot;
+        if (this.freeCount > 0) {
+            slot = this.freeSlots[--this.freeCount];
+        } else {
+            if (this.usedSlots == this.labels.length) {
+                this.labels = Arrays.copyOf(this.labels, this.usedSlots * 2);
+            }
+            slot = this.usedSlots++;
+        }
+        this.labels[slot] = path;
+        label.storeIndex = slot;
+        this.size++;
+    }
+
+    public Path get(VisitedNodeId label) {
+        return this.contains(label) ? this.labels[label.storeIndex] : null;
+    }
+
+    public void remove(VisitedNodeId label) {
+        if (!this.contains(label)) {
+            return;
+        }
+        int slot = label.storeIndex;
+        this.labels[slot] = null;
+        label.storeIndex = -1;
+        if (this.freeCount == this.freeSlots.length) {
+            this.freeSlots = Arrays.copyOf(this.freeSlots, this.freeCount * 2);
+        }
+        this.freeSlots[this.freeCount++] = slot;
+        this.size--;
+    }
+
+    private boolean contains(VisitedNodeId label) {
+        // Der Platz gehoert nur dann zu diesem Label, wenn dort noch sein Weg liegt. Nach release() stehen dort andere oder keine Wege.
+        int slot = label.storeIndex;
+        return slot >= 0 && slot < this.usedSlots && this.labels[slot] != null && this.labels[slot].getLastNode().id() == label;
+    }
+
+    public int size() {
+        // Anzahl der gehaltenen Labels
+        return this.size;
+    }
+
+    public int capacity() {
+        // Anzahl der Plaetze der Tabelle, sie waechst nur mit der hoechsten Zahl gleichzeitig gehaltener Labels
+        return this.labels.length;
+    }
+
+    int frontCapacity() {
+        return this.fronts.length;
+    }
+
+    public ParetoFront getFront(int node) {
+        return node < this.fronts.length ? this.fronts[node] : null;
+    }
+
+    public ParetoFront getOrCreateFront(int node) {
+        if (node >= this.fronts.length) {
+            this.fronts = Arrays.copyOf(this.fronts, Math.max(this.fronts.length * 2, node + 1));
+        }
+        ParetoFront front = this.fronts[node];
+        if (front == null) {
+            front = new ParetoFront();
+            this.fronts[node] = front;
+            if (this.frontCount == this.frontNodes.length) {
+                this.frontNodes = Arrays.copyOf(this.frontNodes, this.frontCount * 2);
+            }
+            this.frontNodes[this.frontCount++] = node;
+        }
+        return front;
+    }
+}
@@ -0,0 +1,6 @@
+package de.evpathfinder.data;
+
+import java.util.List;
+
+public record LandmarkResult(List<String> landmarks, long nodes, long computeMillis) {
+}
@@ -0,0 +1,4 @@
+package de.evpathfinder.data;
+
+public record MatrixResult(String source, String target, double travelTime, double finalSoc, double totalChargingTime) {
+}
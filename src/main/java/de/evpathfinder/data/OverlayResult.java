@@ -0,0 +1,4 @@
+package de.evpathfinder.data;
+
+public record OverlayResult(String database, long stations, long edges, double maxBattery, long buildMillis) {
+}
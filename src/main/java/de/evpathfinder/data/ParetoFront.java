@@ -0,0 +1,143 @@
+package de.evpathfinder.data;
+
+import java.util.Arrays;
+
+/**
+ * Pareto-Front der Labels (Reisezeit, SoC) eines einzelnen Knotens.
+ * Die Labels liegen nach Reisezeit sortiert in primitiven Arrays, Labels mit gleicher Reisezeit in der Reihenfolge ihres Hinzufuegens.
+ * Labels mit unterschiedlicher Reisezeit sind so abgelegt, dass der SoC mit der Reisezeit monoton steigt.
+ * Dadurch genuegt fuer die Dominanzpruefung ein Blick auf die Labels mit der naechstkleineren Reisezeit (O(log n)).
+ */
+public class ParetoFront {
+
+    private static final int INITIAL_CAPACITY = 2;
+
+    private double[] travelTimes = new double[INITIAL_CAPACITY];
+    private double[] socs = new double[INITIAL_CAPACITY];
+    private VisitedNode[] labels = new VisitedNode[INITIAL_CAPACITY];
+    private int size = 0;
+    // Die beim letzten add entfernten Labels, das Array wird zwischen den Aufrufen wiederverwendet
+    private VisitedNode[] dominated = new VisitedNode[INITIAL_CAPACITY];
+
+    public boolean isDominated(double travelTime, double soc) {
+        // Ein Label ist dominiert, wenn ein anderes Label eine echt kleinere Reisezeit und einen echt groesseren SoC hat
+        int faster = this.firstIndexNotBefore(travelTime, false) - 1;
+        if (faster < 0) {
+            return false;
+        }
+        // Wegen der Monotonie haben die Labels mit der naechstkleineren Reisezeit den groessten SoC aller schnelleren Labels
+        double fasterTravelTime = this.travelTimes[faster];
+        for (int i = faster; i >= 0 && this.travelTimes[i] == fasterTravelTime; i--) {
+            if (this.socs[i] > soc) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int add(VisitedNode label) {
+        // Fuegt das Label hinzu und liefert die Anzahl der dadurch dominierten und entfernten Labels, diese stehen in getDominated(i)
+        int position = this.firstIndexNotBefore(label.travelTime(), true);
+        int dominatedCount = 0;
+        int kept = position;
+        int scanned = position;
+        while (scanned < this.size) {
+            // Alle Labels derselben Reisezeit bilden eine Gruppe, die vollstaendig geprueft wird
+            double travelTime = this.travelTimes[scanned];
+            boolean keptLabel = false;
+            for (; scanned < this.size && this.travelTimes[scanned] == travelTime; scanned++) {
+                if (this.socs[scanned] < label.soc()) {
+                    if (dominatedCount == this.dominated.length) {
+                        this.dominated = Arrays.copyOf(this.dominated, dominatedCount * 2);
+                    }
+                    this.dominated[dominatedCount++] = this.labels[scanned];
+                } else {
+                    this.set(kept++, this.travelTimes[scanned], this.socs[scanned], this.labels[scanned]);
+                    keptLabel = true;
+                }
+            }
+            if (keptLabel) {
+                // Alle folgenden Labels haben mindestens diesen SoC und sind daher nicht dominiert
+                break;
+            }
+        }
+        if (dominatedCount > 0) {
+            // Die nicht mehr geprueften Labels rutschen an die freigewordenen Positionen
+            int remaining = this.size - scanned;
+            System.arraycopy(this.travelTimes, scanned, this.travelTimes, kept, remaining);
+            System.arraycopy(this.socs, scanned, this.socs, kept, remaining);
+            System.arraycopy(this.labels, scanned, this.labels, kept, remaining);
+            Arrays.fill(this.labels, kept + remaining, this.size, null);
+            this.size -= dominatedCount;
+        }
+        this.insert(position, label);
+        return dominatedCount;
+    }
+
+    public VisitedNode getDominated(int index) {
+        return this.dominated[index];
+    }
+
+    public VisitedNode removeMostRedundant() {
+        // Entfernt das Label, das gegenueber dem naechstschnelleren Label den geringsten Zugewinn an SoC hat, und liefert es.
+        // Das schnellste Label bleibt immer erhalten. Die Front muss mindestens zwei Labels enthalten.
+        int redundant = 1;
+        for (int i = 2; i < this.size; i++) {
+            if (this.socs[i] - this.socs[i - 1] < this.socs[redundant] - this.socs[redundant - 1]) {
+                redundant = i;
+            }
+        }
+        VisitedNode label = this.labels[redundant];
+        int moved = this.size - redundant - 1;
+        System.arraycopy(this.travelTimes, redundant + 1, this.travelTimes, redundant, moved);
+        System.arraycopy(this.socs, redundant + 1, this.socs, redundant, moved);
+        System.arraycopy(this.labels, redundant + 1, this.labels, redundant, moved);
+        this.labels[--this.size] = null;
+        return label;
+    }
+
+    public VisitedNode getFastest() {
+        // Label mit der kleinsten Reisezeit, null falls die Front leer ist
+        return this.size == 0 ? null : this.labels[0];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private int firstIndexNotBefore(double travelTime, boolean afterEqual) {
+        // Binaere Suche nach dem ersten Label mit groesserer (afterEqual) bzw. mindestens gleicher Reisezeit
+        int low = 0;
+        int high = this.size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (this.travelTimes[middle] < travelTime || (afterEqual && this.travelTimes[middle] == travelTime)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void insert(int position, VisitedNode label) {
+        if (this.size == this.labels.length) {
+            int capacity = this.size * 2;
+            this.travelTimes = Arrays.copyOf(this.travelTimes, capacity);
+            this.socs = Arrays.copyOf(this.socs, capacity);
+            this.labels = Arrays.copyOf(this.labels, capacity);
+        }
+        int moved = this.size - position;
+        System.arraycopy(this.travelTimes, position, this.travelTimes, position + 1, moved);
+        System.arraycopy(this.socs, position, this.socs, position + 1, moved);
+        System.arraycopy(this.labels, position, this.labels, position + 1, moved);
+        this.set(position, label.travelTime(), label.soc(), label);
+        this.size++;
+    }
+
+    private void set(int index, double travelTime, double soc, VisitedNode label) {
+        this.travelTimes[index] = travelTime;
+        this.socs[index] = soc;
+        this.labels[index] = label;
+    }
+}
@@ -1,79 +1,109 @@
 package de.evpathfinder.data;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
+/**
+ * Unveraenderliches Label, das auf das Label seines Vorgaengers zeigt.
+ * Wege mit gemeinsamem Anfang teilen sich dieselben Vorgaenger, sodass ein neues Label nur O(1) Speicher benoetigt.
+ * Die vollstaendige Knotenliste wird nur ueber {@link #getPath()} erzeugt.
+ */
 public class Path {
 
-    private final List<VisitedNode> path;
+    private final VisitedNode node;
+    private final Path parent;
+    private final int length;
+    // Letztes Label auf dem Weg (einschliesslich diesem), bei dem geladen wurde
+    private final Path lastStation;
+    // Verbrauch von der letzten Ladestation (bzw. vom Start) bis zu diesem Knoten
+    private final double consumptionSinceLastStation;
+    // Reisezeit und Verbrauch der Kante vom Vorgaenger zu diesem Knoten, beim Startknoten 0
+    private final double edgeDuration;
+    private final double edgeConsumption;
+    // Letztes Label auf dem Weg (einschliesslich diesem), dessen Knoten eine Ladestation ist, unabhaengig davon, ob dort geladen wurde
+    private final Path lastStationCandidate;
+    // Gesamtverbrauch und gesamte Ladezeit vom Start bis zu diesem Knoten
+    private final double consumption;
+    private final double chargingTime;
 
-    public Path(List<VisitedNode> path){
-        this.path = new ArrayList<>(path);
+    public Path(VisitedNode node, boolean station) {
+        this(node, null, 0.0, 0.0, station);
     }
 
-    public List<VisitedNode> getPath() {
-        return this.path;
+    private Path(VisitedNode node, Path parent, double edgeDuration, double edgeConsumption, boolean station) {
+        this.node = node;
+        this.parent = parent;
+        this.length = parent == null ? 1 : parent.length + 1;
+        this.edgeDuration = edgeDuration;
+        this.edgeConsumption = edgeConsumption;
+        this.lastStationCandidate = station ? this : parent == null ? null : parent.lastStationCandidate;
+        if (node.chargingTime() > 0.0) {
+            this.lastStation = this;
+            this.consumptionSinceLastStation = 0.0;
+        } else if (parent == null) {
+            this.lastStation = null;
+            this.consumptionSinceLastStation = 0.0;
+        } else {
+            this.lastStation = parent.lastStation;
+            this.consumptionSinceLastStation = parent.consumptionSinceLastStation + edgeConsumption;
+        }
+        this.consumption = parent == null ? 0.0 : parent.consumption + edgeConsumption;
+        this.chargingTime = parent == null ? node.chargingTime() : parent.chargingTime + node.chargingTime();
     }
 
-    public double getTravelTimeOfNode(VisitedNodeId id) {
-        for (VisitedNode node : this.path) {
-            if (node.id().equals(id)) {
-                return node.travelTime();
-            }
-        }
-        return Double.MAX_VALUE;
+    public Path append(VisitedNode node, double edgeDuration, double edgeConsumption, boolean station) {
+        // Erzeugt ein neues Label fuer node, das diesen Weg ueber eine Kante mit edgeDuration und edgeConsumption als Vorgaenger hat
+        return new Path(node, this, edgeDuration, edgeConsumption, station);
     }
 
-    public double getSocOfNode(VisitedNodeId id) {
-        for (VisitedNode node : this.path) {
-            if (node.id().equals(id)) {
-                return node.soc();
-            }
+    public List<VisitedNode> getPath() {
+        // Baut die Knotenliste vom Start bis zu diesem Label auf
+        List<VisitedNode> path = new ArrayList<>(this.length);
+        for (Path current = this; current != null; current = current.parent) {
+            path.add(current.node);
         }
-        return -1;
+        Collections.reverse(path);
+        return path;
     }
 
-    public double getChargingTimeOfNode(VisitedNodeId id) {
-        for (VisitedNode node : this.path) {
-            if (node.id().equals(id)) {
-                return node.chargingTime();
-            }
-        }
-        return 0.0;
+    public VisitedNode getLastNode() {
+        return this.node;
     }
 
-    public VisitedNodeId getParentOfNode(VisitedNodeId id) {
-        for (VisitedNode node : this.path) {
-            if (node.id().equals(id)) {
-                int index = this.path.indexOf(node);
-                if (index - 1 < 0) return null;
-                return this.path.get(index - 1).id();
-            }
-        }
-        return null;
+    public Path getParent() {
+        return this.parent;
     }
 
-    public VisitedNodeId getLastStation() {
-        for (int i = this.path.size() - 1; i >= 0; i--) {
-            VisitedNode node = this.path.get(i);
-            if (node.chargingTime() > 0.0) {
-                return node.id();
-            }
-        }
-        return null;
+    public Path getLastStation() {
+        return this.lastStation;
     }
 
-    public VisitedNode getLastNode() {
-        int index = path.size() - 1;
-        return this.path.get(index);
+    public double getConsumptionSinceLastStation() {
+        return this.consumptionSinceLastStation;
     }
 
-    public VisitedNode getNodeById(VisitedNodeId id) {
-        for (VisitedNode node : this.path) {
-            if (node.id().equals(id)) {
-                return node;
-            }
-        }
-        return null;
+    public double getEdgeDuration() {
+        return this.edgeDuration;
+    }
+
+    public double getEdgeConsumption() {
+        return this.edgeConsumption;
+    }
+
+    public Path getLastStationCandidate() {
+        return this.lastStationCandidate;
+    }
+
+    public double getConsumption() {
+        return this.consumption;
+    }
+
+    public double getChargingTime() {
+        return this.chargingTime;
+    }
+
+    public int getLength() {
+        return this.length;
     }
 }
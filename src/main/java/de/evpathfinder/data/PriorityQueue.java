@@ -1,33 +1,193 @@
 package de.evpathfinder.data;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
 
+/**
+ * Indexierter binaerer Min-Heap ueber {@link VisitedNodeId}s.
+ * Die Position eines Eintrags im Heap wird direkt in der {@link VisitedNodeId} gehalten,
+ * sodass decrease-key und das Entfernen dominierter Labels in O(log n) ohne zusaetzliche Map moeglich sind.
+ * Bei gleicher Prioritaet wird der zuerst eingefuegte Eintrag zuerst geliefert.
+ */
 public class PriorityQueue {
-    private final Map<VisitedNodeId, Double> nodeMap = new HashMap<>();
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private VisitedNodeId[] heap = new VisitedNodeId[INITIAL_CAPACITY];
+    private double[] priorities = new double[INITIAL_CAPACITY];
+    private long[] insertionOrder = new long[INITIAL_CAPACITY];
+    private int size = 0;
+    private long insertions = 0;
 
     public void put(VisitedNodeId nodeId, double priority) {
-        this.nodeMap.put(nodeId, priority);
+        int index = nodeId.queueIndex;
+        if (index >= 0 && index < this.size && this.heap[index] == nodeId) {
+            // Eintrag bereits vorhanden, Prioritaet anpassen (decrease-key bzw. increase-key)
+            double oldPriority = this.priorities[index];
+            this.priorities[index] = priority;
+            if (priority < oldPriority) {
+                this.siftUp(index);
+            } else {
+                this.siftDown(index);
+            }
+            return;
+        }
+        if (this.size == this.heap.length) {
+            this.grow();
+        }
+        this.heap[this.size] = nodeId;
+        this.priorities[this.size] = priority;
+        this.insertionOrder[this.size] = this.insertions++;
+        nodeId.queueIndex = this.size;
+        this.size++;
+        this.siftUp(this.size - 1);
     }
 
     public VisitedNodeId poll() {
-        Map.Entry<VisitedNodeId, Double> highestPriorityEntry = Collections.min(this.nodeMap.entrySet(), Map.Entry.comparingByValue());
-        this.nodeMap.remove(highestPriorityEntry.getKey());
-        return highestPriorityEntry.getKey();
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        VisitedNodeId first = this.heap[0];
+        this.removeAt(0);
+        return first;
+    }
+
+    public boolean remove(VisitedNodeId nodeId) {
+        // Entfernt ein (z.B. dominiertes) Label aus der Queue, falls es noch enthalten ist
+        if (!this.contains(nodeId)) {
+            return false;
+        }
+        this.removeAt(nodeId.queueIndex);
+        return true;
+    }
+
+    public boolean contains(VisitedNodeId nodeId) {
+        int index = nodeId.queueIndex;
+        return index >= 0 && index < this.size && this.heap[index] == nodeId;
     }
 
     public boolean containsNodeId(String nodeId) {
-        for (VisitedNodeId id : nodeMap.keySet()) {
-            if (id.equals(nodeId)) {
+        for (int i = 0; i < this.size; i++) {
+            if (this.heap[i].getName().equals(nodeId)) {
                 return true;
             }
         }
         return false;
     }
 
+    public double peekPriority() {
+        if (this.size == 0) {
+            throw new NoSuchElementException();
+        }
+        return this.priorities[0];
+    }
+
+    public void collect(double maxPriority, int limit, List<VisitedNodeId> nodeIds) {
+        // Haengt bis zu limit Eintraege mit Prioritaet hoechstens maxPriority an, ohne den Heap zu veraendern. Die Reihenfolge ist die des Heaps.
+        // Unterhalb eines Eintrags mit groesserer Prioritaet liegen nur Eintraege mit mindestens dieser Prioritaet, daher wird dort nicht weiter gesucht.
+        int[] stack = new int[64];
+        int depth = 0;
+        if (this.size > 0) {
+            stack[depth++] = 0;
+        }
+        while (depth > 0 && nodeIds.size() < limit) {
+            int index = stack[--depth];
+            if (this.priorities[index] > maxPriority) {
+                continue;
+            }
+            nodeIds.add(this.heap[index]);
+            for (int child = 2 * index + 1; child <= 2 * index + 2 && child < this.size; child++) {
+                if (depth == stack.length) {
+                    stack = Arrays.copyOf(stack, depth * 2);
+                }
+                stack[depth++] = child;
+            }
+        }
+    }
+
     public boolean isEmpty() {
-        return this.nodeMap.isEmpty();
+        return this.size == 0;
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    private void removeAt(int index) {
+        VisitedNodeId removed = this.heap[index];
+        removed.queueIndex = -1;
+        int last = --this.size;
+        if (index != last) {
+            this.move(last, index);
+            this.heap[last] = null;
+            this.siftDown(index);
+            this.siftUp(index);
+        } else {
+            this.heap[last] = null;
+        }
+    }
+
+    private void siftUp(int index) {
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!this.less(index, parent)) {
+                break;
+            }
+            this.swap(index, parent);
+            index = parent;
+        }
+    }
+
+    private void siftDown(int index) {
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= this.size) {
+                break;
+            }
+            int smallest = left;
+            int right = left + 1;
+            if (right < this.size && this.less(right, left)) {
+                smallest = right;
+            }
+            if (!this.less(smallest, index)) {
+                break;
+            }
+            this.swap(index, smallest);
+            index = smallest;
+        }
+    }
+
+    private boolean less(int i, int j) {
+        if (this.priorities[i] != this.priorities[j]) {
+            return this.priorities[i] < this.priorities[j];
+        }
+        return this.insertionOrder[i] < this.insertionOrder[j];
+    }
+
+    private void swap(int i, int j) {
+        VisitedNodeId nodeId = this.heap[i];
+        double priority = this.priorities[i];
+        long order = this.insertionOrder[i];
+        this.move(j, i);
+        this.heap[j] = nodeId;
+        this.priorities[j] = priority;
+        this.insertionOrder[j] = order;
+        nodeId.queueIndex = j;
+    }
+
+    private void move(int from, int to) {
+        this.heap[to] = this.heap[from];
+        this.priorities[to] = this.priorities[from];
+        this.insertionOrder[to] = this.insertionOrder[from];
+        this.heap[to].queueIndex = to;
+    }
+
+    private void grow() {
+        int newCapacity = this.heap.length << 1;
+        this.heap = Arrays.copyOf(this.heap, newCapacity);
+        this.priorities = Arrays.copyOf(this.priorities, newCapacity);
+        this.insertionOrder = Arrays.copyOf(this.insertionOrder, newCapacity);
     }
 
 }
@@ -0,0 +1,6 @@
+package de.evpathfinder.data;
+
+import java.util.List;
+
+public record ReachableNodeResult(String id, double travelTime, double soc, double chargingTime, double consumption, List<String> path) {
+}
@@ -0,0 +1,10 @@
+package de.evpathfinder.data;
+
+/**
+ * Ergebnis und Zaehler einer Suche. errorEstimate ist wie bei {@link VisitedNodeResult} eine Schaetzung und keine Schranke.
+ */
+public record SearchStatisticsResult(boolean found, String status, Double travelTime, Double soc, Double totalChargingTime, Double errorEstimate,
+                                     long labelsCreated, long labelsDominated, long labelsPruned, long queuePolls, long rechargeBacktracks,
+                                     long nodeLookups, long edgeScans, long shortestEdgeLookups, long peakLabels,
+                                     double setupMillis, double searchMillis, double unpackMillis) {
+}
@@ -0,0 +1,6 @@
+package de.evpathfinder.data;
+
+import java.util.Map;
+
+public record StatsResult(String metric, long calls, long sum, long min, long max, double mean, long p50, long p90, long p99, Map<String, Long> histogram) {
+}
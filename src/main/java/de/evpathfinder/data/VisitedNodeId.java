@@ -1,25 +1,31 @@
 package de.evpathfinder.data;
 
-import java.util.Random;
-import java.util.concurrent.atomic.AtomicInteger;
-
 public class VisitedNodeId {
 
-    private static final AtomicInteger counter = new AtomicInteger(new Random().nextInt(1000));
-
     private final String name;
-    private final double version;
+    private final int node;
+    // Fortlaufende Nummer des Labels innerhalb seiner Suche, es gibt keinen globalen Zaehler zwischen parallelen Aufrufen
+    private final long version;
+    // Position im Heap der PriorityQueue, -1 falls nicht enthalten
+    int queueIndex = -1;
+    // Platz im LabelStore, -1 falls nicht enthalten
+    int storeIndex = -1;
 
-    public VisitedNodeId(String id) {
+    public VisitedNodeId(String id, int node, long version) {
         this.name = id;
-        this.version = counter.incrementAndGet();
+        this.node = node;
+        this.version = version;
     }
 
     public String getName() {
         return this.name;
     }
 
-    public double getVersion() {
+    public int getNode() {
+        return this.node;
+    }
+
+    public long getVersion() {
         return this.version;
     }
 }
@@ -1,4 +1,8 @@
 package de.evpathfinder.data;
 
-public record VisitedNodeResult(String id, double travelTime, double soc, double chargingTime) {
+/**
+ * Eine Zeile des gefundenen Weges. errorEstimate ist eine Schaetzung in Minuten, wie viel langsamer der Weg als der der exakten Suche sein kann,
+ * und keine Schranke. Sie ist null, wenn nichts geschaetzt werden kann, im approximativen Modus insbesondere sobald maxLabelsPerNode ein Label entfernt hat.
+ */
+public record VisitedNodeResult(String id, double travelTime, double soc, double chargingTime, String status, Double errorEstimate) {
 }
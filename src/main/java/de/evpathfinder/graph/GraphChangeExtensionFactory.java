@@ -0,0 +1,58 @@
+package de.evpathfinder.graph;
+
+import de.evpathfinder.cache.RouteCaches;
+import de.evpathfinder.hierarchy.Hierarchies;
+import de.evpathfinder.overlay.StationOverlays;
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.configuration.GraphDatabaseSettings;
+import org.neo4j.dbms.api.DatabaseManagementService;
+import org.neo4j.kernel.extension.ExtensionFactory;
+import org.neo4j.kernel.extension.ExtensionType;
+import org.neo4j.kernel.extension.context.ExtensionContext;
+import org.neo4j.kernel.internal.GraphDatabaseAPI;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+/**
+ * Registriert beim Start jeder Datenbank den {@link GraphChangeListener}, damit In-Memory-Kopien des
+ * Strassennetzes bei Aenderungen verworfen werden.
+ */
+@ServiceProvider
+public class GraphChangeExtensionFactory extends ExtensionFactory<GraphChangeExtensionFactory.Dependencies> {
+
+    public interface Dependencies {
+        DatabaseManagementService databaseManagementService();
+
+        GraphDatabaseAPI graphDatabaseAPI();
+    }
+
+    public GraphChangeExtensionFactory() {
+        super(ExtensionType.DATABASE, "dibasem-graph-change");
+    }
+
+    @Override
+    public Lifecycle newInstance(ExtensionContext context, Dependencies dependencies) {
+        String databaseName = dependencies.graphDatabaseAPI().databaseName();
+        if (GraphDatabaseSettings.SYSTEM_DATABASE_NAME.equals(databaseName)) {
+            // Die Systemdatenbank enthaelt kein Strassennetz
+            return new LifecycleAdapter();
+        }
+        DatabaseManagementService managementService = dependencies.databaseManagementService();
+        GraphChangeListener listener = new GraphChangeListener();
+        return new LifecycleAdapter() {
+            @Override
+            public void start() {
+                managementService.registerTransactionEventListener(databaseName, listener);
+            }
+
+            @Override
+            public void stop() {
+                managementService.unregisterTransactionEventListener(databaseName, listener);
+                GraphSnapshots.unload(databaseName);
+                Hierarchies.unload(databaseName);
+                StationOverlays.drop(databaseName);
+                RouteCaches.drop(databaseName);
+            }
+        };
+    }
+}
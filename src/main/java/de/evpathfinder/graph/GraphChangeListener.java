@@ -0,0 +1,207 @@
+package de.evpathfinder.graph;
+
+import de.evpathfinder.cache.RouteCaches;
+import de.evpathfinder.hierarchy.Hierarchies;
+import de.evpathfinder.overlay.StationOverlays;
+import de.evpathfinder.search.StaleLandmarks;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.graphdb.event.LabelEntry;
+import org.neo4j.graphdb.event.PropertyEntry;
+import org.neo4j.graphdb.event.TransactionData;
+import org.neo4j.graphdb.event.TransactionEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Verwirft nach jeder Transaktion, die das Strassennetz veraendert, die davon abhaengigen In-Memory-Strukturen.
+ * Zum Strassennetz gehoeren wie im {@link GraphSnapshot} die Knoten mit dem Label Location und die Kanten zwischen ihnen.
+ * Aenderungen an anderen Knoten und Kanten werden ignoriert, ein neues oder entferntes Label Location aendert das Netz. Da Eigenschaften, Labels und Kanten nach dem Commit nicht mehr
+ * lesbar sind, werden die Aenderungen bereits vor dem Commit ausgewertet.
+ */
+public class GraphChangeListener implements TransactionEventListener<GraphChangeListener.Changes> {
+
+    // Eigenschaften, die das Netz selbst bestimmen, und die nur im Snapshot abgelegten Eigenschaften fuer Heuristiken
+    private static final Set<String> NETWORK_NODE_PROPERTIES = Set.of(StoreGraph.ID_PROPERTY, StoreGraph.CHARGING_POWER_PROPERTY);
+    private static final Set<String> HEURISTIC_NODE_PROPERTIES = Set.of(StoreGraph.LATITUDE_PROPERTY, StoreGraph.LONGITUDE_PROPERTY,
+            StoreGraph.LANDMARK_DISTANCES_FROM_PROPERTY, StoreGraph.LANDMARK_DISTANCES_TO_PROPERTY);
+    private static final Set<String> RELATIONSHIP_PROPERTIES = Set.of(StoreGraph.DURATION_PROPERTY, StoreGraph.CONSUMPTION_PROPERTY);
+
+    /**
+     * Vor dem Commit gesammelte Aenderungen am Strassennetz.
+     */
+    static final class Changes {
+        // ids der Knoten, deren Ladeleistung oder Kanten sich geaendert haben, null falls jeder Weg betroffen sein kann.
+        // Eine Aenderung, die Wege schneller machen kann, betrifft auch Wege, die den Knoten bisher nicht beruehren.
+        Set<String> routeNodes = new HashSet<>();
+        // Knoten oder Kanten des Netzes wurden angelegt bzw. geloescht, oder ids bzw. Ladeleistungen geaendert
+        boolean structureChanged;
+        // Koordinaten oder Landmarken-Distanzen wurden geaendert, diese liegen nur im Snapshot
+        boolean heuristicsChanged;
+        // Eine Fahrzeit wurde kuerzer oder Knoten bzw. Kanten des Netzes kamen hinzu oder fielen weg, die gespeicherten Landmark-Distanzen koennen zu gross sein
+        boolean landmarksStale;
+        // Geaenderte Fahrzeiten und Verbrauchswerte bestehender Kanten, die direkt in den Snapshot uebernommen werden
+        final List<GraphSnapshot.EdgeUpdate> edgeUpdates = new ArrayList<>();
+
+        boolean isEmpty() {
+            return !this.structureChanged && !this.heuristicsChanged && this.edgeUpdates.isEmpty();
+        }
+    }
+
+    @Override
+    public Changes beforeCommit(TransactionData data, Transaction transaction, GraphDatabaseService databaseService) {
+        return getChanges(data);
+    }
+
+    @Override
+    public void afterCommit(TransactionData data, Changes changes, GraphDatabaseService databaseService) {
+        if (changes == null || changes.isEmpty()) {
+            return;
+        }
+        String databaseName = databaseService.databaseName();
+        if (changes.landmarksStale) {
+            StaleLandmarks.mark(databaseName);
+        }
+        // Zuerst der Snapshot, dann der Cache: eine Suche, die die neue Generation des Caches liest, sieht damit auch den neuen Graphen
+        if (changes.structureChanged || changes.heuristicsChanged) {
+            GraphSnapshots.invalidate(databaseName, databaseService);
+        } else {
+            GraphSnapshots.update(databaseName, databaseService, changes.edgeUpdates);
+        }
+        RouteCaches.invalidate(databaseName, changes.routeNodes);
+        if (changes.structureChanged || !changes.edgeUpdates.isEmpty()) {
+            Hierarchies.invalidate(databaseName);
+            StationOverlays.invalidate(databaseName, databaseService);
+        }
+    }
+
+    @Override
+    public void afterRollback(TransactionData data, Changes changes, GraphDatabaseService databaseService) {
+    }
+
+    static Changes getChanges(TransactionData data) {
+        Changes changes = new Changes();
+        // Labels und Eigenschaften geloeschter Knoten sind nur noch ueber die entfernten Eintraege lesbar
+        Set<String> deletedNetworkNodes = new HashSet<>();
+        for (LabelEntry entry : data.removedLabels()) {
+            if (entry.label().equals(StoreGraph.NODE_LABEL) && data.isDeleted(entry.node())) {
+                deletedNetworkNodes.add(entry.node().getElementId());
+            }
+        }
+        for (Iterable<LabelEntry> entries : List.of(data.assignedLabels(), data.removedLabels())) {
+            for (LabelEntry entry : entries) {
+                // Ein Knoten kommt zum Netz hinzu oder faellt heraus
+                changes.structureChanged |= entry.label().equals(StoreGraph.NODE_LABEL);
+            }
+        }
+
+        for (Node node : data.createdNodes()) {
+            changes.structureChanged |= isNetworkNode(node, data, deletedNetworkNodes);
+        }
+        changes.structureChanged |= !deletedNetworkNodes.isEmpty();
+        for (Relationship relationship : data.createdRelationships()) {
+            changes.structureChanged |= isRoad(relationship, data, deletedNetworkNodes);
+        }
+        for (Relationship relationship : data.deletedRelationships()) {
+            changes.structureChanged |= isRoad(relationship, data, deletedNetworkNodes);
+        }
+        if (changes.structureChanged) {
+            // Neue Kanten und Knoten koennen Wege verkuerzen, die Aenderungen an Fahrzeiten werden hier nicht mehr einzeln ausgewertet
+            changes.routeNodes = null;
+            changes.landmarksStale = true;
+            return changes;
+        }
+
+        for (Iterable<PropertyEntry<Node>> entries : List.of(data.assignedNodeProperties(), data.removedNodeProperties())) {
+            for (PropertyEntry<Node> entry : entries) {
+                if (!isNetworkNode(entry.entity(), data, deletedNetworkNodes)) {
+                    continue;
+                }
+                if (NETWORK_NODE_PROPERTIES.contains(entry.key())) {
+                    // Eine geaenderte id kann jeden Weg betreffen, eine geaenderte Ladeleistung nur die Wege ueber den Knoten
+                    changes.structureChanged = true;
+                    if (entry.key().equals(StoreGraph.ID_PROPERTY)) {
+                        changes.routeNodes = null;
+                        return changes;
+                    }
+                    if (toDouble(entry.entity().getProperty(StoreGraph.CHARGING_POWER_PROPERTY, null)) > toDouble(entry.previouslyCommittedValue())) {
+                        // Eine neue oder staerkere Ladestation kann jeden Weg verkuerzen
+                        changes.routeNodes = null;
+                    }
+                    addNodeId(changes.routeNodes, entry.entity());
+                } else if (HEURISTIC_NODE_PROPERTIES.contains(entry.key())) {
+                    changes.heuristicsChanged = true;
+                }
+            }
+        }
+        Map<Relationship, Map<String, Object>> previousValues = new HashMap<>();
+        for (Iterable<PropertyEntry<Relationship>> entries : List.of(data.assignedRelationshipProperties(), data.removedRelationshipProperties())) {
+            for (PropertyEntry<Relationship> entry : entries) {
+                if (RELATIONSHIP_PROPERTIES.contains(entry.key()) && isRoad(entry.entity(), data, deletedNetworkNodes)) {
+                    previousValues.computeIfAbsent(entry.entity(), relationship -> new HashMap<>()).put(entry.key(), entry.previouslyCommittedValue());
+                    addNodeId(changes.routeNodes, entry.entity().getStartNode());
+                    addNodeId(changes.routeNodes, entry.entity().getEndNode());
+                }
+            }
+        }
+        for (Map.Entry<Relationship, Map<String, Object>> entry : previousValues.entrySet()) {
+            GraphSnapshot.EdgeUpdate edgeUpdate = toEdgeUpdate(entry.getKey(), entry.getValue());
+            changes.landmarksStale |= edgeUpdate.duration() < edgeUpdate.previousDuration();
+            if (edgeUpdate.duration() < edgeUpdate.previousDuration() || edgeUpdate.consumption() < edgeUpdate.previousConsumption()) {
+                // Eine schnellere oder sparsamere Kante kann auch Wege verkuerzen, die sie bisher nicht befahren
+                changes.routeNodes = null;
+            }
+            changes.edgeUpdates.add(edgeUpdate);
+        }
+        return changes;
+    }
+
+    private static boolean isNetworkNode(Node node, TransactionData data, Set<String> deletedNetworkNodes) {
+        if (data.isDeleted(node)) {
+            return deletedNetworkNodes.contains(node.getElementId());
+        }
+        return node.hasLabel(StoreGraph.NODE_LABEL);
+    }
+
+    private static boolean isRoad(Relationship relationship, TransactionData data, Set<String> deletedNetworkNodes) {
+        // Alle Kanten zwischen zwei Knoten des Netzes werden beim Routing befahren, unabhaengig von ihrem Typ
+        return isNetworkNode(relationship.getStartNode(), data, deletedNetworkNodes) && isNetworkNode(relationship.getEndNode(), data, deletedNetworkNodes);
+    }
+
+    private static GraphSnapshot.EdgeUpdate toEdgeUpdate(Relationship relationship, Map<String, Object> previousValues) {
+        // Fuer nicht geaenderte Eigenschaften ist der bisherige Wert der aktuelle
+        double duration = toDouble(relationship.getProperty(StoreGraph.DURATION_PROPERTY, null));
+        double consumption = toDouble(relationship.getProperty(StoreGraph.CONSUMPTION_PROPERTY, null));
+        double previousDuration = previousValues.containsKey(StoreGraph.DURATION_PROPERTY) ? toDouble(previousValues.get(StoreGraph.DURATION_PROPERTY)) : duration;
+        double previousConsumption = previousValues.containsKey(StoreGraph.CONSUMPTION_PROPERTY) ? toDouble(previousValues.get(StoreGraph.CONSUMPTION_PROPERTY)) : consumption;
+        return new GraphSnapshot.EdgeUpdate(getId(relationship.getStartNode()), getId(relationship.getEndNode()),
+                previousDuration, previousConsumption, duration, consumption);
+    }
+
+    private static double toDouble(Object value) {
+        // Fehlende Werte liest auch der Snapshot als 0
+        return value == null ? 0.0 : ((Number) value).doubleValue();
+    }
+
+    private static String getId(Node node) {
+        return (String) node.getProperty(StoreGraph.ID_PROPERTY, "");
+    }
+
+    private static void addNodeId(Set<String> nodeIds, Node node) {
+        // Ohne Menge ist bereits jeder Weg betroffen
+        if (nodeIds == null) {
+            return;
+        }
+        Object id = node.getProperty(StoreGraph.ID_PROPERTY, null);
+        if (id != null) {
+            nodeIds.add(String.valueOf(id));
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package de.evpathfinder.graph;
+
+import org.neo4j.graphdb.*;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Unveraenderliche In-Memory-Kopie des Strassennetzes im Compressed-Sparse-Row-Format.
+ * Die ausgehenden Kanten von Knoten i liegen in den Arrays an den Positionen [edgeOffsets[i], edgeOffsets[i + 1]).
+ * Die eingehenden Kanten liegen als zweites CSR-Array vor, das auf die Indizes der ausgehenden Kanten verweist.
+ * Da der Snapshot nach dem Aufbau nicht mehr veraendert wird, kann er von beliebig vielen Aufrufen gleichzeitig gelesen werden.
+ * Fahrzeiten und Verbraeuche liegen in Segmenten fester Groesse, sodass eine Verkehrsmeldung nur die betroffenen Segmente kopiert.
+ * Zum Netz gehoeren die Knoten mit dem Label Location und die Kanten zwischen ihnen, wie bei {@link StoreGraph} und {@link GraphChangeListener}.
+ */
+public class GraphSnapshot implements RoadGraph {
+
+    /**
+     * Geaenderte Fahrzeit und Verbrauch einer Kante, die ueber die ids ihrer Knoten und ihre bisherigen Werte gefunden wird.
+     */
+    public record EdgeUpdate(String sourceId, String targetId, double previousDuration, double previousConsumption, double duration, double consumption) {
+    }
+
+    // Kanten je Segment der Fahrzeiten und Verbraeuche
+    private static final int SEGMENT_SHIFT = 12;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+
+    private final String[] ids;
+    private final Map<String, Integer> nodeIndexById;
+    private final double[] chargingPower;
+    private final int[] edgeOffsets;
+    private final int[] targets;
+    private final int[] sources;
+    private final int[] incomingOffsets;
+    private final int[] incomingEdges;
+    private final double[][] durations;
+    private final double[][] consumptions;
+    private final double[] latitudes;
+    private final double[] longitudes;
+    private final double[][] landmarkDistancesFrom;
+    private final double[][] landmarkDistancesTo;
+    private final int[] stations;
+
+    private GraphSnapshot(String[] ids, Map<String, Integer> nodeIndexById, double[] chargingPower, double[] latitudes, double[] longitudes,
+                          double[][] landmarkDistancesFrom, double[][] landmarkDistancesTo, int[] edgeOffsets, int[] targets, double[] durations, double[] consumptions) {
+        this.ids = ids;
+        this.nodeIndexById = nodeIndexById;
+        this.chargingPower = chargingPower;
+        this.latitudes = latitudes;
+        this.longitudes = longitudes;
+        this.landmarkDistancesFrom = landmarkDistancesFrom;
+        this.landmarkDistancesTo = landmarkDistancesTo;
+        this.edgeOffsets = edgeOffsets;
+        this.targets = targets;
+        // Eingehende Kanten einmalig aus den ausgehenden Kanten ableiten
+        int nodeCount = ids.length;
+        this.sources = new int[targets.length];
+        this.incomingOffsets = new int[nodeCount + 1];
+        this.incomingEdges = new int[targets.length];
+        for (int node = 0; node < nodeCount; node++) {
+            for (int edge = edgeOffsets[node]; edge < edgeOffsets[node + 1]; edge++) {
+                this.sources[edge] = node;
+                this.incomingOffsets[targets[edge] + 1]++;
+            }
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            this.incomingOffsets[node + 1] += this.incomingOffsets[node];
+        }
+        int[] position = Arrays.copyOf(this.incomingOffsets, nodeCount);
+        for (int edge = 0; edge < targets.length; edge++) {
+            this.incomingEdges[position[targets[edge]]++] = edge;
+        }
+        this.durations = toSegments(durations);
+        this.consumptions = toSegments(consumptions);
+        this.stations = IntStream.range(0, nodeCount).filter(node -> chargingPower[node] > 0.0).toArray();
+    }
+
+    private GraphSnapshot(GraphSnapshot snapshot, double[][] durations, double[][] consumptions) {
+        // Kopie mit geaenderten Kantenwerten, alle anderen Arrays und die nicht geaenderten Segmente werden gemeinsam genutzt
+        this.ids = snapshot.ids;
+        this.nodeIndexById = snapshot.nodeIndexById;
+        this.chargingPower = snapshot.chargingPower;
+        this.latitudes = snapshot.latitudes;
+        this.longitudes = snapshot.longitudes;
+        this.landmarkDistancesFrom = snapshot.landmarkDistancesFrom;
+        this.landmarkDistancesTo = snapshot.landmarkDistancesTo;
+        this.edgeOffsets = snapshot.edgeOffsets;
+        this.targets = snapshot.targets;
+        this.sources = snapshot.sources;
+        this.incomingOffsets = snapshot.incomingOffsets;
+        this.incomingEdges = snapshot.incomingEdges;
+        this.stations = snapshot.stations;
+        this.durations = durations;
+        this.consumptions = consumptions;
+    }
+
+    public static GraphSnapshot build(Transaction tx) {
+        // Erster Durchlauf: alle Knoten des Netzes einsammeln, ihre Position in der Liste ist ihr Index im Snapshot
+        List<Node> nodes = new ArrayList<>();
+        try (ResourceIterator<Node> networkNodes = tx.findNodes(StoreGraph.NODE_LABEL)) {
+            networkNodes.forEachRemaining(nodes::add);
+        }
+        return build(nodes);
+    }
+
+    public static GraphSnapshot build(List<Node> nodes) {
+        // Knoten i der Liste erhaelt den Index i, sodass der Aufrufer Ergebnisse je Index wieder dem Knoten zuordnen kann.
+        // Kanten zu Knoten ausserhalb der Liste gehoeren nicht zum Netz.
+        Map<String, Integer> nodeIndexByElementId = new HashMap<>(nodes.size() * 2);
+        for (int i = 0; i < nodes.size(); i++) {
+            nodeIndexByElementId.put(nodes.get(i).getElementId(), i);
+        }
+
+        int nodeCount = nodes.size();
+        String[] ids = new String[nodeCount];
+        Map<String, Integer> nodeIndexById = new HashMap<>(nodeCount * 2);
+        double[] chargingPower = new double[nodeCount];
+        double[] latitudes = new double[nodeCount];
+        double[] longitudes = new double[nodeCount];
+        double[][] landmarkDistancesFrom = new double[nodeCount][];
+        double[][] landmarkDistancesTo = new double[nodeCount][];
+        int[] edgeOffsets = new int[nodeCount + 1];
+        int[] targets = new int[Math.max(16, nodeCount * 4)];
+        double[] durations = new double[targets.length];
+        double[] consumptions = new double[targets.length];
+        int edgeCount = 0;
+
+        // Zweiter Durchlauf: Knoteneigenschaften und ausgehende Kanten der Reihe nach in die CSR-Arrays schreiben
+        for (int i = 0; i < nodeCount; i++) {
+            Node node = nodes.get(i);
+            ids[i] = (String) node.getProperty(StoreGraph.ID_PROPERTY, "");
+            nodeIndexById.putIfAbsent(ids[i], i);
+            chargingPower[i] = ((Number) node.getProperty(StoreGraph.CHARGING_POWER_PROPERTY, 0.0)).doubleValue();
+            latitudes[i] = ((Number) node.getProperty(StoreGraph.LATITUDE_PROPERTY, Double.NaN)).doubleValue();
+            longitudes[i] = ((Number) node.getProperty(StoreGraph.LONGITUDE_PROPERTY, Double.NaN)).doubleValue();
+            landmarkDistancesFrom[i] = (double[]) node.getProperty(StoreGraph.LANDMARK_DISTANCES_FROM_PROPERTY, null);
+            landmarkDistancesTo[i] = (double[]) node.getProperty(StoreGraph.LANDMARK_DISTANCES_TO_PROPERTY, null);
+            edgeOffsets[i] = edgeCount;
+            for (Relationship relationship : node.getRelationships(Direction.OUTGOING)) {
+                Integer target = nodeIndexByElementId.get(relationship.getEndNode().getElementId());
+                if (target == null) {
+                    continue;
+                }
+                if (edgeCount == targets.length) {
+                    int capacity = edgeCount * 2;
+                    targets = Arrays.copyOf(targets, capacity);
+                    durations = Arrays.copyOf(durations, capacity);
+                    consumptions = Arrays.copyOf(consumptions, capacity);
+                }
+                targets[edgeCount] = target;
+                durations[edgeCount] = ((Number) relationship.getProperty(StoreGraph.DURATION_PROPERTY, 0.0)).doubleValue();
+                consumptions[edgeCount] = ((Number) relationship.getProperty(StoreGraph.CONSUMPTION_PROPERTY, 0.0)).doubleValue();
+                edgeCount++;
+            }
+        }
+        edgeOffsets[nodeCount] = edgeCount;
+
+        return new GraphSnapshot(ids, nodeIndexById, chargingPower, latitudes, longitudes, landmarkDistancesFrom, landmarkDistancesTo, edgeOffsets,
+                Arrays.copyOf(targets, edgeCount), Arrays.copyOf(durations, edgeCount), Arrays.copyOf(consumptions, edgeCount));
+    }
+
+    public GraphSnapshot withEdgeUpdates(List<EdgeUpdate> updates) {
+        // Liefert einen neuen Snapshot mit den geaenderten Kantenwerten, oder null falls eine Kante nicht eindeutig gefunden wird.
+        // Parallele Kanten mit gleichen Werten sind austauschbar, daher genuegt es, irgendeine davon zu aendern.
+        if (this.nodeIndexById.size() != this.ids.length) {
+            // Mehrere Knoten mit derselben id
+            return null;
+        }
+        // Nur die Segmente mit geaenderten Kanten werden kopiert
+        double[][] durations = this.durations.clone();
+        double[][] consumptions = this.consumptions.clone();
+        boolean[] copied = new boolean[durations.length];
+        for (EdgeUpdate update : updates) {
+            int source = this.findNode(update.sourceId());
+            int target = this.findNode(update.targetId());
+            if (source < 0 || target < 0) {
+                return null;
+            }
+            int edge = this.edgeOffsets[source];
+            while (edge < this.edgeOffsets[source + 1] && (this.targets[edge] != target
+                    || durations[edge >>> SEGMENT_SHIFT][edge & SEGMENT_MASK] != update.previousDuration()
+                    || consumptions[edge >>> SEGMENT_SHIFT][edge & SEGMENT_MASK] != update.previousConsumption())) {
+                edge++;
+            }
+            if (edge == this.edgeOffsets[source + 1]) {
+                return null;
+            }
+            int segment = edge >>> SEGMENT_SHIFT;
+            if (!copied[segment]) {
+                durations[segment] = durations[segment].clone();
+                consumptions[segment] = consumptions[segment].clone();
+                copied[segment] = true;
+            }
+            durations[segment][edge & SEGMENT_MASK] = update.duration();
+            consumptions[segment][edge & SEGMENT_MASK] = update.consumption();
+        }
+        return new GraphSnapshot(this, durations, consumptions);
+    }
+
+    public int getNodeCount() {
+        return this.ids.length;
+    }
+
+    public int getEdgeCount() {
+        return this.targets.length;
+    }
+
+    @Override
+    public int findNode(String id) {
+        Integer index = this.nodeIndexById.get(id);
+        return index == null ? -1 : index;
+    }
+
+    @Override
+    public String getId(int node) {
+        return this.ids[node];
+    }
+
+    @Override
+    public double getChargingPower(int node) {
+        return this.chargingPower[node];
+    }
+
+    @Override
+    public int[] getStations() {
+        return this.stations;
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        return this.edgeOffsets[node];
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        return this.edgeOffsets[node + 1];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return this.targets[edge];
+    }
+
+    @Override
+    public int getFirstIncomingEdge(int node) {
+        return this.incomingOffsets[node];
+    }
+
+    @Override
+    public int getEndIncomingEdge(int node) {
+        return this.incomingOffsets[node + 1];
+    }
+
+    @Override
+    public int getIncomingEdge(int index) {
+        return this.incomingEdges[index];
+    }
+
+    @Override
+    public int getSource(int edge) {
+        return this.sources[edge];
+    }
+
+    @Override
+    public double getDuration(int edge) {
+        return this.durations[edge >>> SEGMENT_SHIFT][edge & SEGMENT_MASK];
+    }
+
+    @Override
+    public double getConsumption(int edge) {
+        return this.consumptions[edge >>> SEGMENT_SHIFT][edge & SEGMENT_MASK];
+    }
+
+    @Override
+    public double getLatitude(int node) {
+        return this.latitudes[node];
+    }
+
+    @Override
+    public double getLongitude(int node) {
+        return this.longitudes[node];
+    }
+
+    @Override
+    public double[] getLandmarkDistancesFrom(int node) {
+        return this.landmarkDistancesFrom[node];
+    }
+
+    @Override
+    public double[] getLandmarkDistancesTo(int node) {
+        return this.landmarkDistancesTo[node];
+    }
+
+    private static double[][] toSegments(double[] values) {
+        double[][] segments = new double[(values.length + SEGMENT_MASK) >>> SEGMENT_SHIFT][];
+        for (int segment = 0; segment < segments.length; segment++) {
+            int from = segment << SEGMENT_SHIFT;
+            segments[segment] = Arrays.copyOfRange(values, from, Math.min(values.length, from + SEGMENT_MASK + 1));
+        }
+        return segments;
+    }
+}
@@ -0,0 +1,111 @@
+package de.evpathfinder.graph;
+
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prozessweite Verwaltung der {@link GraphSnapshot}s je Datenbank.
+ * Wird das Strassennetz geaendert, wird der Snapshot sofort verworfen, sodass Anfragen bis zum Abschluss
+ * des Neuaufbaus wieder direkt auf dem Store arbeiten. Der neue Snapshot wird im Hintergrund aufgebaut
+ * und anschliessend atomar ausgetauscht (copy-on-write).
+ */
+public final class GraphSnapshots {
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dibasem-snapshot-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Entry {
+        private volatile GraphSnapshot snapshot;
+        private final AtomicLong generation = new AtomicLong();
+    }
+
+    private GraphSnapshots() {
+    }
+
+    public static GraphSnapshot get(String databaseName) {
+        // Liefert den aktuellen Snapshot, oder null falls keiner geladen bzw. dieser gerade veraltet ist
+        Entry entry = entries.get(databaseName);
+        return entry == null ? null : entry.snapshot;
+    }
+
+    public static GraphSnapshot load(String databaseName, Transaction tx) {
+        // Baut den Snapshot synchron auf und haelt ihn ab sofort bei Aenderungen aktuell
+        Entry entry = entries.computeIfAbsent(databaseName, name -> new Entry());
+        long generation = entry.generation.get();
+        GraphSnapshot snapshot = GraphSnapshot.build(tx);
+        install(entry, generation, snapshot);
+        return snapshot;
+    }
+
+    public static void unload(String databaseName) {
+        Entry entry = entries.remove(databaseName);
+        if (entry != null) {
+            entry.generation.incrementAndGet();
+            entry.snapshot = null;
+        }
+    }
+
+    public static void invalidate(String databaseName, GraphDatabaseService databaseService) {
+        // Verwirft den Snapshot einer Datenbank nach einer Aenderung und stoesst den Neuaufbau an
+        Entry entry = entries.get(databaseName);
+        if (entry == null) {
+            // Fuer diese Datenbank wurde kein Snapshot angefordert
+            return;
+        }
+        long generation;
+        synchronized (entry) {
+            generation = entry.generation.incrementAndGet();
+            entry.snapshot = null;
+        }
+        rebuilder.execute(() -> {
+            if (entry.generation.get() != generation) {
+                // Inzwischen gab es eine weitere Aenderung, deren Neuaufbau diesen ersetzt
+                return;
+            }
+            try (Transaction tx = databaseService.beginTx()) {
+                install(entry, generation, GraphSnapshot.build(tx));
+            } catch (RuntimeException e) {
+                // Ohne Snapshot arbeiten die Anfragen weiterhin korrekt auf dem Store
+            }
+        });
+    }
+
+    public static void update(String databaseName, GraphDatabaseService databaseService, List<GraphSnapshot.EdgeUpdate> updates) {
+        // Uebernimmt geaenderte Fahrzeiten und Verbrauchswerte direkt in den Snapshot, ohne den Store erneut zu lesen.
+        // Wird gerade neu aufgebaut oder ist eine Kante nicht eindeutig auffindbar, wird der Snapshot wie bei anderen Aenderungen neu aufgebaut.
+        Entry entry = entries.get(databaseName);
+        if (entry == null || updates.isEmpty()) {
+            return;
+        }
+        synchronized (entry) {
+            GraphSnapshot snapshot = entry.snapshot;
+            GraphSnapshot updated = snapshot == null ? null : snapshot.withEdgeUpdates(updates);
+            if (updated != null) {
+                entry.generation.incrementAndGet();
+                entry.snapshot = updated;
+                return;
+            }
+        }
+        invalidate(databaseName, databaseService);
+    }
+
+    private static void install(Entry entry, long generation, GraphSnapshot snapshot) {
+        synchronized (entry) {
+            // Nur installieren, falls der Snapshot nach der letzten Aenderung aufgebaut wurde
+            if (entry.generation.get() == generation && entries.containsValue(entry)) {
+                entry.snapshot = snapshot;
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package de.evpathfinder.graph;
+
+/**
+ * Lesende Sicht auf das Strassennetz. Knoten und Kanten werden ueber fortlaufende int-Indizes angesprochen,
+ * die ausgehenden Kanten eines Knotens liegen im Bereich [getFirstEdge(node), getEndEdge(node)).
+ * Die eingehenden Kanten eines Knotens sind getIncomingEdge(i) fuer i im Bereich [getFirstIncomingEdge(node), getEndIncomingEdge(node)).
+ */
+public interface RoadGraph {
+
+    int findNode(String id);
+
+    String getId(int node);
+
+    double getChargingPower(int node);
+
+    // Alle Knoten mit einer Ladeleistung groesser 0
+    int[] getStations();
+
+    int getFirstEdge(int node);
+
+    int getEndEdge(int node);
+
+    int getTarget(int edge);
+
+    int getFirstIncomingEdge(int node);
+
+    int getEndIncomingEdge(int node);
+
+    int getIncomingEdge(int index);
+
+    int getSource(int edge);
+
+    double getDuration(int edge);
+
+    double getConsumption(int edge);
+
+    // Koordinaten in Grad, Double.NaN falls der Knoten keine Koordinaten hat
+    double getLatitude(int node);
+
+    double getLongitude(int node);
+
+    // Vorberechnete Reisezeiten von den Landmarks zum Knoten bzw. vom Knoten zu den Landmarks, null falls nicht vorhanden
+    double[] getLandmarkDistancesFrom(int node);
+
+    double[] getLandmarkDistancesTo(int node);
+
+    default int getShortestEdge(int source, int destination) {
+        // Liefert die kuerzeste Kante zwischen zwei Knoten zurueck, oder -1 falls keine existiert
+        int shortest = -1;
+        for (int edge = this.getFirstEdge(source), end = this.getEndEdge(source); edge < end; edge++) {
+            if (this.getTarget(edge) == destination && (shortest == -1 || this.getDuration(edge) < this.getDuration(shortest))) {
+                shortest = edge;
+            }
+        }
+        return shortest;
+    }
+}
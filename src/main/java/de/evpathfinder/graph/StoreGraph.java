@@ -0,0 +1,232 @@
+package de.evpathfinder.graph;
+
+import org.neo4j.graphdb.*;
+
+import java.util.*;
+
+/**
+ * Zugriff auf das Strassennetz ueber die Core API innerhalb einer Transaktion.
+ * Knoten werden beim ersten Zugriff auf fortlaufende int-Indizes abgebildet und ihre ausgehenden Kanten
+ * einmalig gelesen, sodass innerhalb eines Aufrufs jede Kante nur einmal aus dem Store geladen wird.
+ */
+public class StoreGraph implements RoadGraph {
+
+    public static final Label NODE_LABEL = Label.label("Location");
+    public static final String ID_PROPERTY = "id";
+    public static final String CHARGING_POWER_PROPERTY = "chargingPower";
+    public static final String DURATION_PROPERTY = "duration";
+    public static final String CONSUMPTION_PROPERTY = "consumption";
+    public static final String LATITUDE_PROPERTY = "latitude";
+    public static final String LONGITUDE_PROPERTY = "longitude";
+    public static final String LANDMARK_DISTANCES_FROM_PROPERTY = "landmarkDistancesFrom";
+    public static final String LANDMARK_DISTANCES_TO_PROPERTY = "landmarkDistancesTo";
+
+    private final Transaction tx;
+    private final Map<String, Integer> nodeIndexById = new HashMap<>();
+    private final Map<String, Integer> nodeIndexByElementId = new HashMap<>();
+    private final List<Node> nodes = new ArrayList<>();
+    private final List<String> ids = new ArrayList<>();
+    private double[] chargingPower = new double[64];
+    // Bereich der ausgehenden Kanten je Knoten, -1 solange die Kanten noch nicht gelesen wurden
+    private int[] firstEdge = new int[64];
+    private int[] endEdge = new int[64];
+    // Bereich der eingehenden Kanten je Knoten, -1 solange sie noch nicht gelesen wurden. Diese Kanten werden getrennt von den ausgehenden abgelegt.
+    private int[] firstIncomingEdge = new int[64];
+    private int[] endIncomingEdge = new int[64];
+    private int edgeCount = 0;
+    private int[] sources = new int[256];
+    private int[] targets = new int[256];
+    private double[] durations = new double[256];
+    private double[] consumptions = new double[256];
+    // Indizes aller Ladestationen, null solange sie nicht gelesen wurden
+    private int[] stations = null;
+
+    public StoreGraph(Transaction tx) {
+        this.tx = tx;
+    }
+
+    @Override
+    public int findNode(String id) {
+        // Liefert den Index des Knotens mit der gegebenen ID, oder -1 falls kein solcher Knoten existiert
+        Integer index = this.nodeIndexById.get(id);
+        if (index != null) {
+            return index;
+        }
+        // Nur Knoten mit dem Label gehoeren zum Netz, mit dem Index aus dibasem.createIndex ist dies ein Index-Seek
+        Node node = this.tx.findNode(NODE_LABEL, ID_PROPERTY, id);
+        return node == null ? -1 : this.intern(node);
+    }
+
+    @Override
+    public String getId(int node) {
+        return this.ids.get(node);
+    }
+
+    @Override
+    public double getChargingPower(int node) {
+        return this.chargingPower[node];
+    }
+
+    @Override
+    public int[] getStations() {
+        // Die Ladestationen werden beim ersten Zugriff ueber einen Scan des Labels gelesen, Knoten ausserhalb des Netzes werden nicht betrachtet
+        if (this.stations == null) {
+            List<Integer> stations = new ArrayList<>();
+            try (ResourceIterator<Node> nodes = this.tx.findNodes(NODE_LABEL)) {
+                while (nodes.hasNext()) {
+                    Node node = nodes.next();
+                    if (((Number) node.getProperty(CHARGING_POWER_PROPERTY, 0.0)).doubleValue() > 0.0) {
+                        stations.add(this.intern(node));
+                    }
+                }
+            }
+            this.stations = stations.stream().mapToInt(Integer::intValue).toArray();
+        }
+        return this.stations;
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        this.loadEdges(node);
+        return this.firstEdge[node];
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        this.loadEdges(node);
+        return this.endEdge[node];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return this.targets[edge];
+    }
+
+    @Override
+    public int getFirstIncomingEdge(int node) {
+        this.loadIncomingEdges(node);
+        return this.firstIncomingEdge[node];
+    }
+
+    @Override
+    public int getEndIncomingEdge(int node) {
+        this.loadIncomingEdges(node);
+        return this.endIncomingEdge[node];
+    }
+
+    @Override
+    public int getIncomingEdge(int index) {
+        return index;
+    }
+
+    @Override
+    public int getSource(int edge) {
+        return this.sources[edge];
+    }
+
+    @Override
+    public double getDuration(int edge) {
+        return this.durations[edge];
+    }
+
+    @Override
+    public double getConsumption(int edge) {
+        return this.consumptions[edge];
+    }
+
+    @Override
+    public double getLatitude(int node) {
+        return ((Number) this.nodes.get(node).getProperty(LATITUDE_PROPERTY, Double.NaN)).doubleValue();
+    }
+
+    @Override
+    public double getLongitude(int node) {
+        return ((Number) this.nodes.get(node).getProperty(LONGITUDE_PROPERTY, Double.NaN)).doubleValue();
+    }
+
+    @Override
+    public double[] getLandmarkDistancesFrom(int node) {
+        return (double[]) this.nodes.get(node).getProperty(LANDMARK_DISTANCES_FROM_PROPERTY, null);
+    }
+
+    @Override
+    public double[] getLandmarkDistancesTo(int node) {
+        return (double[]) this.nodes.get(node).getProperty(LANDMARK_DISTANCES_TO_PROPERTY, null);
+    }
+
+    private void loadEdges(int node) {
+        // Liest alle Kanten, die von einem bestimmten Knoten aus gehen. Die Eigenschaften werden direkt beim Iterieren gelesen.
+        // Wie im Snapshot gehoeren nur Kanten zwischen Knoten mit dem Label zum Netz.
+        if (this.firstEdge[node] >= 0) {
+            return;
+        }
+        int first = this.edgeCount;
+        for (Relationship relationship : this.nodes.get(node).getRelationships(Direction.OUTGOING)) {
+            Node target = relationship.getEndNode();
+            if (target.hasLabel(NODE_LABEL)) {
+                this.addEdge(relationship, node, this.intern(target));
+            }
+        }
+        this.firstEdge[node] = first;
+        this.endEdge[node] = this.edgeCount;
+    }
+
+    private void loadIncomingEdges(int node) {
+        // Liest alle Kanten, die bei einem bestimmten Knoten ankommen, fuer Suchen rueckwaerts zum Ziel
+        if (this.firstIncomingEdge[node] >= 0) {
+            return;
+        }
+        int first = this.edgeCount;
+        for (Relationship relationship : this.nodes.get(node).getRelationships(Direction.INCOMING)) {
+            Node source = relationship.getStartNode();
+            if (source.hasLabel(NODE_LABEL)) {
+                this.addEdge(relationship, this.intern(source), node);
+            }
+        }
+        this.firstIncomingEdge[node] = first;
+        this.endIncomingEdge[node] = this.edgeCount;
+    }
+
+    private void addEdge(Relationship relationship, int source, int target) {
+        if (this.edgeCount == this.targets.length) {
+            int capacity = this.edgeCount * 2;
+            this.sources = Arrays.copyOf(this.sources, capacity);
+            this.targets = Arrays.copyOf(this.targets, capacity);
+            this.durations = Arrays.copyOf(this.durations, capacity);
+            this.consumptions = Arrays.copyOf(this.consumptions, capacity);
+        }
+        this.sources[this.edgeCount] = source;
+        this.targets[this.edgeCount] = target;
+        this.durations[this.edgeCount] = ((Number) relationship.getProperty(DURATION_PROPERTY, 0.0)).doubleValue();
+        this.consumptions[this.edgeCount] = ((Number) relationship.getProperty(CONSUMPTION_PROPERTY, 0.0)).doubleValue();
+        this.edgeCount++;
+    }
+
+    private int intern(Node node) {
+        String elementId = node.getElementId();
+        Integer index = this.nodeIndexByElementId.get(elementId);
+        if (index != null) {
+            return index;
+        }
+        index = this.nodes.size();
+        String id = (String) node.getProperty(ID_PROPERTY, "");
+        this.nodes.add(node);
+        this.ids.add(id);
+        if (index == this.chargingPower.length) {
+            int capacity = index * 2;
+            this.chargingPower = Arrays.copyOf(this.chargingPower, capacity);
+            this.firstEdge = Arrays.copyOf(this.firstEdge, capacity);
+            this.endEdge = Arrays.copyOf(this.endEdge, capacity);
+            this.firstIncomingEdge = Arrays.copyOf(this.firstIncomingEdge, capacity);
+            this.endIncomingEdge = Arrays.copyOf(this.endIncomingEdge, capacity);
+        }
+        this.chargingPower[index] = ((Number) node.getProperty(CHARGING_POWER_PROPERTY, 0.0)).doubleValue();
+        this.firstEdge[index] = -1;
+        this.endEdge[index] = -1;
+        this.firstIncomingEdge[index] = -1;
+        this.endIncomingEdge[index] = -1;
+        this.nodeIndexByElementId.put(elementId, index);
+        this.nodeIndexById.putIfAbsent(id, index);
+        return index;
+    }
+}
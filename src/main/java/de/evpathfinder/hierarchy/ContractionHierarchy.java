@@ -0,0 +1,266 @@
+package de.evpathfinder.hierarchy;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Unveraenderliche Contraction Hierarchy des Strassennetzes. Sie enthaelt alle urspruenglichen Kanten und die Shortcuts,
+ * jeweils mit Reisezeit und Verbrauch. Ladestationen werden nie kontrahiert und bilden zusammen den Kern mit dem hoechsten Rang.
+ * Ein Shortcut verweist auf die beiden Kanten, die er ueberspringt, sodass Wege wieder in die urspruenglichen Kanten zerlegt werden koennen.
+ * Der {@link GraphFingerprint} des Strassennetzes wird mitgespeichert, damit eine Datei zu einem veraenderten Netz erkannt wird.
+ */
+public class ContractionHierarchy {
+
+    public static final int CORE_RANK = Integer.MAX_VALUE;
+
+    private static final String FORMAT = "DIBASEM-CH";
+    private static final int FORMAT_VERSION = 2;
+
+    private final GraphFingerprint fingerprint;
+    private final String[] ids;
+    private final Map<String, Integer> nodeIndexById;
+    private final double[] chargingPower;
+    private final int[] stations;
+    private final int[] rank;
+    private final int[] edgeOffsets;
+    private final int[] sources;
+    private final int[] targets;
+    private final double[] durations;
+    private final double[] consumptions;
+    // Uebersprungene Kanten eines Shortcuts, -1 fuer urspruengliche Kanten
+    private final int[] firstChildren;
+    private final int[] secondChildren;
+    private final int[] incomingOffsets;
+    private final int[] incomingEdges;
+
+    ContractionHierarchy(GraphFingerprint fingerprint, String[] ids, double[] chargingPower, int[] rank, int[] sources, int[] targets, double[] durations, double[] consumptions,
+                         int[] firstChildren, int[] secondChildren) {
+        int nodeCount = ids.length;
+        int edgeCount = sources.length;
+        this.fingerprint = fingerprint;
+        this.ids = ids;
+        this.chargingPower = chargingPower;
+        this.stations = IntStream.range(0, nodeCount).filter(node -> chargingPower[node] > 0.0).toArray();
+        this.rank = rank;
+        this.nodeIndexById = new HashMap<>(nodeCount * 2);
+        for (int node = 0; node < nodeCount; node++) {
+            this.nodeIndexById.putIfAbsent(ids[node], node);
+        }
+
+        // Kanten nach Startknoten sortieren (CSR) und die Verweise der Shortcuts auf die neuen Positionen umschreiben
+        this.edgeOffsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            this.edgeOffsets[sources[edge] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            this.edgeOffsets[node + 1] += this.edgeOffsets[node];
+        }
+        int[] position = Arrays.copyOf(this.edgeOffsets, nodeCount);
+        int[] newIndex = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            newIndex[edge] = position[sources[edge]]++;
+        }
+        this.sources = new int[edgeCount];
+        this.targets = new int[edgeCount];
+        this.durations = new double[edgeCount];
+        this.consumptions = new double[edgeCount];
+        this.firstChildren = new int[edgeCount];
+        this.secondChildren = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int index = newIndex[edge];
+            this.sources[index] = sources[edge];
+            this.targets[index] = targets[edge];
+            this.durations[index] = durations[edge];
+            this.consumptions[index] = consumptions[edge];
+            this.firstChildren[index] = firstChildren[edge] < 0 ? -1 : newIndex[firstChildren[edge]];
+            this.secondChildren[index] = secondChildren[edge] < 0 ? -1 : newIndex[secondChildren[edge]];
+        }
+
+        this.incomingOffsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            this.incomingOffsets[this.targets[edge] + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            this.incomingOffsets[node + 1] += this.incomingOffsets[node];
+        }
+        position = Arrays.copyOf(this.incomingOffsets, nodeCount);
+        this.incomingEdges = new int[edgeCount];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            this.incomingEdges[position[this.targets[edge]]++] = edge;
+        }
+    }
+
+    public int findNode(String id) {
+        Integer index = this.nodeIndexById.get(id);
+        return index == null ? -1 : index;
+    }
+
+    public GraphFingerprint getFingerprint() {
+        return this.fingerprint;
+    }
+
+    public int getNodeCount() {
+        return this.ids.length;
+    }
+
+    public int getEdgeCount() {
+        return this.targets.length;
+    }
+
+    public int getShortcutCount() {
+        int shortcuts = 0;
+        for (int child : this.firstChildren) {
+            if (child >= 0) {
+                shortcuts++;
+            }
+        }
+        return shortcuts;
+    }
+
+    public int getCoreNodeCount() {
+        int coreNodes = 0;
+        for (int nodeRank : this.rank) {
+            if (nodeRank == CORE_RANK) {
+                coreNodes++;
+            }
+        }
+        return coreNodes;
+    }
+
+    public String getId(int node) {
+        return this.ids[node];
+    }
+
+    public double getChargingPower(int node) {
+        return this.chargingPower[node];
+    }
+
+    public int[] getStations() {
+        return this.stations;
+    }
+
+    public int getRank(int node) {
+        return this.rank[node];
+    }
+
+    public int getFirstEdge(int node) {
+        return this.edgeOffsets[node];
+    }
+
+    public int getEndEdge(int node) {
+        return this.edgeOffsets[node + 1];
+    }
+
+    public int getFirstIncomingEdge(int node) {
+        return this.incomingOffsets[node];
+    }
+
+    public int getEndIncomingEdge(int node) {
+        return this.incomingOffsets[node + 1];
+    }
+
+    public int getIncomingEdge(int index) {
+        return this.incomingEdges[index];
+    }
+
+    public int getSource(int edge) {
+        return this.sources[edge];
+    }
+
+    public int getTarget(int edge) {
+        return this.targets[edge];
+    }
+
+    public double getDuration(int edge) {
+        return this.durations[edge];
+    }
+
+    public double getConsumption(int edge) {
+        return this.consumptions[edge];
+    }
+
+    public void unpack(int edge, List<Integer> originalEdges) {
+        // Zerlegt eine Kante in die Folge der urspruenglichen Kanten, die sie ersetzt
+        Deque<Integer> stack = new ArrayDeque<>();
+        stack.push(edge);
+        while (!stack.isEmpty()) {
+            int current = stack.pop();
+            if (this.firstChildren[current] < 0) {
+                originalEdges.add(current);
+            } else {
+                stack.push(this.secondChildren[current]);
+                stack.push(this.firstChildren[current]);
+            }
+        }
+    }
+
+    public void write(File file) throws IOException {
+        // Schreibt die Hierarchie in eine temporaere Datei und ersetzt die bisherige erst danach, damit keine halb geschriebene Datei gelesen wird
+        File directory = file.getAbsoluteFile().getParentFile();
+        if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create directory " + directory);
+        }
+        File temporary = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            out.writeUTF(FORMAT);
+            out.writeInt(FORMAT_VERSION);
+            out.writeInt(this.fingerprint.nodeCount());
+            out.writeInt(this.fingerprint.edgeCount());
+            out.writeLong(this.fingerprint.checksum());
+            out.writeInt(this.ids.length);
+            for (int node = 0; node < this.ids.length; node++) {
+                out.writeUTF(this.ids[node]);
+                out.writeDouble(this.chargingPower[node]);
+                out.writeInt(this.rank[node]);
+            }
+            out.writeInt(this.targets.length);
+            for (int edge = 0; edge < this.targets.length; edge++) {
+                out.writeInt(this.sources[edge]);
+                out.writeInt(this.targets[edge]);
+                out.writeDouble(this.durations[edge]);
+                out.writeDouble(this.consumptions[edge]);
+                out.writeInt(this.firstChildren[edge]);
+                out.writeInt(this.secondChildren[edge]);
+            }
+        }
+        Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static ContractionHierarchy read(File file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (!FORMAT.equals(in.readUTF()) || in.readInt() != FORMAT_VERSION) {
+                throw new IOException("Unsupported hierarchy file " + file);
+            }
+            GraphFingerprint fingerprint = new GraphFingerprint(in.readInt(), in.readInt(), in.readLong());
+            int nodeCount = in.readInt();
+            String[] ids = new String[nodeCount];
+            double[] chargingPower = new double[nodeCount];
+            int[] rank = new int[nodeCount];
+            for (int node = 0; node < nodeCount; node++) {
+                ids[node] = in.readUTF();
+                chargingPower[node] = in.readDouble();
+                rank[node] = in.readInt();
+            }
+            int edgeCount = in.readInt();
+            int[] sources = new int[edgeCount];
+            int[] targets = new int[edgeCount];
+            double[] durations = new double[edgeCount];
+            double[] consumptions = new double[edgeCount];
+            int[] firstChildren = new int[edgeCount];
+            int[] secondChildren = new int[edgeCount];
+            for (int edge = 0; edge < edgeCount; edge++) {
+                sources[edge] = in.readInt();
+                targets[edge] = in.readInt();
+                durations[edge] = in.readDouble();
+                consumptions[edge] = in.readDouble();
+                firstChildren[edge] = in.readInt();
+                secondChildren[edge] = in.readInt();
+            }
+            // Die Kanten sind bereits sortiert, der Konstruktor bildet sie daher auf sich selbst ab
+            return new ContractionHierarchy(fingerprint, ids, chargingPower, rank, sources, targets, durations, consumptions, firstChildren, secondChildren);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package de.evpathfinder.hierarchy;
+
+import de.evpathfinder.graph.GraphSnapshot;
+
+/**
+ * Kennung des Strassennetzes, aus dem eine {@link ContractionHierarchy} gebaut wurde.
+ * Die Pruefsumme ist unabhaengig von der Reihenfolge der Knoten und Kanten, da diese beim erneuten Lesen des Netzes abweichen kann.
+ */
+public record GraphFingerprint(int nodeCount, int edgeCount, long checksum) {
+
+    public static GraphFingerprint of(GraphSnapshot graph) {
+        long checksum = 0L;
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            long hash = mix(graph.getId(node).hashCode());
+            checksum += mix(hash ^ Double.doubleToLongBits(graph.getChargingPower(node)));
+        }
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            long hash = mix(graph.getId(graph.getSource(edge)).hashCode());
+            hash = mix(hash ^ graph.getId(graph.getTarget(edge)).hashCode());
+            hash = mix(hash ^ Double.doubleToLongBits(graph.getDuration(edge)));
+            checksum += mix(hash ^ Double.doubleToLongBits(graph.getConsumption(edge)));
+        }
+        return new GraphFingerprint(graph.getNodeCount(), graph.getEdgeCount(), checksum);
+    }
+
+    private static long mix(long value) {
+        // Finalizer von MurmurHash3, verteilt auch aehnliche Eingaben auf alle Bits
+        value ^= value >>> 33;
+        value *= 0xff51afd7ed558ccdL;
+        value ^= value >>> 33;
+        value *= 0xc4ceb9fe1a85ec53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
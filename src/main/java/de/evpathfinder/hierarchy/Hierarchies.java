@@ -0,0 +1,108 @@
+package de.evpathfinder.hierarchy;
+
+import de.evpathfinder.graph.GraphSnapshot;
+import de.evpathfinder.graph.GraphSnapshots;
+import org.neo4j.graphdb.Transaction;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prozessweite Verwaltung der {@link ContractionHierarchy}s je Datenbank.
+ * Die Hierarchie wird nach dem Aufbau in eine Datei geschrieben und nach einem Neustart beim ersten Zugriff wieder gelesen.
+ * Aendert sich das Strassennetz, werden Hierarchie und Datei verworfen, da die Shortcuts nicht mehr stimmen.
+ * Beim Lesen wird der gespeicherte {@link GraphFingerprint} mit dem aktuellen Netz verglichen, sodass auch Aenderungen erkannt werden,
+ * die ohne laufenden Listener geschrieben wurden, etwa bei einem Import.
+ */
+public final class Hierarchies {
+
+    // Verzeichnis der Hierarchie-Dateien, relativ zum Arbeitsverzeichnis des Servers
+    public static final String DIRECTORY_PROPERTY = "dibasem.hierarchy.dir";
+    private static final String DEFAULT_DIRECTORY = "data/dibasem";
+
+    private static final Map<String, ContractionHierarchy> hierarchies = new ConcurrentHashMap<>();
+    // Wird bei jedem Aufbau und jedem Verwerfen erhoeht, sodass ein parallel gelesener Stand nicht mehr eingetragen wird
+    private static final AtomicLong generation = new AtomicLong();
+
+    private Hierarchies() {
+    }
+
+    public static ContractionHierarchy get(String databaseName, Transaction tx) {
+        // Liefert die Hierarchie aus dem Speicher, oder liest sie aus ihrer Datei. null falls keine Hierarchie gebaut wurde
+        // oder die Datei zu einem anderen Strassennetz gehoert.
+        ContractionHierarchy loaded = hierarchies.get(databaseName);
+        if (loaded != null) {
+            return loaded;
+        }
+        // Datei und Fingerabdruck werden ausserhalb der Map gelesen, da der Fingerabdruck ohne geladenen Snapshot das ganze Netz liest.
+        // Wurde inzwischen neu gebaut oder verworfen, gilt das Ergebnis nicht mehr.
+        long generation = Hierarchies.generation.get();
+        File file = getFile(databaseName);
+        if (!file.isFile()) {
+            return null;
+        }
+        ContractionHierarchy hierarchy;
+        try {
+            hierarchy = ContractionHierarchy.read(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read contraction hierarchy " + file, e);
+        }
+        GraphSnapshot graph = GraphSnapshots.get(databaseName);
+        boolean current = hierarchy.getFingerprint().equals(GraphFingerprint.of(graph == null ? GraphSnapshot.build(tx) : graph));
+        synchronized (Hierarchies.class) {
+            if (generation != Hierarchies.generation.get()) {
+                return hierarchies.get(databaseName);
+            }
+            if (!current) {
+                // Die Shortcuts passen nicht mehr zum Netz, die Hierarchie muss neu gebaut werden
+                deleteFile(databaseName);
+                return null;
+            }
+            hierarchies.put(databaseName, hierarchy);
+            return hierarchy;
+        }
+    }
+
+    public static ContractionHierarchy build(String databaseName, Transaction tx, double maxEdgeDifference) {
+        ContractionHierarchy hierarchy = new HierarchyBuilder(GraphSnapshot.build(tx), maxEdgeDifference).build();
+        synchronized (Hierarchies.class) {
+            generation.incrementAndGet();
+            try {
+                hierarchy.write(getFile(databaseName));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write contraction hierarchy " + getFile(databaseName), e);
+            }
+            hierarchies.put(databaseName, hierarchy);
+        }
+        return hierarchy;
+    }
+
+    public static void invalidate(String databaseName) {
+        // Verwirft die Hierarchie nach einer Aenderung des Strassennetzes, auch auf der Festplatte
+        synchronized (Hierarchies.class) {
+            generation.incrementAndGet();
+            hierarchies.remove(databaseName);
+            deleteFile(databaseName);
+        }
+    }
+
+    public static void unload(String databaseName) {
+        // Gibt nur den Speicher frei, die Datei bleibt fuer den naechsten Start erhalten
+        hierarchies.remove(databaseName);
+    }
+
+    private static void deleteFile(String databaseName) {
+        File file = getFile(databaseName);
+        if (file.isFile() && !file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    public static File getFile(String databaseName) {
+        return new File(System.getProperty(DIRECTORY_PROPERTY, DEFAULT_DIRECTORY), databaseName + ".ch");
+    }
+}
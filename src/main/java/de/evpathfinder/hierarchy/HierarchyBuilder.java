@@ -0,0 +1,260 @@
+package de.evpathfinder.hierarchy;
+
+import de.evpathfinder.graph.GraphSnapshot;
+
+import java.util.*;
+
+/**
+ * Baut eine {@link ContractionHierarchy} aus einem {@link GraphSnapshot}.
+ * Knoten werden in der Reihenfolge ihrer Kantendifferenz kontrahiert (lazy updates). Beim Kontrahieren von v wird fuer jeden Weg u -> v -> w
+ * ein Shortcut angelegt, ausser ein Zeugenweg von u nach w ohne v ist bei Reisezeit und Verbrauch mindestens genauso gut.
+ * Dadurch bleibt fuer jeden Weg im urspruenglichen Netz ein hinsichtlich (Reisezeit, Verbrauch) nicht schlechterer Weg erhalten.
+ * Ladestationen werden nicht kontrahiert, sodass alle Ladeentscheidungen weiterhin an den Ladestationen selbst getroffen werden.
+ * Knoten, deren Kontraktion das Netz zu stark verdichten wuerde, bleiben ebenfalls im Kern.
+ */
+public class HierarchyBuilder {
+
+    // Begrenzt die Zeugensuche. Wird kein Zeuge gefunden, wird der Shortcut angelegt, was die Korrektheit nicht beeinflusst.
+    private static final int WITNESS_SETTLE_LIMIT = 500;
+
+    private final GraphSnapshot graph;
+    // Uebersteigt die Kantendifferenz des naechsten Knotens diesen Wert, bleiben alle uebrigen Knoten im Kern, damit dieser nicht zu dicht wird
+    private final double maxEdgeDifference;
+    private final int nodeCount;
+    private int[] sources;
+    private int[] targets;
+    private double[] durations;
+    private double[] consumptions;
+    private int[] firstChildren;
+    private int[] secondChildren;
+    private int edgeCount = 0;
+    private final int[][] outgoing;
+    private final int[] outgoingSize;
+    private final int[][] incoming;
+    private final int[] incomingSize;
+    private final boolean[] contracted;
+    private final int[] contractedNeighbours;
+    private final int[] rank;
+
+    private record Shortcut(int source, int target, double duration, double consumption, int firstChild, int secondChild) {
+    }
+
+    public HierarchyBuilder(GraphSnapshot graph, double maxEdgeDifference) {
+        this.graph = graph;
+        this.maxEdgeDifference = maxEdgeDifference;
+        this.nodeCount = graph.getNodeCount();
+        int capacity = Math.max(16, graph.getEdgeCount() * 2);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.durations = new double[capacity];
+        this.consumptions = new double[capacity];
+        this.firstChildren = new int[capacity];
+        this.secondChildren = new int[capacity];
+        this.outgoing = new int[this.nodeCount][];
+        this.outgoingSize = new int[this.nodeCount];
+        this.incoming = new int[this.nodeCount][];
+        this.incomingSize = new int[this.nodeCount];
+        this.contracted = new boolean[this.nodeCount];
+        this.contractedNeighbours = new int[this.nodeCount];
+        this.rank = new int[this.nodeCount];
+        for (int node = 0; node < this.nodeCount; node++) {
+            this.outgoing[node] = new int[Math.max(2, graph.getEndEdge(node) - graph.getFirstEdge(node))];
+            this.incoming[node] = new int[Math.max(2, graph.getEndIncomingEdge(node) - graph.getFirstIncomingEdge(node))];
+        }
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            this.addEdge(graph.getSource(edge), graph.getTarget(edge), graph.getDuration(edge), graph.getConsumption(edge), -1, -1);
+        }
+    }
+
+    public ContractionHierarchy build() {
+        // Alle Knoten ausser den Ladestationen nach ihrer Prioritaet kontrahieren
+        java.util.PriorityQueue<double[]> queue = new java.util.PriorityQueue<>(Comparator.comparingDouble((double[] entry) -> entry[0]).thenComparingDouble(entry -> entry[1]));
+        for (int node = 0; node < this.nodeCount; node++) {
+            this.rank[node] = ContractionHierarchy.CORE_RANK;
+            if (this.graph.getChargingPower(node) <= 0.0) {
+                queue.add(new double[]{this.getPriority(node), node});
+            }
+        }
+        int nextRank = 0;
+        while (!queue.isEmpty()) {
+            int node = (int) queue.poll()[1];
+            // Lazy update: hat sich die Prioritaet verschlechtert, wird der Knoten mit neuer Prioritaet wieder eingereiht
+            double priority = this.getPriority(node);
+            if (!queue.isEmpty() && priority > queue.peek()[0]) {
+                queue.add(new double[]{priority, node});
+                continue;
+            }
+            if (priority - this.contractedNeighbours[node] > this.maxEdgeDifference) {
+                // Alle uebrigen Knoten haben eine mindestens so hohe Prioritaet und bilden zusammen mit den Ladestationen den Kern
+                break;
+            }
+            for (Shortcut shortcut : this.findShortcuts(node)) {
+                this.addEdge(shortcut.source(), shortcut.target(), shortcut.duration(), shortcut.consumption(), shortcut.firstChild(), shortcut.secondChild());
+            }
+            this.contracted[node] = true;
+            this.rank[node] = nextRank++;
+            for (int i = 0; i < this.outgoingSize[node]; i++) {
+                this.contractedNeighbours[this.targets[this.outgoing[node][i]]]++;
+            }
+            for (int i = 0; i < this.incomingSize[node]; i++) {
+                this.contractedNeighbours[this.sources[this.incoming[node][i]]]++;
+            }
+        }
+
+        String[] ids = new String[this.nodeCount];
+        double[] chargingPower = new double[this.nodeCount];
+        for (int node = 0; node < this.nodeCount; node++) {
+            ids[node] = this.graph.getId(node);
+            chargingPower[node] = this.graph.getChargingPower(node);
+        }
+        return new ContractionHierarchy(GraphFingerprint.of(this.graph), ids, chargingPower, this.rank, Arrays.copyOf(this.sources, this.edgeCount), Arrays.copyOf(this.targets, this.edgeCount),
+                Arrays.copyOf(this.durations, this.edgeCount), Arrays.copyOf(this.consumptions, this.edgeCount),
+                Arrays.copyOf(this.firstChildren, this.edgeCount), Arrays.copyOf(this.secondChildren, this.edgeCount));
+    }
+
+    private double getPriority(int node) {
+        // Kantendifferenz: Anzahl neuer Shortcuts abzueglich der wegfallenden Kanten, plus Anzahl bereits kontrahierter Nachbarn fuer eine gleichmaessige Verteilung
+        int removedEdges = 0;
+        for (int i = 0; i < this.outgoingSize[node]; i++) {
+            if (!this.contracted[this.targets[this.outgoing[node][i]]]) {
+                removedEdges++;
+            }
+        }
+        for (int i = 0; i < this.incomingSize[node]; i++) {
+            if (!this.contracted[this.sources[this.incoming[node][i]]]) {
+                removedEdges++;
+            }
+        }
+        return this.findShortcuts(node).size() - removedEdges + this.contractedNeighbours[node];
+    }
+
+    private List<Shortcut> findShortcuts(int node) {
+        List<Shortcut> shortcuts = new ArrayList<>();
+        for (int i = 0; i < this.incomingSize[node]; i++) {
+            int inEdge = this.incoming[node][i];
+            int source = this.sources[inEdge];
+            if (this.contracted[source]) {
+                continue;
+            }
+            // Kandidaten fuer alle Wege source -> node -> target bestimmen
+            List<Shortcut> candidates = new ArrayList<>();
+            double maxDuration = 0.0;
+            double maxConsumption = 0.0;
+            for (int j = 0; j < this.outgoingSize[node]; j++) {
+                int outEdge = this.outgoing[node][j];
+                int target = this.targets[outEdge];
+                if (this.contracted[target] || target == source) {
+                    continue;
+                }
+                Shortcut candidate = new Shortcut(source, target, this.durations[inEdge] + this.durations[outEdge],
+                        this.consumptions[inEdge] + this.consumptions[outEdge], inEdge, outEdge);
+                candidates.add(candidate);
+                maxDuration = Math.max(maxDuration, candidate.duration());
+                maxConsumption = Math.max(maxConsumption, candidate.consumption());
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            Map<Integer, List<double[]>> witnesses = this.findWitnesses(source, node, maxDuration, maxConsumption);
+            for (Shortcut candidate : candidates) {
+                if (isDominated(witnesses.get(candidate.target()), candidate.duration(), candidate.consumption(), false)) {
+                    // Ein Zeugenweg ohne node ist bei Reisezeit und Verbrauch mindestens genauso gut
+                    continue;
+                }
+                if (this.isDominatedByOther(candidate, candidates)) {
+                    continue;
+                }
+                shortcuts.add(candidate);
+            }
+        }
+        return shortcuts;
+    }
+
+    private boolean isDominatedByOther(Shortcut candidate, List<Shortcut> candidates) {
+        // Parallele Kanten koennen mehrere Kandidaten zwischen denselben Knoten erzeugen, davon wird nur die Pareto-Menge benoetigt
+        for (Shortcut other : candidates) {
+            if (other != candidate && other.target() == candidate.target() && other.duration() <= candidate.duration() && other.consumption() <= candidate.consumption()
+                    && (other.duration() < candidate.duration() || other.consumption() < candidate.consumption() || candidates.indexOf(other) < candidates.indexOf(candidate))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Map<Integer, List<double[]>> findWitnesses(int source, int excluded, double maxDuration, double maxConsumption) {
+        // Pareto-Suche ueber (Reisezeit, Verbrauch) auf den noch nicht kontrahierten Knoten ohne excluded.
+        // Liefert je Knoten alle nicht dominierten Wege, deren Reisezeit und Verbrauch die Schranken nicht ueberschreiten.
+        Map<Integer, List<double[]>> labels = new HashMap<>();
+        java.util.PriorityQueue<double[]> queue = new java.util.PriorityQueue<>(Comparator.comparingDouble((double[] entry) -> entry[0]).thenComparingDouble(entry -> entry[1]));
+        labels.computeIfAbsent(source, node -> new ArrayList<>()).add(new double[]{0.0, 0.0});
+        queue.add(new double[]{0.0, 0.0, source});
+        int settled = 0;
+        while (!queue.isEmpty() && settled < WITNESS_SETTLE_LIMIT) {
+            double[] entry = queue.poll();
+            int node = (int) entry[2];
+            if (isDominated(labels.get(node), entry[0], entry[1], true)) {
+                // Das Label wurde inzwischen durch ein besseres Label desselben Knotens ersetzt
+                continue;
+            }
+            settled++;
+            for (int i = 0; i < this.outgoingSize[node]; i++) {
+                int edge = this.outgoing[node][i];
+                int target = this.targets[edge];
+                double duration = entry[0] + this.durations[edge];
+                double consumption = entry[1] + this.consumptions[edge];
+                if (target == excluded || this.contracted[target] || duration > maxDuration || consumption > maxConsumption) {
+                    continue;
+                }
+                List<double[]> targetLabels = labels.computeIfAbsent(target, key -> new ArrayList<>());
+                if (isDominated(targetLabels, duration, consumption, false)) {
+                    continue;
+                }
+                targetLabels.removeIf(label -> duration <= label[0] && consumption <= label[1]);
+                targetLabels.add(new double[]{duration, consumption});
+                queue.add(new double[]{duration, consumption, target});
+            }
+        }
+        return labels;
+    }
+
+    private static boolean isDominated(List<double[]> labels, double duration, double consumption, boolean strictly) {
+        // strictly: nur echt bessere Labels zaehlen, damit das Label selbst nicht als Dominanz gilt
+        if (labels == null) {
+            return false;
+        }
+        for (double[] label : labels) {
+            boolean atLeastAsGood = label[0] <= duration && label[1] <= consumption;
+            if (atLeastAsGood && (!strictly || label[0] < duration || label[1] < consumption)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void addEdge(int source, int target, double duration, double consumption, int firstChild, int secondChild) {
+        if (this.edgeCount == this.targets.length) {
+            int capacity = this.edgeCount * 2;
+            this.sources = Arrays.copyOf(this.sources, capacity);
+            this.targets = Arrays.copyOf(this.targets, capacity);
+            this.durations = Arrays.copyOf(this.durations, capacity);
+            this.consumptions = Arrays.copyOf(this.consumptions, capacity);
+            this.firstChildren = Arrays.copyOf(this.firstChildren, capacity);
+            this.secondChildren = Arrays.copyOf(this.secondChildren, capacity);
+        }
+        int edge = this.edgeCount++;
+        this.sources[edge] = source;
+        this.targets[edge] = target;
+        this.durations[edge] = duration;
+        this.consumptions[edge] = consumption;
+        this.firstChildren[edge] = firstChild;
+        this.secondChildren[edge] = secondChild;
+        if (this.outgoingSize[source] == this.outgoing[source].length) {
+            this.outgoing[source] = Arrays.copyOf(this.outgoing[source], this.outgoing[source].length * 2);
+        }
+        this.outgoing[source][this.outgoingSize[source]++] = edge;
+        if (this.incomingSize[target] == this.incoming[target].length) {
+            this.incoming[target] = Arrays.copyOf(this.incoming[target], this.incoming[target].length * 2);
+        }
+        this.incoming[target][this.incomingSize[target]++] = edge;
+    }
+}
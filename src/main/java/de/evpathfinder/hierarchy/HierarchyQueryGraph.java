@@ -0,0 +1,232 @@
+package de.evpathfinder.hierarchy;
+
+import de.evpathfinder.data.Path;
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.data.VisitedNodeId;
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.*;
+
+/**
+ * Suchgraph einer Anfrage auf der {@link ContractionHierarchy}. Von jedem Knoten aus sind die Kanten zu hoeher eingeordneten Knoten
+ * (aufwaerts), die Kanten innerhalb des Kerns und die Kanten abwaerts zu Knoten, von denen aus das Ziel absteigend erreichbar ist, sichtbar.
+ * Damit laesst sich jeder Weg als Aufstieg, Weg im Kern und Abstieg zum Ziel darstellen und mit derselben DiBaSEM-Suche finden.
+ * Die Kanten eines Knotens werden beim ersten Zugriff gefiltert und erhalten eigene fortlaufende Indizes.
+ * Die eingehenden Kanten werden erst beim ersten Zugriff darauf gebildet, wofuer die Kanten aller Knoten gefiltert werden.
+ */
+public class HierarchyQueryGraph implements RoadGraph {
+
+    private final ContractionHierarchy hierarchy;
+    // Knoten, von denen aus das Ziel ueber absteigende Kanten erreichbar ist
+    private final BitSet descendsToTarget = new BitSet();
+    private final int[] firstEdge;
+    private final int[] endEdge;
+    private int[] hierarchyEdges = new int[256];
+    private int edgeCount = 0;
+    // Eingehende Kanten je Zielknoten als Indizes dieses Graphen, null solange sie nicht benoetigt wurden
+    private int[] incomingOffsets = null;
+    private int[] incomingEdges = null;
+
+    public HierarchyQueryGraph(ContractionHierarchy hierarchy, int target) {
+        this.hierarchy = hierarchy;
+        this.firstEdge = new int[hierarchy.getNodeCount()];
+        this.endEdge = new int[hierarchy.getNodeCount()];
+        Arrays.fill(this.firstEdge, -1);
+        this.markDescendingNodes(target);
+    }
+
+    private void markDescendingNodes(int target) {
+        // Rueckwaerts vom Ziel ueber eingehende Kanten, die von einem hoeher eingeordneten Knoten kommen
+        Deque<Integer> stack = new ArrayDeque<>();
+        this.descendsToTarget.set(target);
+        stack.push(target);
+        while (!stack.isEmpty()) {
+            int node = stack.pop();
+            for (int i = this.hierarchy.getFirstIncomingEdge(node), end = this.hierarchy.getEndIncomingEdge(node); i < end; i++) {
+                int source = this.hierarchy.getSource(this.hierarchy.getIncomingEdge(i));
+                if (this.hierarchy.getRank(source) > this.hierarchy.getRank(node) && !this.descendsToTarget.get(source)) {
+                    this.descendsToTarget.set(source);
+                    stack.push(source);
+                }
+            }
+        }
+    }
+
+    private void loadEdges(int node) {
+        if (this.firstEdge[node] >= 0) {
+            return;
+        }
+        int first = this.edgeCount;
+        int nodeRank = this.hierarchy.getRank(node);
+        for (int edge = this.hierarchy.getFirstEdge(node), end = this.hierarchy.getEndEdge(node); edge < end; edge++) {
+            int target = this.hierarchy.getTarget(edge);
+            int targetRank = this.hierarchy.getRank(target);
+            boolean upward = targetRank > nodeRank;
+            boolean withinCore = targetRank == ContractionHierarchy.CORE_RANK && nodeRank == ContractionHierarchy.CORE_RANK;
+            boolean downward = targetRank < nodeRank && this.descendsToTarget.get(target);
+            if (upward || withinCore || downward) {
+                if (this.edgeCount == this.hierarchyEdges.length) {
+                    this.hierarchyEdges = Arrays.copyOf(this.hierarchyEdges, this.edgeCount * 2);
+                }
+                this.hierarchyEdges[this.edgeCount++] = edge;
+            }
+        }
+        this.firstEdge[node] = first;
+        this.endEdge[node] = this.edgeCount;
+    }
+
+    private void loadIncomingEdges() {
+        if (this.incomingOffsets != null) {
+            return;
+        }
+        int nodeCount = this.firstEdge.length;
+        for (int node = 0; node < nodeCount; node++) {
+            this.loadEdges(node);
+        }
+        int[] offsets = new int[nodeCount + 1];
+        for (int edge = 0; edge < this.edgeCount; edge++) {
+            offsets[this.getTarget(edge) + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] position = Arrays.copyOf(offsets, nodeCount);
+        int[] edges = new int[this.edgeCount];
+        for (int edge = 0; edge < this.edgeCount; edge++) {
+            edges[position[this.getTarget(edge)]++] = edge;
+        }
+        this.incomingEdges = edges;
+        this.incomingOffsets = offsets;
+    }
+
+    public List<VisitedNode> unpack(Path path) {
+        // Ersetzt die Shortcuts des gefundenen Weges durch die urspruenglichen Kanten. Zwischenknoten sind nie Ladestationen,
+        // ihre Reisezeit und ihr Ladestand ergeben sich daher direkt aus dem vorherigen Knoten.
+        List<VisitedNode> nodes = path.getPath();
+        List<VisitedNode> unpacked = new ArrayList<>();
+        unpacked.add(nodes.get(0));
+        List<Integer> originalEdges = new ArrayList<>();
+        for (int i = 1; i < nodes.size(); i++) {
+            VisitedNode from = nodes.get(i - 1);
+            VisitedNode to = nodes.get(i);
+            originalEdges.clear();
+            this.hierarchy.unpack(this.findUsedEdge(from, to), originalEdges);
+            double travelTime = from.travelTime();
+            double soc = from.soc();
+            for (int j = 0; j < originalEdges.size() - 1; j++) {
+                int edge = originalEdges.get(j);
+                travelTime += this.hierarchy.getDuration(edge);
+                soc -= this.hierarchy.getConsumption(edge);
+                int node = this.hierarchy.getTarget(edge);
+                unpacked.add(new VisitedNode(new VisitedNodeId(this.hierarchy.getId(node), node, to.id().getVersion()), travelTime, soc, 0.0));
+            }
+            unpacked.add(to);
+        }
+        return unpacked;
+    }
+
+    private int findUsedEdge(VisitedNode from, VisitedNode to) {
+        // Die Kante, deren Reisezeit zur Differenz der beiden Labels (ohne Ladezeit) passt, bei mehreren die kuerzeste
+        double duration = to.travelTime() - from.travelTime() - to.chargingTime();
+        int best = -1;
+        for (int edge = this.getFirstEdge(from.id().getNode()), end = this.getEndEdge(from.id().getNode()); edge < end; edge++) {
+            if (this.getTarget(edge) != to.id().getNode()) {
+                continue;
+            }
+            if (best == -1 || Math.abs(this.getDuration(edge) - duration) < Math.abs(this.getDuration(best) - duration)) {
+                best = edge;
+            }
+        }
+        return this.hierarchyEdges[best];
+    }
+
+    @Override
+    public int findNode(String id) {
+        return this.hierarchy.findNode(id);
+    }
+
+    @Override
+    public String getId(int node) {
+        return this.hierarchy.getId(node);
+    }
+
+    @Override
+    public double getChargingPower(int node) {
+        return this.hierarchy.getChargingPower(node);
+    }
+
+    @Override
+    public int[] getStations() {
+        return this.hierarchy.getStations();
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        this.loadEdges(node);
+        return this.firstEdge[node];
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        this.loadEdges(node);
+        return this.endEdge[node];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return this.hierarchy.getTarget(this.hierarchyEdges[edge]);
+    }
+
+    @Override
+    public int getFirstIncomingEdge(int node) {
+        this.loadIncomingEdges();
+        return this.incomingOffsets[node];
+    }
+
+    @Override
+    public int getEndIncomingEdge(int node) {
+        this.loadIncomingEdges();
+        return this.incomingOffsets[node + 1];
+    }
+
+    @Override
+    public int getIncomingEdge(int index) {
+        this.loadIncomingEdges();
+        return this.incomingEdges[index];
+    }
+
+    @Override
+    public int getSource(int edge) {
+        return this.hierarchy.getSource(this.hierarchyEdges[edge]);
+    }
+
+    @Override
+    public double getDuration(int edge) {
+        return this.hierarchy.getDuration(this.hierarchyEdges[edge]);
+    }
+
+    @Override
+    public double getConsumption(int edge) {
+        return this.hierarchy.getConsumption(this.hierarchyEdges[edge]);
+    }
+
+    @Override
+    public double getLatitude(int node) {
+        return Double.NaN;
+    }
+
+    @Override
+    public double getLongitude(int node) {
+        return Double.NaN;
+    }
+
+    @Override
+    public double[] getLandmarkDistancesFrom(int node) {
+        return null;
+    }
+
+    @Override
+    public double[] getLandmarkDistancesTo(int node) {
+        return null;
+    }
+}
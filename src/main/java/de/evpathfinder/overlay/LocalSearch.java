@@ -0,0 +1,72 @@
+package de.evpathfinder.overlay;
+
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.*;
+
+/**
+ * Mehrkriterielle Suche ueber Reisezeit und Verbrauch von einem Knoten aus, vorwaerts oder rueckwaerts, die an Ladestationen endet.
+ * Sie liefert fuer jeden erreichten Knoten alle Wege, die in Reisezeit und Verbrauch Pareto-optimal sind, da DiBaSEM auch langsamere,
+ * sparsamere Wege benoetigt. Wege, die mehr als maxBattery verbrauchen, werden nicht weiter betrachtet.
+ */
+final class LocalSearch {
+
+    // Ein erreichter Knoten mit Reisezeit, Verbrauch und den Kanten des Weges in Fahrtrichtung
+    record Reached(int node, double duration, double consumption, int[] edges) {
+    }
+
+    // Label der Suche, der Weg ergibt sich ueber die Vorgaenger
+    private record Label(int node, double duration, double consumption, int edge, Label parent) {
+    }
+
+    private LocalSearch() {
+    }
+
+    static List<Reached> run(RoadGraph graph, int source, boolean forward, double maxBattery) {
+        // Die Labels werden nach Reisezeit abgearbeitet. Ein Label ist daher genau dann nicht dominiert,
+        // wenn es weniger verbraucht als alle zuvor abgearbeiteten Labels desselben Knotens.
+        Map<Integer, Double> minConsumptionOfNode = new HashMap<>();
+        List<Reached> reached = new ArrayList<>();
+        java.util.PriorityQueue<Label> queue = new java.util.PriorityQueue<>(Comparator.comparingDouble(Label::duration).thenComparingDouble(Label::consumption));
+        queue.add(new Label(source, 0.0, 0.0, -1, null));
+        while (!queue.isEmpty()) {
+            Label label = queue.poll();
+            int node = label.node();
+            if (label.consumption() >= minConsumptionOfNode.getOrDefault(node, Double.POSITIVE_INFINITY)) {
+                continue;
+            }
+            minConsumptionOfNode.put(node, label.consumption());
+            if (node != source) {
+                reached.add(new Reached(node, label.duration(), label.consumption(), buildPath(label, forward)));
+                if (graph.getChargingPower(node) > 0.0) {
+                    // Ueber eine Ladestation hinaus wird nicht gesucht, ab dort uebernimmt der Overlay-Graph
+                    continue;
+                }
+            }
+            int first = forward ? graph.getFirstEdge(node) : graph.getFirstIncomingEdge(node);
+            int end = forward ? graph.getEndEdge(node) : graph.getEndIncomingEdge(node);
+            for (int i = first; i < end; i++) {
+                int edge = forward ? i : graph.getIncomingEdge(i);
+                int neighbour = forward ? graph.getTarget(edge) : graph.getSource(edge);
+                double consumption = label.consumption() + graph.getConsumption(edge);
+                if (consumption > maxBattery || consumption >= minConsumptionOfNode.getOrDefault(neighbour, Double.POSITIVE_INFINITY)) {
+                    continue;
+                }
+                queue.add(new Label(neighbour, label.duration() + graph.getDuration(edge), consumption, edge, label));
+            }
+        }
+        return reached;
+    }
+
+    private static int[] buildPath(Label label, boolean forward) {
+        // Kanten vom Start bis zum Ende des Weges. Bei der Rueckwaertssuche fuehrt der Weg von label zur Quelle und liegt bereits in Fahrtrichtung vor.
+        List<Integer> edges = new ArrayList<>();
+        for (Label current = label; current.parent() != null; current = current.parent()) {
+            edges.add(current.edge());
+        }
+        if (forward) {
+            Collections.reverse(edges);
+        }
+        return edges.stream().mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,243 @@
+package de.evpathfinder.overlay;
+
+import de.evpathfinder.data.Path;
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.data.VisitedNodeId;
+import de.evpathfinder.graph.GraphSnapshot;
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.*;
+
+/**
+ * Suchgraph einer Anfrage auf dem {@link StationOverlay}. Er besteht aus den Ladestationen mit ihren Overlay-Kanten sowie Start- und Zielknoten,
+ * die ueber kleine lokale Suchen bis zu den naechsten Ladestationen angebunden werden, sodass DiBaSEM Ladeentscheidungen nur noch an den
+ * Ladestationen trifft.
+ * Da zwischen zwei Knoten mehrere Pareto-optimale Wege existieren koennen, fuehrt jeder Weg ueber einen eigenen virtuellen Zwischenknoten.
+ * Die erste Teilkante traegt Reisezeit und Verbrauch des Weges, die zweite ist kostenlos. So bleibt die Kante zwischen zwei
+ * aufeinanderfolgenden Knoten eindeutig, wie es {@link RoadGraph#getShortestEdge(int, int)} beim Neuberechnen eines Weges voraussetzt.
+ * Reale Knoten werden ueber ihren Index im Snapshot angesprochen, die Kanten eines Knotens erhalten beim ersten Zugriff eigene Indizes.
+ * Die eingehenden Kanten werden erst beim ersten Zugriff darauf gebildet, wofuer alle Kanten des Suchgraphen angelegt werden.
+ */
+public class OverlayQueryGraph implements RoadGraph {
+
+    private final StationOverlay overlay;
+    private final GraphSnapshot graph;
+    private final int start;
+    private final int end;
+    // Virtuelle Zwischenknoten haben Indizes ab der Knotenanzahl des Snapshots
+    private final int firstViaNode;
+    private final List<LocalSearch.Reached> fromStart;
+    private final Map<Integer, List<LocalSearch.Reached>> toEnd = new HashMap<>();
+    private final Map<Integer, int[]> edgeRangeOfNode = new HashMap<>();
+    private final List<Integer> sources = new ArrayList<>();
+    private final List<Integer> targets = new ArrayList<>();
+    // Der Weg einer ersten Teilkante, bei zweiten Teilkanten null
+    private final List<LocalSearch.Reached> ways = new ArrayList<>();
+    // Eingehende Kanten je Knoten einschliesslich der Zwischenknoten, null solange sie nicht benoetigt wurden
+    private int[] incomingOffsets = null;
+    private int[] incomingEdges = null;
+
+    public OverlayQueryGraph(StationOverlay overlay, int start, int end) {
+        this.overlay = overlay;
+        this.graph = overlay.getGraph();
+        this.start = start;
+        this.end = end;
+        this.firstViaNode = this.graph.getNodeCount();
+        this.fromStart = overlay.isStation(start) ? List.of() : LocalSearch.run(this.graph, start, true, overlay.getMaxBattery());
+        if (!overlay.isStation(end)) {
+            // Rueckwaerts vom Ziel bis zu den naechsten Ladestationen, die Wege liegen bereits in Fahrtrichtung vor
+            for (LocalSearch.Reached reached : LocalSearch.run(this.graph, end, false, overlay.getMaxBattery())) {
+                this.toEnd.computeIfAbsent(reached.node(), node -> new ArrayList<>()).add(reached);
+            }
+        }
+    }
+
+    private int[] loadEdges(int node) {
+        return this.edgeRangeOfNode.computeIfAbsent(node, key -> {
+            int first = this.targets.size();
+            if (this.isViaNode(node)) {
+                // Zweite Teilkante vom Zwischenknoten zum Ende des Weges
+                this.addEdge(node, this.ways.get(node - this.firstViaNode).node(), null);
+            } else if (node == this.start && !this.overlay.isStation(node)) {
+                // Vom Start zu den naechsten Ladestationen und, falls ohne Ladestation erreichbar, direkt zum Ziel
+                for (LocalSearch.Reached reached : this.fromStart) {
+                    if (this.overlay.isStation(reached.node()) || reached.node() == this.end) {
+                        this.addEdge(node, this.firstViaNode + this.targets.size(), reached);
+                    }
+                }
+            } else if (this.overlay.isStation(node)) {
+                for (int edge = this.overlay.getFirstEdge(node), last = this.overlay.getEndEdge(node); edge < last; edge++) {
+                    LocalSearch.Reached reached = new LocalSearch.Reached(this.overlay.getTarget(edge), this.overlay.getDuration(edge), this.overlay.getConsumption(edge), this.overlay.getPathEdges(edge));
+                    this.addEdge(node, this.firstViaNode + this.targets.size(), reached);
+                }
+                for (LocalSearch.Reached toEnd : this.toEnd.getOrDefault(node, List.of())) {
+                    this.addEdge(node, this.firstViaNode + this.targets.size(), new LocalSearch.Reached(this.end, toEnd.duration(), toEnd.consumption(), toEnd.edges()));
+                }
+            }
+            return new int[]{first, this.targets.size()};
+        });
+    }
+
+    private void addEdge(int source, int target, LocalSearch.Reached way) {
+        this.sources.add(source);
+        this.targets.add(target);
+        this.ways.add(way);
+    }
+
+    private void loadIncomingEdges() {
+        if (this.incomingOffsets != null) {
+            return;
+        }
+        // Vom Start und von allen Ladestationen aus sind alle Kanten erreichbar. Jede erste Teilkante legt ihren Zwischenknoten an,
+        // dessen zweite Teilkante wiederum ans Ende der Liste kommt, bis alle Zwischenknoten geladen sind.
+        this.loadEdges(this.start);
+        for (int station : this.overlay.getStations()) {
+            this.loadEdges(station);
+        }
+        for (int edge = 0; edge < this.targets.size(); edge++) {
+            if (this.ways.get(edge) != null) {
+                this.loadEdges(this.firstViaNode + edge);
+            }
+        }
+        int nodeCount = this.firstViaNode + this.targets.size();
+        int[] offsets = new int[nodeCount + 1];
+        for (int target : this.targets) {
+            offsets[target + 1]++;
+        }
+        for (int node = 0; node < nodeCount; node++) {
+            offsets[node + 1] += offsets[node];
+        }
+        int[] position = Arrays.copyOf(offsets, nodeCount);
+        int[] edges = new int[this.targets.size()];
+        for (int edge = 0; edge < this.targets.size(); edge++) {
+            edges[position[this.targets.get(edge)]++] = edge;
+        }
+        this.incomingEdges = edges;
+        this.incomingOffsets = offsets;
+    }
+
+    private boolean isViaNode(int node) {
+        return node >= this.firstViaNode;
+    }
+
+    private int getRealNode(int node) {
+        // Ein Zwischenknoten steht fuer das Ende seines Weges
+        return this.isViaNode(node) ? this.ways.get(node - this.firstViaNode).node() : node;
+    }
+
+    public List<VisitedNode> unpack(Path path) {
+        // Ersetzt jeden Zwischenknoten des gefundenen Weges durch die Knoten seines Weges im Strassennetz. Diese sind keine Ladestationen,
+        // ihre Reisezeit und ihr Ladestand ergeben sich daher direkt aus dem vorherigen Knoten.
+        List<VisitedNode> nodes = path.getPath();
+        List<VisitedNode> unpacked = new ArrayList<>();
+        for (int i = 0; i < nodes.size(); i++) {
+            VisitedNode visitedNode = nodes.get(i);
+            if (!this.isViaNode(visitedNode.id().getNode())) {
+                unpacked.add(visitedNode);
+                continue;
+            }
+            VisitedNode from = nodes.get(i - 1);
+            int[] pathEdges = this.ways.get(visitedNode.id().getNode() - this.firstViaNode).edges();
+            double travelTime = from.travelTime();
+            double soc = from.soc();
+            for (int j = 0; j < pathEdges.length - 1; j++) {
+                travelTime += this.graph.getDuration(pathEdges[j]);
+                soc -= this.graph.getConsumption(pathEdges[j]);
+                int node = this.graph.getTarget(pathEdges[j]);
+                unpacked.add(new VisitedNode(new VisitedNodeId(this.graph.getId(node), node, visitedNode.id().getVersion()), travelTime, soc, 0.0));
+            }
+        }
+        return unpacked;
+    }
+
+    @Override
+    public int findNode(String id) {
+        return this.graph.findNode(id);
+    }
+
+    @Override
+    public String getId(int node) {
+        return this.graph.getId(this.getRealNode(node));
+    }
+
+    @Override
+    public double getChargingPower(int node) {
+        // Zwischenknoten sind keine Ladestationen
+        return this.isViaNode(node) ? 0.0 : this.graph.getChargingPower(node);
+    }
+
+    @Override
+    public int[] getStations() {
+        return this.overlay.getStations();
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        return this.loadEdges(node)[0];
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        return this.loadEdges(node)[1];
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return this.targets.get(edge);
+    }
+
+    @Override
+    public int getFirstIncomingEdge(int node) {
+        this.loadIncomingEdges();
+        return this.incomingOffsets[node];
+    }
+
+    @Override
+    public int getEndIncomingEdge(int node) {
+        this.loadIncomingEdges();
+        return this.incomingOffsets[node + 1];
+    }
+
+    @Override
+    public int getIncomingEdge(int index) {
+        this.loadIncomingEdges();
+        return this.incomingEdges[index];
+    }
+
+    @Override
+    public int getSource(int edge) {
+        return this.sources.get(edge);
+    }
+
+    @Override
+    public double getDuration(int edge) {
+        LocalSearch.Reached way = this.ways.get(edge);
+        return way == null ? 0.0 : way.duration();
+    }
+
+    @Override
+    public double getConsumption(int edge) {
+        LocalSearch.Reached way = this.ways.get(edge);
+        return way == null ? 0.0 : way.consumption();
+    }
+
+    @Override
+    public double getLatitude(int node) {
+        return this.graph.getLatitude(this.getRealNode(node));
+    }
+
+    @Override
+    public double getLongitude(int node) {
+        return this.graph.getLongitude(this.getRealNode(node));
+    }
+
+    @Override
+    public double[] getLandmarkDistancesFrom(int node) {
+        return this.graph.getLandmarkDistancesFrom(this.getRealNode(node));
+    }
+
+    @Override
+    public double[] getLandmarkDistancesTo(int node) {
+        return this.graph.getLandmarkDistancesTo(this.getRealNode(node));
+    }
+}
@@ -0,0 +1,123 @@
+package de.evpathfinder.overlay;
+
+import de.evpathfinder.graph.GraphSnapshot;
+
+import java.util.*;
+
+/**
+ * Overlay-Graph mit einem Knoten je Ladestation. Eine Overlay-Kante verbindet zwei Ladestationen ueber einen Weg, der keine weitere
+ * Ladestation beruehrt, mit einem vollen Akku (maxBattery) befahrbar ist und in Reisezeit und Verbrauch Pareto-optimal ist, sodass
+ * zwischen zwei Ladestationen mehrere Kanten existieren koennen. Sie haelt Reisezeit, Verbrauch und die Kanten des Weges im
+ * zugrunde liegenden {@link GraphSnapshot}, damit Ergebnisse wieder entpackt werden koennen.
+ */
+public class StationOverlay {
+
+    private final GraphSnapshot graph;
+    private final double maxBattery;
+    private final int[] stations;
+    // Overlay-Kanten je Ladestation (Index im Snapshot) als CSR, Ladestationen ohne Kanten haben einen leeren Bereich
+    private final Map<Integer, Integer> stationIndexOfNode;
+    private final int[] edgeOffsets;
+    private final int[] targets;
+    private final double[] durations;
+    private final double[] consumptions;
+    private final int[][] pathEdges;
+
+    private StationOverlay(GraphSnapshot graph, double maxBattery, int[] stations, int[] edgeOffsets, int[] targets, double[] durations, double[] consumptions, int[][] pathEdges) {
+        this.graph = graph;
+        this.maxBattery = maxBattery;
+        this.stations = stations;
+        this.stationIndexOfNode = new HashMap<>(stations.length * 2);
+        for (int i = 0; i < stations.length; i++) {
+            this.stationIndexOfNode.put(stations[i], i);
+        }
+        this.edgeOffsets = edgeOffsets;
+        this.targets = targets;
+        this.durations = durations;
+        this.consumptions = consumptions;
+        this.pathEdges = pathEdges;
+    }
+
+    public static StationOverlay build(GraphSnapshot graph, double maxBattery) {
+        List<Integer> stationList = new ArrayList<>();
+        for (int node = 0; node < graph.getNodeCount(); node++) {
+            if (graph.getChargingPower(node) > 0.0) {
+                stationList.add(node);
+            }
+        }
+        int[] stations = stationList.stream().mapToInt(Integer::intValue).toArray();
+        int[] edgeOffsets = new int[stations.length + 1];
+        List<LocalSearch.Reached> edges = new ArrayList<>();
+        for (int i = 0; i < stations.length; i++) {
+            edgeOffsets[i] = edges.size();
+            // Von jeder Ladestation aus die naechsten Ladestationen suchen, ohne ueber eine Ladestation hinaus zu suchen
+            for (LocalSearch.Reached reached : LocalSearch.run(graph, stations[i], true, maxBattery)) {
+                if (graph.getChargingPower(reached.node()) > 0.0) {
+                    edges.add(reached);
+                }
+            }
+        }
+        edgeOffsets[stations.length] = edges.size();
+        int[] targets = new int[edges.size()];
+        double[] durations = new double[edges.size()];
+        double[] consumptions = new double[edges.size()];
+        int[][] pathEdges = new int[edges.size()][];
+        for (int edge = 0; edge < edges.size(); edge++) {
+            LocalSearch.Reached reached = edges.get(edge);
+            targets[edge] = reached.node();
+            durations[edge] = reached.duration();
+            consumptions[edge] = reached.consumption();
+            pathEdges[edge] = reached.edges();
+        }
+        return new StationOverlay(graph, maxBattery, stations, edgeOffsets, targets, durations, consumptions, pathEdges);
+    }
+
+    public GraphSnapshot getGraph() {
+        return this.graph;
+    }
+
+    public double getMaxBattery() {
+        return this.maxBattery;
+    }
+
+    public int[] getStations() {
+        return this.stations;
+    }
+
+    public int getStationCount() {
+        return this.stations.length;
+    }
+
+    public int getEdgeCount() {
+        return this.targets.length;
+    }
+
+    public boolean isStation(int node) {
+        return this.stationIndexOfNode.containsKey(node);
+    }
+
+    public int getFirstEdge(int station) {
+        // station ist der Knotenindex im Snapshot
+        return this.edgeOffsets[this.stationIndexOfNode.get(station)];
+    }
+
+    public int getEndEdge(int station) {
+        return this.edgeOffsets[this.stationIndexOfNode.get(station) + 1];
+    }
+
+    public int getTarget(int edge) {
+        return this.targets[edge];
+    }
+
+    public double getDuration(int edge) {
+        return this.durations[edge];
+    }
+
+    public double getConsumption(int edge) {
+        return this.consumptions[edge];
+    }
+
+    public int[] getPathEdges(int edge) {
+        return this.pathEdges[edge];
+    }
+}
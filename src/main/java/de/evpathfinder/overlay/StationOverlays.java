@@ -0,0 +1,96 @@
+package de.evpathfinder.overlay;
+
+import de.evpathfinder.graph.GraphSnapshot;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Prozessweite Verwaltung der {@link StationOverlay}s je Datenbank.
+ * Wie bei den Snapshots wird das Overlay nach einer Aenderung des Strassennetzes oder der Ladestationen sofort verworfen
+ * und im Hintergrund mit derselben Akkukapazitaet neu aufgebaut.
+ */
+public final class StationOverlays {
+
+    private static final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private static final ExecutorService rebuilder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "dibasem-overlay-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final class Entry {
+        private final double maxBattery;
+        private volatile StationOverlay overlay;
+        private final AtomicLong generation = new AtomicLong();
+
+        private Entry(double maxBattery) {
+            this.maxBattery = maxBattery;
+        }
+    }
+
+    private StationOverlays() {
+    }
+
+    public static StationOverlay get(String databaseName) {
+        // Liefert das aktuelle Overlay, oder null falls keines gebaut wurde bzw. es gerade neu aufgebaut wird
+        Entry entry = entries.get(databaseName);
+        return entry == null ? null : entry.overlay;
+    }
+
+    public static StationOverlay build(String databaseName, Transaction tx, double maxBattery) {
+        // Baut das Overlay synchron auf und haelt es ab sofort bei Aenderungen aktuell
+        Entry entry = new Entry(maxBattery);
+        Entry previous = entries.put(databaseName, entry);
+        if (previous != null) {
+            previous.generation.incrementAndGet();
+        }
+        long generation = entry.generation.get();
+        StationOverlay overlay = StationOverlay.build(GraphSnapshot.build(tx), maxBattery);
+        install(databaseName, entry, generation, overlay);
+        return overlay;
+    }
+
+    public static void drop(String databaseName) {
+        Entry entry = entries.remove(databaseName);
+        if (entry != null) {
+            entry.generation.incrementAndGet();
+            entry.overlay = null;
+        }
+    }
+
+    public static void invalidate(String databaseName, GraphDatabaseService databaseService) {
+        // Verwirft das Overlay einer Datenbank nach einer Aenderung und stoesst den Neuaufbau an
+        Entry entry = entries.get(databaseName);
+        if (entry == null) {
+            return;
+        }
+        long generation = entry.generation.incrementAndGet();
+        entry.overlay = null;
+        rebuilder.execute(() -> {
+            if (entry.generation.get() != generation) {
+                // Inzwischen gab es eine weitere Aenderung, deren Neuaufbau diesen ersetzt
+                return;
+            }
+            try (Transaction tx = databaseService.beginTx()) {
+                install(databaseName, entry, generation, StationOverlay.build(GraphSnapshot.build(tx), entry.maxBattery));
+            } catch (RuntimeException e) {
+                // Ohne Overlay schlagen Anfragen mit engine 'overlay' fehl, bis es erneut gebaut wurde
+            }
+        });
+    }
+
+    private static void install(String databaseName, Entry entry, long generation, StationOverlay overlay) {
+        synchronized (entry) {
+            // Nur installieren, falls das Overlay nach der letzten Aenderung aufgebaut wurde und nicht ersetzt oder verworfen wurde
+            if (entry.generation.get() == generation && entries.get(databaseName) == entry) {
+                entry.overlay = overlay;
+            }
+        }
+    }
+}
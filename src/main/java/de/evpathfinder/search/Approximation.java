@@ -0,0 +1,91 @@
+package de.evpathfinder.search;
+
+/**
+ * Einstellungen und Zaehler der approximativen Dominanz einer einzelnen Suche.
+ * Ein Label gilt auch dann als dominiert, wenn ein Label desselben Knotens hoechstens epsilonTime Minuten langsamer ist und hoechstens
+ * epsilonSoc kWh weniger Ladung hat. Zusaetzlich behaelt jeder Knoten hoechstens maxLabelsPerNode Labels.
+ * Aus der Anzahl der nur approximativ verworfenen Labels ergibt sich nach der Suche eine Schaetzung des Fehlers gegenueber der exakten Suche.
+ * Sie ist keine bewiesene Schranke, da schon die exakte Suche von der Reihenfolge der Labels abhaengt und ein verschmolzenes Label die
+ * Ladeentscheidungen aller Nachfolger aendern kann.
+ */
+public class Approximation {
+
+    private final double epsilonTime;
+    private final double epsilonSoc;
+    private final double maxLabelsPerNode;
+    // Labels, die nur wegen der Toleranzen und nicht exakt dominiert waren
+    private long mergedLabels = 0;
+    // Labels, die wegen maxLabelsPerNode ohne dominierendes Label entfernt wurden
+    private long droppedLabels = 0;
+    // Kleinste Ladeleistung der erreichten Ladestationen, an ihnen wird fehlende Energie im schlechtesten Fall nachgeladen
+    private double minChargingPower = Double.POSITIVE_INFINITY;
+
+    public Approximation(double epsilonTime, double epsilonSoc, double maxLabelsPerNode) {
+        this.epsilonTime = epsilonTime;
+        this.epsilonSoc = epsilonSoc;
+        this.maxLabelsPerNode = maxLabelsPerNode;
+    }
+
+    public static Approximation from(SearchConfig config) {
+        // Ohne Toleranzen und Obergrenze wird exakt gesucht, die Suche erhaelt dann null
+        if (config.getEpsilonTime() == 0.0 && config.getEpsilonSoc() == 0.0 && config.getMaxLabelsPerNode() == Double.POSITIVE_INFINITY) {
+            return null;
+        }
+        return new Approximation(config.getEpsilonTime(), config.getEpsilonSoc(), config.getMaxLabelsPerNode());
+    }
+
+    public double getEpsilonTime() {
+        return this.epsilonTime;
+    }
+
+    public double getEpsilonSoc() {
+        return this.epsilonSoc;
+    }
+
+    public boolean isFull(int labels) {
+        return labels > this.maxLabelsPerNode;
+    }
+
+    public void labelMerged() {
+        this.mergedLabels++;
+    }
+
+    public void labelDropped() {
+        this.droppedLabels++;
+    }
+
+    public void stationReached(double chargingPower) {
+        this.minChargingPower = Math.min(this.minChargingPower, chargingPower);
+    }
+
+    public long getMergedLabels() {
+        return this.mergedLabels;
+    }
+
+    public long getDroppedLabels() {
+        return this.droppedLabels;
+    }
+
+    public Double getErrorEstimate(double minChargingTime) {
+        // Geschaetzte Minuten, die der gefundene Weg langsamer sein kann als der Weg der exakten Suche, oder null falls keine Schaetzung moeglich ist.
+        // Ersetzt ein verschmolzenes Label ein Label des exakten Weges, kommt es auf dessen Fortsetzung etwa epsilonTime spaeter an
+        // und muss etwa epsilonSoc nachladen, im schlechtesten Fall mit einem zusaetzlichen Ladevorgang an der langsamsten Ladestation.
+        // Jede solche Ersetzung entspricht einem eigenen verschmolzenen Label, daher waechst die Schaetzung mit deren Anzahl.
+        if (this.droppedLabels > 0) {
+            // Ein entferntes Label wird von keinem anderen Label abgedeckt. Mit maxLabelsPerNode gibt es daher weder eine Schranke noch eine Schaetzung.
+            return null;
+        }
+        if (this.mergedLabels == 0) {
+            return 0.0;
+        }
+        double errorPerLabel = this.epsilonTime;
+        if (this.epsilonSoc > 0.0) {
+            if (this.minChargingPower == Double.POSITIVE_INFINITY) {
+                // Ohne erreichbare Ladestation kann fehlende Energie nicht nachgeladen werden
+                return null;
+            }
+            errorPerLabel += this.epsilonSoc / this.minChargingPower * 60.0 + minChargingTime;
+        }
+        return this.mergedLabels * errorPerLabel;
+    }
+}
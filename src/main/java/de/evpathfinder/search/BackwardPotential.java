@@ -0,0 +1,164 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.Arrays;
+import java.util.function.IntToDoubleFunction;
+
+/**
+ * Schrittweise Dijkstra-Suche vom Zielknoten rueckwaerts ueber die eingehenden Kanten, deren Entfernungen als Potential dienen.
+ * Bei mehreren Zielknoten ist die Entfernung eines Knotens die zum naechstgelegenen dieser Knoten.
+ * Fuer abgeschlossene Knoten ist die kuerzeste Entfernung zum Ziel exakt bekannt, fuer alle anderen Knoten
+ * ist der Radius der Suche (die Entfernung des zuletzt abgeschlossenen Knotens) eine untere Schranke.
+ * Das Kantengewicht wird uebergeben, sodass dieselbe Suche fuer Reisezeit und Verbrauch genutzt werden kann.
+ * Entfernungen und Queue liegen in Arrays je Knotenindex, die mit den Indizes des Graphen wachsen.
+ */
+public class BackwardPotential {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final RoadGraph graph;
+    private final IntToDoubleFunction edgeWeight;
+    // Vorlaeufige bzw. nach dem Abschluss exakte Entfernung je Knoten, unendlich fuer noch nicht erreichte Knoten
+    private double[] distances = new double[INITIAL_CAPACITY];
+    private boolean[] settled = new boolean[INITIAL_CAPACITY];
+    // Binaerer Heap der Knoten nach vorlaeufiger Entfernung und Position jedes Knotens im Heap, -1 falls nicht enthalten
+    private int[] heap = new int[INITIAL_CAPACITY];
+    private int[] positions = new int[INITIAL_CAPACITY];
+    private int heapSize = 0;
+    private int settledNodes = 0;
+    private double radius = 0.0;
+
+    public BackwardPotential(RoadGraph graph, int target, IntToDoubleFunction edgeWeight) {
+        this(graph, new int[]{target}, edgeWeight);
+    }
+
+    public BackwardPotential(RoadGraph graph, int[] targets, IntToDoubleFunction edgeWeight) {
+        this.graph = graph;
+        this.edgeWeight = edgeWeight;
+        Arrays.fill(this.distances, Double.POSITIVE_INFINITY);
+        Arrays.fill(this.positions, -1);
+        for (int target : targets) {
+            this.update(target, 0.0);
+        }
+    }
+
+    public boolean settleNext() {
+        // Schliesst den naechsten Knoten ab, liefert false falls alle erreichbaren Knoten abgeschlossen sind
+        if (this.heapSize == 0) {
+            return false;
+        }
+        int node = this.poll();
+        double distance = this.distances[node];
+        this.settled[node] = true;
+        this.settledNodes++;
+        this.radius = distance;
+        for (int i = this.graph.getFirstIncomingEdge(node), end = this.graph.getEndIncomingEdge(node); i < end; i++) {
+            int edge = this.graph.getIncomingEdge(i);
+            int source = this.graph.getSource(edge);
+            this.ensureCapacity(source);
+            if (!this.settled[source]) {
+                this.update(source, distance + this.edgeWeight.applyAsDouble(edge));
+            }
+        }
+        return true;
+    }
+
+    public boolean isSettled(int node) {
+        return node < this.settled.length && this.settled[node];
+    }
+
+    public boolean isFinished() {
+        return this.heapSize == 0;
+    }
+
+    public double getLowerBound(int node) {
+        // Exakte Entfernung fuer abgeschlossene Knoten, sonst der Radius. Ist die Suche beendet, ist der Knoten nicht mit dem Ziel verbunden.
+        if (this.isSettled(node)) {
+            return this.distances[node];
+        }
+        return this.heapSize == 0 ? Double.POSITIVE_INFINITY : this.radius;
+    }
+
+    public int getSettledNodes() {
+        return this.settledNodes;
+    }
+
+    private void update(int node, double distance) {
+        // Verringert die vorlaeufige Entfernung eines Knotens und fuegt ihn dazu bei Bedarf in den Heap ein
+        this.ensureCapacity(node);
+        if (distance >= this.distances[node]) {
+            return;
+        }
+        this.distances[node] = distance;
+        if (this.positions[node] < 0) {
+            this.positions[node] = this.heapSize;
+            this.heap[this.heapSize++] = node;
+        }
+        this.siftUp(this.positions[node]);
+    }
+
+    private int poll() {
+        int node = this.heap[0];
+        this.positions[node] = -1;
+        this.heapSize--;
+        if (this.heapSize > 0) {
+            this.heap[0] = this.heap[this.heapSize];
+            this.positions[this.heap[0]] = 0;
+            this.siftDown(0);
+        }
+        return node;
+    }
+
+    private void siftUp(int position) {
+        int node = this.heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (this.distances[this.heap[parent]] <= this.distances[node]) {
+                break;
+            }
+            this.move(this.heap[parent], position);
+            position = parent;
+        }
+        this.move(node, position);
+    }
+
+    private void siftDown(int position) {
+        int node = this.heap[position];
+        while (true) {
+            int child = 2 * position + 1;
+            if (child >= this.heapSize) {
+                break;
+            }
+            if (child + 1 < this.heapSize && this.distances[this.heap[child + 1]] < this.distances[this.heap[child]]) {
+                child++;
+            }
+            if (this.distances[this.heap[child]] >= this.distances[node]) {
+                break;
+            }
+            this.move(this.heap[child], position);
+            position = child;
+        }
+        this.move(node, position);
+    }
+
+    private void move(int node, int position) {
+        this.heap[position] = node;
+        this.positions[node] = position;
+    }
+
+    private void ensureCapacity(int node) {
+        // Der Graph kann beim Lesen der eingehenden Kanten neue Knotenindizes vergeben
+        if (node < this.distances.length) {
+            return;
+        }
+        int capacity = Math.max(node + 1, this.distances.length * 2);
+        int previous = this.distances.length;
+        this.distances = Arrays.copyOf(this.distances, capacity);
+        Arrays.fill(this.distances, previous, capacity, Double.POSITIVE_INFINITY);
+        this.settled = Arrays.copyOf(this.settled, capacity);
+        this.heap = Arrays.copyOf(this.heap, capacity);
+        this.positions = Arrays.copyOf(this.positions, capacity);
+        Arrays.fill(this.positions, previous, capacity, -1);
+    }
+}
@@ -0,0 +1,35 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.RoadGraph;
+
+/**
+ * Schranke aus einem {@link BackwardPotential} ueber die Reisezeit: fuer jedes von der Vorwaertssuche abgeschlossene Label
+ * schliesst die Rueckwaertssuche einen Knoten vom Ziel aus ab. Fuer deren abgeschlossene Knoten ist die Schranke exakt, fuer alle anderen
+ * ist es der Radius der Rueckwaertssuche. Die Rueckwaertssuche kennt weder Ladestand noch Ladezeiten und erzeugt daher selbst keine Wege,
+ * es handelt sich also nicht um eine bidirektionale Suche mit Treffpunkt. Die Vorwaertssuche endet wie bei jeder anderen Heuristik.
+ */
+public class BackwardPotentialHeuristic implements Heuristic {
+
+    private final BackwardPotential backwardPotential;
+    private final Heuristic heuristic;
+
+    public BackwardPotentialHeuristic(RoadGraph graph, int target, Heuristic heuristic) {
+        this.backwardPotential = new BackwardPotential(graph, target, graph::getDuration);
+        this.heuristic = heuristic;
+    }
+
+    @Override
+    public double getLowerBound(int node) {
+        // Das Maximum zweier unterer Schranken ist wieder eine untere Schranke
+        return Math.max(this.backwardPotential.getLowerBound(node), this.heuristic.getLowerBound(node));
+    }
+
+    @Override
+    public void onLabelSettled() {
+        this.backwardPotential.settleNext();
+    }
+
+    public BackwardPotential getBackwardPotential() {
+        return this.backwardPotential;
+    }
+}
@@ -0,0 +1,45 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.RoadGraph;
+
+/**
+ * Schaetzt die verbleibende Reisezeit ueber die Luftlinie zum Zielknoten und eine Hoechstgeschwindigkeit.
+ * Die Schranke ist nur zulaessig, wenn keine Kante schneller als maxSpeed befahren wird.
+ */
+public class CoordinateHeuristic implements Heuristic {
+
+    private static final double EARTH_RADIUS_KM = 6371.0;
+
+    private final RoadGraph graph;
+    private final double targetLatitude;
+    private final double targetLongitude;
+    // Minuten je Kilometer bei Hoechstgeschwindigkeit
+    private final double minutesPerKm;
+
+    public CoordinateHeuristic(RoadGraph graph, int target, double maxSpeed) {
+        this.graph = graph;
+        this.targetLatitude = graph.getLatitude(target);
+        this.targetLongitude = graph.getLongitude(target);
+        this.minutesPerKm = 60.0 / maxSpeed;
+    }
+
+    @Override
+    public double getLowerBound(int node) {
+        double latitude = this.graph.getLatitude(node);
+        double longitude = this.graph.getLongitude(node);
+        if (Double.isNaN(latitude) || Double.isNaN(longitude) || Double.isNaN(this.targetLatitude) || Double.isNaN(this.targetLongitude)) {
+            // Ohne Koordinaten ist keine Abschaetzung moeglich
+            return 0.0;
+        }
+        return this.distanceInKm(latitude, longitude) * this.minutesPerKm;
+    }
+
+    private double distanceInKm(double latitude, double longitude) {
+        // Grosskreisentfernung nach der Haversine-Formel
+        double deltaLatitude = Math.toRadians(this.targetLatitude - latitude);
+        double deltaLongitude = Math.toRadians(this.targetLongitude - longitude);
+        double a = Math.sin(deltaLatitude / 2) * Math.sin(deltaLatitude / 2)
+                + Math.cos(Math.toRadians(latitude)) * Math.cos(Math.toRadians(this.targetLatitude)) * Math.sin(deltaLongitude / 2) * Math.sin(deltaLongitude / 2);
+        return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+}
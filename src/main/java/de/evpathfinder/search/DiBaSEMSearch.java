@@ -0,0 +1,575 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.data.LabelStore;
+import de.evpathfinder.data.ParetoFront;
+import de.evpathfinder.data.Path;
+import de.evpathfinder.data.PriorityQueue;
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.data.VisitedNodeId;
+import de.evpathfinder.graph.RoadGraph;
+import de.evpathfinder.stats.SearchStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Zustand und Ablauf einer einzelnen DiBaSEM-Suche.
+ * Jeder Aufruf erzeugt eine eigene Instanz, sodass parallel laufende Suchen keinen Zustand teilen.
+ * Labels und Pareto-Fronten liegen in einem {@link LabelStore}, den {@link #search(int, int)} am Ende fuer die naechste Suche des Threads freigibt.
+ */
+public class DiBaSEMSearch {
+
+    private final RoadGraph graph;
+    private final double maxSoc;
+    private final double initialCharge;
+    private final double minChargingTime;
+    private final Heuristic heuristic;
+    private final PriorityQueue queue = new PriorityQueue();
+    // Gehaltene Labels je Nummer und Pareto-Fronten je Knoten
+    private final LabelStore store;
+    private long labelCount = 0;
+    // Zaehler fuer die Nummern der Labels, falls mehrere Threads Labels erzeugen, sonst null
+    private final AtomicLong versions;
+    private long settledLabels = 0;
+    // Zaehler der Instrumentierung, null falls diese ausgeschaltet ist
+    private SearchStatistics statistics = null;
+    // Schranke fuer die Energie bis zum Ziel oder zur naechsten Ladestation, null falls nicht nach Energie gefiltert wird
+    private EnergyBound energyBound = null;
+    // Grenzen der Suche, null falls ohne Grenzen gesucht wird
+    private SearchLimits limits = null;
+    // Toleranzen der approximativen Dominanz, null falls exakt gesucht wird
+    private Approximation approximation = null;
+    // Abgeschlossener Weg mit der kleinsten Schranke zum Ziel, der bei Erreichen einer Grenze geliefert wird
+    private Path bestPath = null;
+    private double bestPathLowerBound = Double.POSITIVE_INFINITY;
+
+    public DiBaSEMSearch(RoadGraph graph, double maxSoc, double initialCharge, double minChargingTime) {
+        this(graph, maxSoc, initialCharge, minChargingTime, Heuristic.NONE);
+    }
+
+    public DiBaSEMSearch(RoadGraph graph, double maxSoc, double initialCharge, double minChargingTime, Heuristic heuristic) {
+        this(graph, maxSoc, initialCharge, minChargingTime, heuristic, LabelStore.acquire(), null);
+    }
+
+    DiBaSEMSearch(RoadGraph graph, double maxSoc, double initialCharge, double minChargingTime, Heuristic heuristic, LabelStore store, AtomicLong versions) {
+        this.graph = graph;
+        this.maxSoc = maxSoc;
+        this.initialCharge = initialCharge;
+        this.minChargingTime = minChargingTime;
+        this.heuristic = heuristic;
+        this.store = store;
+        this.versions = versions;
+    }
+
+    public void setStatistics(SearchStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public void setEnergyBound(EnergyBound energyBound) {
+        this.energyBound = energyBound;
+    }
+
+    public void setLimits(SearchLimits limits) {
+        this.limits = limits;
+    }
+
+    public void setApproximation(Approximation approximation) {
+        this.approximation = approximation;
+    }
+
+    public Path search(int start, int end) {
+        try {
+            return this.searchPath(start, end);
+        } finally {
+            this.release();
+        }
+    }
+
+    public void release() {
+        // Gibt den Speicher der Labels frei, danach kann die Suche nicht fortgesetzt werden. Die gelieferten Wege bleiben gueltig.
+        this.store.release();
+    }
+
+    private Path searchPath(int start, int end) {
+        // Initialisierung des Algorithmus
+        this.initialize(start);
+        // Mit Heuristik kann ein spaeter abgeschlossenes Label durch nachtraegliches Umverteilen der Ladezeit noch schneller am Ziel ankommen.
+        // Die Suche endet daher erst, wenn kein wartendes Label mehr schneller als der beste bisher abgeschlossene Weg zum Ziel sein kann.
+        Path bestTarget = null;
+
+        while (!this.queue.isEmpty()) {
+            if (bestTarget != null && this.queue.peekPriority() >= bestTarget.getLastNode().travelTime()) {
+                return bestTarget;
+            }
+            if (this.isLimitExceeded()) {
+                // Eine Grenze wurde erreicht, statt weiterzusuchen wird der beste bisher gefundene Weg geliefert
+                return this.getBestPath(end);
+            }
+
+            // Aktuell bearbeiteter Knoten = u aus queue holen
+            Path pathOfU = this.poll();
+            if (this.limits != null) {
+                this.updateBestPath(pathOfU);
+            }
+
+            // Falls u der Zielknoten ist, wird die Suche beendet
+            if (pathOfU.getLastNode().id().getNode() == end) {
+                // Endknoten gefunden. Dessen Nachbarn muessen nicht mehr ueberprueft werden.
+                if (this.heuristic == Heuristic.NONE) {
+                    return pathOfU;
+                }
+                if (bestTarget == null || pathOfU.getLastNode().travelTime() < bestTarget.getLastNode().travelTime()) {
+                    bestTarget = pathOfU;
+                }
+                continue;
+            }
+
+            this.expand(pathOfU);
+        }
+        // Ohne abgeschlossenen Weg zum Ziel konnte kein Pfad gefunden werden
+        return bestTarget;
+    }
+
+    public void initialize(int start) {
+        // Erstelle den Weg des Startknotens mit diesem als einzigem VisitedNode
+        VisitedNode startNode = this.createVisitedNode(start, 0.0, this.initialCharge, 0.0);
+        // Fuege ausschließlich den Startknoten zur Priority Queue hinzu
+        this.addLabel(startNode, new Path(startNode, this.isStation(start)));
+    }
+
+    boolean isLimitExceeded() {
+        // Vor dem ersten abgeschlossenen Label wird nicht geprueft, sodass der Startknoten immer abgearbeitet wird
+        return this.limits != null && this.settledLabels > 0 && this.limits.isExceeded(this.settledLabels, this.getCreatedLabels(), this.store.size());
+    }
+
+    public boolean isFinished() {
+        return this.queue.isEmpty();
+    }
+
+    public Path poll() {
+        this.settledLabels++;
+        if (this.statistics != null) {
+            this.statistics.queuePolled();
+        }
+        this.heuristic.onLabelSettled();
+        return this.store.get(this.queue.poll());
+    }
+
+    public long getSettledLabels() {
+        return this.settledLabels;
+    }
+
+    void collectQueued(double maxPriorityAboveMin, int limit, List<Path> labels) {
+        // Haengt bis zu limit wartende Labels an, deren Prioritaet hoechstens maxPriorityAboveMin ueber der kleinsten liegt
+        if (this.queue.isEmpty()) {
+            return;
+        }
+        List<VisitedNodeId> nodeIds = new ArrayList<>();
+        this.queue.collect(this.queue.peekPriority() + maxPriorityAboveMin, limit, nodeIds);
+        for (VisitedNodeId nodeId : nodeIds) {
+            labels.add(this.store.get(nodeId));
+        }
+    }
+
+    boolean isQueued(VisitedNodeId nodeId) {
+        return this.queue.contains(nodeId);
+    }
+
+    LabelStore getStore() {
+        return this.store;
+    }
+
+    public void expand(Path pathOfU) {
+        // Fuer alle Kanten, die von u ausgehen, das Label von v bestimmen und pruefen, ob es von einem anderen Label von v dominiert wird
+        int u = pathOfU.getLastNode().id().getNode();
+        for (int edgeFromU = this.graph.getFirstEdge(u), lastEdgeFromU = this.graph.getEndEdge(u); edgeFromU < lastEdgeFromU; edgeFromU++) {
+            this.addCandidate(this.relax(pathOfU, edgeFromU));
+        }
+    }
+
+    Path[] relaxAll(Path pathOfU) {
+        // Die Wege zu allen Nachbarn von u in der Reihenfolge der Kanten, ohne die Fronten zu veraendern. null, falls ein Nachbar so nicht erreichbar ist.
+        int u = pathOfU.getLastNode().id().getNode();
+        int firstEdgeFromU = this.graph.getFirstEdge(u);
+        Path[] candidates = new Path[this.graph.getEndEdge(u) - firstEdgeFromU];
+        for (int i = 0; i < candidates.length; i++) {
+            candidates[i] = this.relax(pathOfU, firstEdgeFromU + i);
+        }
+        return candidates;
+    }
+
+    void addCandidate(Path pathOfV) {
+        // Fuegt den Weg zu einem Nachbarn als Label hinzu, falls er weder verworfen noch dominiert wird
+        if (pathOfV != null && this.energyBound != null && !this.energyBound.isSufficient(pathOfV.getLastNode().id().getNode(), this.getMaxEnergy(pathOfV))) {
+            // Von v aus ist weder das Ziel noch eine Ladestation erreichbar, auch wenn zuvor nachtraeglich voll geladen wird
+            pathOfV = null;
+            if (this.statistics != null) {
+                this.statistics.labelPruned();
+            }
+        }
+        // Ueberpruefe, ob der neue Zustand von v schlechter als irgendein anderer Zustand in V ist
+        if (pathOfV != null && this.checkIfCurrentNodeIsBetter(pathOfV.getLastNode())) {
+            this.addLabel(pathOfV.getLastNode(), pathOfV);
+        } else if (pathOfV != null && this.statistics != null) {
+            this.statistics.labelPruned();
+        }
+    }
+
+    private Path relax(Path pathOfU, int edgeFromU) {
+        // Liefert den Weg zum Nachbarn v ueber die Kante edgeFromU, inklusive eventuell notwendiger Ladevorgaenge, oder null falls v so nicht erreichbar ist
+        VisitedNode u = pathOfU.getLastNode();
+        // v = Nachbar am Ende der Kante
+        int v = this.graph.getTarget(edgeFromU);
+
+        // speichern der Eigenschaften der Kante in Variablen
+        double duration = this.graph.getDuration(edgeFromU);
+        double consumption = this.graph.getConsumption(edgeFromU);
+
+        // Berechnungen der entsprechenden Reisezeit und des Ladestands bei v
+        double currentTravelTime = u.travelTime() + duration;
+        double currentSoc = u.soc() - consumption;
+
+        // Ueberpruefung, ob der Ladestand bei v groesser oder kleiner als 0 ist
+        if (currentSoc < 0) {
+            // Ladestand bei v kleiner als 0, nicht genuegend Energie vorhanden, um nach jetzigem Stand erreichen zu koennen
+            if (this.statistics != null) {
+                this.statistics.rechargeBacktracked();
+            }
+
+            // Letzte Ladestation erhalten und Initialwerte fuer die darauffolgenden Ueberpruefungen setzen
+            Path oldLastStation = pathOfU.getLastStation();
+            Path lastStation = oldLastStation;
+            double lastStationChargingTime = 0.0;
+            double totalConsumption = 0.0;
+            boolean lastStationChargedEnough = true;
+
+            // Ueberpruefung, ob bisher bei einer Ladestation geladen wurde, d.h. ob eine Ladestation gefunden wurde
+            if (lastStation != null) {
+                // Falls bereits bei einer Ladestation geladen wurde
+                if (lastStation.getLastNode().soc() >= this.maxSoc) {
+                    // Falls der Ladestand bei dieser Ladestation bereits auf 100 % ist, setze Flag, dass spaeter eine weitere Ladestation gefunden werden muss
+                    lastStationChargedEnough = false;
+                }
+
+                // Der Gesamtverbrauch von der Ladestation bis u ist im Label von u gespeichert, sodass nur noch die Kante nach v hinzukommt
+                totalConsumption = pathOfU.getConsumptionSinceLastStation() + consumption;
+
+                // Ueberprufung, ob der Gesamtverbrauch groesser als die maximale Akkukapazitaet ist
+                if (totalConsumption > this.maxSoc) {
+                    // Falls der Gesamtverbrauch groeßer als die maximale Akkukapazitaet ist, reicht das Laden bei dieser Ladestation nicht aus, um v erreichen zu koennen
+                    lastStationChargedEnough = false;
+                } else {
+                    // Laden bei dieser Ladestation reicht aus, um v erreichen zu koennen, weshalb die neue Ladezeit fuer diese Ladestation berechnet und in einer Variable gespeichert wird
+                    double socWithOutCharging = this.getSocBeforeStation(lastStation);
+                    lastStationChargingTime = calculateAdditionalChargeTime(socWithOutCharging, totalConsumption, this.graph.getChargingPower(lastStation.getLastNode().id().getNode()));
+                }
+            }
+
+            boolean newLastStationAdded = false;
+            // Ueberpruefung, ob eine Ladestation gefunden wurde, oder ob bei einer bereits geladenen Ladestation ausreichend nachgeladen wurde
+            if (lastStation == null || !lastStationChargedEnough) {
+                // Bisher keine Ladestation gefunden oder es konnte bei einer bereits geladenen Ladestation nicht ausreichend zusaetzlich geladen werden
+
+                // Suche nach allen Ladestationen von u bis p und speichere diese in lastStations mit zu ladender Energiemenge
+                // Jedes Label zeigt auf die letzte Ladestation davor, sodass nur die Ladestationen des Abschnitts besucht werden.
+                // Der Verbrauch von einer Ladestation bis v ergibt sich aus der Differenz der Gesamtverbraeuche der Labels.
+                List<Path> lastStations = new ArrayList<>();
+                List<Double> necessarySocs = new ArrayList<>();
+                for (Path current = pathOfU.getLastStationCandidate(); current != null && current != oldLastStation; current = current.getParent() == null ? null : current.getParent().getLastStationCandidate()) {
+                    double necessarySoc = consumption + (pathOfU.getConsumption() - current.getConsumption());
+                    if (necessarySoc < this.maxSoc) {
+                        // Falls noch ausreichend Energie an dieser Ladestation geladen werden kann, fuege diese Ladestation zur Auswahl hinzu
+                        lastStations.add(current);
+                        necessarySocs.add(necessarySoc);
+                    }
+                }
+                // Ohne neue Ladezeit bleibt, wie beim schrittweisen Aufsummieren, der Verbrauch des gesamten Abschnitts bis v
+                totalConsumption = consumption + (pathOfU.getConsumption() - (oldLastStation == null ? 0.0 : oldLastStation.getConsumption()));
+
+                lastStation = null;
+                // Gehe gefundene Ladestationen durch
+                double newChargingTimeLastStation = Double.MAX_VALUE;
+                for (int i = 0; i < lastStations.size(); i++) {
+                    Path w = lastStations.get(i);
+                    double necessarySoc = necessarySocs.get(i);
+                    if (necessarySoc > this.maxSoc) {
+                        // Falls Gesamtverbrauch (notwendige Energiemenge) groesser als die maximale Akkukapazitaet ist, kann bei dieser und allen folgenden Ladestation nicht geladen werden
+                        break;
+                    }
+                    if (w.getLastNode().soc() > necessarySoc) {
+                        // Falls bei dieser Ladestation der Ladestand bereits groesser als die notwendige Energiemenge ist, wird direkt diese Ladestation gewaehlt
+                        lastStation = w;
+                        lastStationChargingTime = 0.0;
+                        totalConsumption = necessarySoc;
+                        newLastStationAdded = true;
+                        break;
+                    }
+                    // Berechne die neue Ladezeit bei dieser Ladestation
+                    double tempNewChargingTimeLastStation = calculateAdditionalChargeTime(w.getLastNode().soc(), necessarySoc, this.graph.getChargingPower(w.getLastNode().id().getNode()));
+                    if (tempNewChargingTimeLastStation < newChargingTimeLastStation) {
+                        // Falls die Ladezeit der aktuellen Ladestation kleiner ist, als die bisher beste Ladezeit, wird diese Ladestation als neue beste Ladestation gewaehlt
+                        newChargingTimeLastStation = tempNewChargingTimeLastStation;
+                        lastStation = w;
+                        lastStationChargingTime = newChargingTimeLastStation;
+                        totalConsumption = necessarySoc;
+                        newLastStationAdded = true;
+                    }
+                }
+            }
+
+            if (lastStation == null) {
+                // Es konnte keine Ladestation gefunden werden, weshalb v ueber diesen Weg nicht erreichbar ist
+                return null;
+            }
+
+            if (this.minChargingTime > lastStationChargingTime && lastStation.getLastNode().soc() < totalConsumption) {
+                // Falls die berechnete Ladestation kleiner als die gewuenschte Minimalladezeit ist und tatsaechlich geladen werden muss, dann setze die Ladezeit auf die gewuenschte Ladezeit
+                lastStationChargingTime = this.minChargingTime;
+            }
+
+            // Erstelle den neuen Weg nach v. Der Weg bis vor die erste veraenderte Ladestation wird unveraendert uebernommen.
+            Path newPath;
+            // Ueberpruefe, ob bisher eine Ladestation existiert hat und ob eine neue Ladestation hinzugefuegt wurde
+            if (oldLastStation != null && newLastStationAdded) {
+                // Falls bisher eine Ladestation existiert hat und eine neue Ladestation hinzugefuegt wurde
+                // Der Verbrauch von bisher letzter Ladestation zu neuer Ladestation ist im Label der neuen Ladestation gespeichert
+                double consumptionFromOldStationToNewStation = lastStation.getConsumptionSinceLastStation();
+                // Erstelle Werte fuer die Ladestation bei der bisher zuletzt geladen wurde und erstelle ein neues Label fuer diese
+                int oldLastStationNode = oldLastStation.getLastNode().id().getNode();
+                double oldLastStationSocWithoutCharging = this.getSocBeforeStation(oldLastStation);
+                double oldLastStationChargingTime = calculateAdditionalChargeTime(oldLastStationSocWithoutCharging, consumptionFromOldStationToNewStation, this.graph.getChargingPower(oldLastStationNode));
+                if (oldLastStationChargingTime < this.minChargingTime) {
+                    oldLastStationChargingTime = this.minChargingTime;
+                }
+                newPath = this.appendStation(oldLastStation.getParent(), oldLastStation, oldLastStationChargingTime);
+                // Fuege alle Knoten von der zuletzt geladenen Ladestation bis vor die neu hinzgefuegte Ladestation zum Weg hinzu
+                newPath = this.appendRecalculated(newPath, oldLastStation, lastStation.getParent());
+                // Da an der bisherigen Ladestation nun weniger geladen wird, kommt das Fahrzeug mit weniger Energie an der neuen Ladestation an.
+                // Deren Ladezeit muss daher mit dem neuen Ladestand berechnet werden, sonst reicht die Energie nicht bis v.
+                double socBeforeNewStation = newPath.getLastNode().soc() - lastStation.getEdgeConsumption();
+                lastStationChargingTime = calculateAdditionalChargeTime(socBeforeNewStation, totalConsumption, this.graph.getChargingPower(lastStation.getLastNode().id().getNode()));
+                if (this.minChargingTime > lastStationChargingTime && socBeforeNewStation < totalConsumption) {
+                    lastStationChargingTime = this.minChargingTime;
+                }
+            } else {
+                // Falls bisher keine Ladestation existiert hat oder keine neue Ladestation hinzugefuegt wurde
+                // Uebernehme alle Knoten start bis zur neuen Ladestation von dem Weg nach u
+                newPath = lastStation.getParent();
+            }
+
+            // Erstelle ein neues Label fuer die neue Ladestation
+            newPath = this.appendStation(newPath, lastStation, lastStationChargingTime);
+            double newSocV = newPath.getLastNode().soc() - totalConsumption;
+
+            // Fuege alle Knoten mit den angepassten Werten von der Ladestation an bis einschließlich u zum Weg hinzu
+            newPath = this.appendRecalculated(newPath, lastStation, pathOfU);
+
+            // Erstelle ein neues VisitedNode-Objekt fuer v
+            VisitedNode newU = newPath.getLastNode();
+            // Berechne die neue Reisezeit von Start nach v
+            double newTravelTimeV = newU.travelTime() + duration;
+            VisitedNode visitedNodeV = this.createVisitedNode(v, newTravelTimeV, newSocV, 0.0);
+            // Vervollstaendige den Weg durch Hinzufuegen von v
+            return newPath.append(visitedNodeV, duration, consumption, this.isStation(v));
+        }
+        else {
+            // Ladestand bei v groesser als 0, genuegend Energie vorhanden, um v erreichen zu koennen, sodass nicht geladen werden muss
+            if (this.isDominated(v, currentTravelTime, currentSoc)) {
+                // Dominierte Labels werden verworfen, bevor Objekte fuer sie erzeugt werden
+                if (this.statistics != null) {
+                    this.statistics.labelPruned();
+                }
+                return null;
+            }
+
+            // Erstelle ein VisitedNode-Objekt fuer v
+            VisitedNode visitedNodeV = this.createVisitedNode(v, currentTravelTime, currentSoc, 0.0);
+            // Erstelle einen neuen Pfad fuer den Knoten v, der sich den Weg nach u mit dessen Label teilt
+            return pathOfU.append(visitedNodeV, duration, consumption, this.isStation(v));
+        }
+    }
+
+    private void updateBestPath(Path path) {
+        // Bei gleicher Schranke bleibt der zuerst abgeschlossene Weg, ohne Heuristik also der Startknoten
+        double lowerBound = this.heuristic.getLowerBound(path.getLastNode().id().getNode());
+        if (this.bestPath == null || lowerBound < this.bestPathLowerBound) {
+            this.bestPath = path;
+            this.bestPathLowerBound = lowerBound;
+        }
+    }
+
+    private Path getBestPath(int end) {
+        // Das schnellste Label des Zielknotens ist ein vollstaendiger, aber nicht unbedingt der schnellste Weg.
+        // Wurde der Zielknoten noch nicht erreicht, wird der Teilweg geliefert, der laut Schranke am naechsten am Ziel endet.
+        ParetoFront paretoFront = this.store.getFront(end);
+        VisitedNode fastest = paretoFront == null ? null : paretoFront.getFastest();
+        return fastest == null ? this.bestPath : this.store.get(fastest.id());
+    }
+
+    private boolean checkIfCurrentNodeIsBetter(VisitedNode visitedNode) {
+        return !this.isDominated(visitedNode.id().getNode(), visitedNode.travelTime(), visitedNode.soc());
+    }
+
+    private boolean isDominated(int node, double travelTime, double soc) {
+        // Der aktuelle Knoten ist nur dann schlechter, wenn ein Label desselben Knotens eine kleinere Reisezeit und einen groesseren SoC hat
+        ParetoFront paretoFront = this.store.getFront(node);
+        if (paretoFront == null) {
+            return false;
+        }
+        if (paretoFront.isDominated(travelTime, soc)) {
+            return true;
+        }
+        if (this.approximation != null && paretoFront.isDominated(travelTime + this.approximation.getEpsilonTime(), soc - this.approximation.getEpsilonSoc())) {
+            // Ein Label desselben Knotens ist hoechstens um die Toleranzen schlechter und ersetzt dieses Label
+            this.approximation.labelMerged();
+            return true;
+        }
+        return false;
+    }
+
+    private void addLabel(VisitedNode visitedNode, Path path) {
+        // Die Queue ist nach Reisezeit plus unterer Schranke der Restreisezeit sortiert (A*), ohne Heuristik nach der Reisezeit
+        double lowerBound = this.heuristic.getLowerBound(visitedNode.id().getNode());
+        if (lowerBound == Double.POSITIVE_INFINITY || (this.limits != null && this.getMinTravelTime(path) + lowerBound > this.limits.getUpperBound())) {
+            // Der Zielknoten ist von diesem Knoten aus nicht erreichbar, oder nur langsamer als auf dem bereits bekannten Weg.
+            // Da Reisezeiten durch nachtraegliches Laden nur wachsen, gilt das auch fuer alle Nachfolger.
+            if (this.statistics != null) {
+                this.statistics.labelPruned();
+            }
+            return;
+        }
+        // Fuege das Label zur Pareto-Front seines Knotens hinzu und entferne alle dadurch dominierten Labels aus dem Speicher und der Queue
+        ParetoFront paretoFront = this.store.getOrCreateFront(visitedNode.id().getNode());
+        int dominatedCount = paretoFront.add(visitedNode);
+        for (int i = 0; i < dominatedCount; i++) {
+            VisitedNodeId dominated = paretoFront.getDominated(i).id();
+            this.store.remove(dominated);
+            this.queue.remove(dominated);
+        }
+        if (this.approximation != null && !this.limitFront(paretoFront, visitedNode)) {
+            return;
+        }
+        this.store.put(visitedNode.id(), path);
+        if (this.statistics != null) {
+            this.statistics.labelsDominated(dominatedCount);
+            this.statistics.labelsStored(this.store.size());
+        }
+        this.queue.put(visitedNode.id(), this.heuristic == Heuristic.NONE ? visitedNode.travelTime() : this.getMinTravelTime(path) + lowerBound);
+    }
+
+    private double getMinTravelTime(Path path) {
+        // Kleinste Reisezeit, die ein Nachfolger dieses Labels bis zu dessen Knoten haben kann. Wird spaeter an einer weiteren Ladestation geladen,
+        // laedt die letzte Ladestation des Weges nur noch bis dorthin, hoechstens aber die Mindestladezeit weniger als bisher.
+        // Alle anderen Aenderungen verlaengern die Reisezeit, daher ist Reisezeit plus Schranke erst mit diesem Abzug eine untere Schranke.
+        Path lastStation = path.getLastStation();
+        double reducibleChargingTime = lastStation == null ? 0.0 : Math.max(0.0, lastStation.getLastNode().chargingTime() - this.minChargingTime);
+        return path.getLastNode().travelTime() - reducibleChargingTime;
+    }
+
+    private boolean limitFront(ParetoFront paretoFront, VisitedNode visitedNode) {
+        // Haelt die Front bei hoechstens maxLabelsPerNode Labels und liefert false, falls dabei das neue Label selbst entfernt wurde
+        if (this.isStation(visitedNode.id().getNode())) {
+            this.approximation.stationReached(this.graph.getChargingPower(visitedNode.id().getNode()));
+        }
+        if (!this.approximation.isFull(paretoFront.size())) {
+            return true;
+        }
+        VisitedNode dropped = paretoFront.removeMostRedundant();
+        this.approximation.labelDropped();
+        if (this.statistics != null) {
+            this.statistics.labelPruned();
+        }
+        if (dropped == visitedNode) {
+            return false;
+        }
+        this.store.remove(dropped.id());
+        this.queue.remove(dropped.id());
+        return true;
+    }
+
+    private VisitedNode createVisitedNode(int node, double travelTime, double soc, double chargingTime) {
+        // Die Version eines Labels wird je Suche fortlaufend vergeben
+        if (this.statistics != null) {
+            this.statistics.labelCreated();
+        }
+        long version = this.versions == null ? ++this.labelCount : this.versions.incrementAndGet();
+        return new VisitedNode(new VisitedNodeId(this.graph.getId(node), node, version), travelTime, soc, chargingTime);
+    }
+
+    private long getCreatedLabels() {
+        return this.versions == null ? this.labelCount : this.versions.get();
+    }
+
+    private boolean isStation(int node) {
+        return this.graph.getChargingPower(node) > 0;
+    }
+
+    private double getMaxEnergy(Path path) {
+        // Hoechster Ladestand am Ende des Weges, falls an dessen letzter Ladestation nachtraeglich voll geladen wird.
+        // Jedes Nachladen an einer frueheren Ladestation fuehrt wegen des laengeren Abschnitts zu einem geringeren Ladestand.
+        Path station = path.getLastStationCandidate();
+        double soc = path.getLastNode().soc();
+        return station == null ? soc : Math.max(soc, this.maxSoc - (path.getConsumption() - station.getConsumption()));
+    }
+
+    private double getSocBeforeStation(Path station) {
+        // Ladestand bei Ankunft an der Ladestation vor dem Laden. Ist die Ladestation der Startknoten, entspricht dieser der Anfangsladung
+        Path before = station.getParent();
+        if (before == null) {
+            return this.initialCharge;
+        }
+        return before.getLastNode().soc() - station.getEdgeConsumption();
+    }
+
+    private Path appendStation(Path before, Path station, double chargingTime) {
+        // Erstellt ein neues Label der Ladestation des Labels station, an der chargingTime Minuten geladen wird, und haengt es an den Weg before an.
+        // Der letzte Knoten von before ist derselbe wie der Vorgaenger von station, sodass die Kante im Label von station gespeichert ist.
+        int node = station.getLastNode().id().getNode();
+        if (before == null) {
+            // Die Ladestation ist der Startknoten, es wird direkt zu Beginn mit der Anfangsladung geladen
+            double socAfterCharging = calculateNewSoc(this.maxSoc, this.initialCharge, chargingTime, this.graph.getChargingPower(node));
+            return new Path(this.createVisitedNode(node, chargingTime, socAfterCharging, chargingTime), true);
+        }
+        VisitedNode lastNodeBeforeStation = before.getLastNode();
+        double travelTime = lastNodeBeforeStation.travelTime() + station.getEdgeDuration() + chargingTime;
+        double socWithoutCharging = lastNodeBeforeStation.soc() - station.getEdgeConsumption();
+        double socAfterCharging = calculateNewSoc(this.maxSoc, socWithoutCharging, chargingTime, this.graph.getChargingPower(node));
+        return before.append(this.createVisitedNode(node, travelTime, socAfterCharging, chargingTime), station.getEdgeDuration(), station.getEdgeConsumption(), true);
+    }
+
+    private Path appendRecalculated(Path newPath, Path from, Path to) {
+        // Haengt alle Knoten nach from bis einschliesslich to an newPath an und berechnet Reisezeit und Ladestand ab newPath neu.
+        // Reisezeit und Verbrauch der Kanten stehen in den bisherigen Labels, sodass der Graph nicht gelesen werden muss.
+        List<Path> segment = new ArrayList<>();
+        for (Path current = to; current != from; current = current.getParent()) {
+            segment.add(current);
+        }
+        for (int i = segment.size() - 1; i >= 0; i--) {
+            VisitedNode node = newPath.getLastNode();
+            Path successor = segment.get(i);
+            VisitedNode visitedNode = this.createVisitedNode(successor.getLastNode().id().getNode(), node.travelTime() + successor.getEdgeDuration(),
+                    node.soc() - successor.getEdgeConsumption(), successor.getLastNode().chargingTime());
+            newPath = newPath.append(visitedNode, successor.getEdgeDuration(), successor.getEdgeConsumption(), successor.getLastStationCandidate() == successor);
+        }
+        return newPath;
+    }
+
+    public static double calculateNewSoc(double maxSoc, double soc, double chargingTime, double chargingPower) {
+        // Berechne aus dem aktuellen SoC und der chargingTime den neuen Ladestand in kWh abhaengig von Ladeleistung und maximaler Akkukapazitaet
+        double chargedEnergy = (chargingTime / 60.0) * chargingPower;
+        chargedEnergy = Math.round(chargedEnergy * 100.0) / 100.0;
+        double newSoc = soc + chargedEnergy;
+        return Math.min(newSoc, maxSoc);
+    }
+
+    public static double calculateAdditionalChargeTime(double currentSoc, double necessarySoc, double chargingPower) {
+        // Berechne die benoetigte Ladezeit, um von dem aktuellen SoC auf den neuen SoC zu gelangen in min abhaengig von der Ladeleistung
+        if (chargingPower == 0.0 || necessarySoc < currentSoc)
+            return 0.0;
+        double necessaryChargedEnergy = necessarySoc - currentSoc;
+        double chargingTime = (necessaryChargedEnergy / chargingPower) * 60.0;
+        chargingTime = Math.round(chargingTime * 100.0) / 100.0;
+        return chargingTime;
+    }
+}
@@ -0,0 +1,36 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.Arrays;
+
+/**
+ * Untere Schranke fuer die Energie, die von einem Knoten aus mindestens benoetigt wird, um das Ziel oder die naechste Ladestation zu erreichen.
+ * Eine {@link BackwardPotential} ueber den Verbrauch beginnt gleichzeitig am Ziel und an allen Ladestationen und wird nur so weit fortgesetzt,
+ * wie es die abgefragten Ladestaende erfordern. Reicht die Energie eines Labels nicht fuer diese Schranke, kann es weder das Ziel
+ * noch eine weitere Ladestation erreichen und wird verworfen.
+ */
+public class EnergyBound {
+
+    // Toleranz fuer Rundungsfehler, da Schranke und Ladestand in unterschiedlicher Reihenfolge aufsummiert werden
+    private static final double EPSILON = 1e-9;
+
+    private final BackwardPotential backwardPotential;
+
+    public EnergyBound(RoadGraph graph, int target) {
+        int[] stations = graph.getStations();
+        int[] targets = Arrays.copyOf(stations, stations.length + 1);
+        targets[stations.length] = target;
+        this.backwardPotential = new BackwardPotential(graph, targets, graph::getConsumption);
+    }
+
+    public boolean isSufficient(int node, double energy) {
+        // Die Rueckwaertssuche wird fortgesetzt, bis der Knoten abgeschlossen ist oder ihr Radius die verfuegbare Energie uebersteigt
+        while (!this.backwardPotential.isSettled(node) && this.backwardPotential.getLowerBound(node) <= energy + EPSILON) {
+            if (!this.backwardPotential.settleNext()) {
+                break;
+            }
+        }
+        return this.backwardPotential.getLowerBound(node) <= energy + EPSILON;
+    }
+}
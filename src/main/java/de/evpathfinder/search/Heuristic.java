@@ -0,0 +1,17 @@
+package de.evpathfinder.search;
+
+/**
+ * Untere Schranke fuer die verbleibende Reisezeit von einem Knoten zum Zielknoten.
+ * Die Schranke darf die tatsaechliche Reisezeit nie ueberschaetzen, sonst aendern sich die gefundenen Routen.
+ */
+public interface Heuristic {
+
+    Heuristic NONE = node -> 0.0;
+
+    // Liefert Double.POSITIVE_INFINITY, falls der Zielknoten vom Knoten aus nicht erreichbar ist
+    double getLowerBound(int node);
+
+    // Wird aufgerufen, sobald die Suche ein Label aus der Queue geholt hat
+    default void onLabelSettled() {
+    }
+}
@@ -0,0 +1,72 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.GraphSnapshot;
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.Arrays;
+
+/**
+ * ALT-Schranke (A*, Landmarks, Dreiecksungleichung) ueber die mit {@link Landmarks} vorberechneten Reisezeiten.
+ * Fuer jede Landmark L gilt d(v, t) >= d(L, t) - d(L, v) und d(v, t) >= d(v, L) - d(t, L).
+ */
+public class LandmarkHeuristic implements Heuristic {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final RoadGraph graph;
+    private final double[] targetDistancesFrom;
+    private final double[] targetDistancesTo;
+    // Die Schranke haengt nur vom Knoten ab und wird je Suche einmal berechnet, Double.NaN falls noch nicht berechnet.
+    // Auf dem Snapshot hat das Array von Anfang an die Knotenanzahl und waechst nie, sodass die Threads der parallelen Suche es ohne Sperre teilen:
+    // ein Thread sieht entweder NaN oder den fertigen Wert und berechnet ihn schlimmstenfalls ein zweites Mal.
+    private double[] lowerBoundOfNode;
+
+    public LandmarkHeuristic(RoadGraph graph, int target) {
+        this.graph = graph;
+        this.targetDistancesFrom = graph.getLandmarkDistancesFrom(target);
+        this.targetDistancesTo = graph.getLandmarkDistancesTo(target);
+        this.lowerBoundOfNode = new double[graph instanceof GraphSnapshot snapshot ? snapshot.getNodeCount() : INITIAL_CAPACITY];
+        Arrays.fill(this.lowerBoundOfNode, Double.NaN);
+    }
+
+    @Override
+    public double getLowerBound(int node) {
+        if (this.targetDistancesFrom == null || this.targetDistancesTo == null) {
+            // Fuer den Zielknoten wurden keine Landmarks berechnet
+            return 0.0;
+        }
+        if (node >= this.lowerBoundOfNode.length) {
+            // Der Store vergibt Knotenindizes erst beim Lesen, die parallele Suche laeuft nur auf dem Snapshot
+            int previous = this.lowerBoundOfNode.length;
+            this.lowerBoundOfNode = Arrays.copyOf(this.lowerBoundOfNode, Math.max(node + 1, previous * 2));
+            Arrays.fill(this.lowerBoundOfNode, previous, this.lowerBoundOfNode.length, Double.NaN);
+        }
+        double lowerBound = this.lowerBoundOfNode[node];
+        if (Double.isNaN(lowerBound)) {
+            lowerBound = this.calculateLowerBound(node);
+            this.lowerBoundOfNode[node] = lowerBound;
+        }
+        return lowerBound;
+    }
+
+    private double calculateLowerBound(int node) {
+        double[] distancesFrom = this.graph.getLandmarkDistancesFrom(node);
+        double[] distancesTo = this.graph.getLandmarkDistancesTo(node);
+        if (distancesFrom == null || distancesTo == null || distancesFrom.length != this.targetDistancesFrom.length) {
+            return 0.0;
+        }
+        double lowerBound = 0.0;
+        for (int landmark = 0; landmark < distancesFrom.length; landmark++) {
+            // Nicht erreichbare Landmarks (unendliche Entfernungen) liefern keine verwertbare Schranke und werden uebersprungen
+            double forward = this.targetDistancesFrom[landmark] - distancesFrom[landmark];
+            if (!Double.isNaN(forward) && !Double.isInfinite(distancesFrom[landmark]) && forward > lowerBound) {
+                lowerBound = forward;
+            }
+            double backward = distancesTo[landmark] - this.targetDistancesTo[landmark];
+            if (!Double.isNaN(backward) && !Double.isInfinite(this.targetDistancesTo[landmark]) && backward > lowerBound) {
+                lowerBound = backward;
+            }
+        }
+        return lowerBound;
+    }
+}
@@ -0,0 +1,121 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.GraphSnapshot;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Vorberechnung der ALT-Landmarks. Fuer jede Landmark werden die kuerzesten Reisezeiten (ohne Laden) von der Landmark
+ * zu allen Knoten und von allen Knoten zur Landmark bestimmt. Die Landmarks werden nach dem Farthest-Verfahren gewaehlt,
+ * d.h. jede weitere Landmark ist der Knoten, der von den bisherigen Landmarks am weitesten entfernt ist.
+ */
+public class Landmarks {
+
+    private final int[] landmarks;
+    // Reisezeiten je Landmark und Knoten, Double.POSITIVE_INFINITY falls nicht erreichbar
+    private final double[][] distancesFromLandmark;
+    private final double[][] distancesToLandmark;
+
+    private Landmarks(int[] landmarks, double[][] distancesFromLandmark, double[][] distancesToLandmark) {
+        this.landmarks = landmarks;
+        this.distancesFromLandmark = distancesFromLandmark;
+        this.distancesToLandmark = distancesToLandmark;
+    }
+
+    public static Landmarks compute(GraphSnapshot graph, int count) {
+        int nodeCount = graph.getNodeCount();
+        int[] landmarks = new int[Math.min(count, nodeCount)];
+        double[][] distancesFrom = new double[landmarks.length][];
+        double[][] distancesTo = new double[landmarks.length][];
+        // Minimale Reisezeit jedes Knotens zu einer der bisher gewaehlten Landmarks
+        double[] nearestLandmark = new double[nodeCount];
+        Arrays.fill(nearestLandmark, Double.POSITIVE_INFINITY);
+
+        // Die erste Landmark ist der am weitesten vom ersten Knoten entfernte Knoten
+        int next = nodeCount == 0 ? -1 : farthest(shortestPaths(graph, 0, true), null);
+        int found = 0;
+        while (found < landmarks.length && next >= 0) {
+            landmarks[found] = next;
+            distancesFrom[found] = shortestPaths(graph, next, true);
+            distancesTo[found] = shortestPaths(graph, next, false);
+            for (int node = 0; node < nodeCount; node++) {
+                nearestLandmark[node] = Math.min(nearestLandmark[node], distancesFrom[found][node]);
+            }
+            found++;
+            next = farthest(nearestLandmark, distancesFrom[0]);
+        }
+        return new Landmarks(Arrays.copyOf(landmarks, found), Arrays.copyOf(distancesFrom, found), Arrays.copyOf(distancesTo, found));
+    }
+
+    public int getCount() {
+        return this.landmarks.length;
+    }
+
+    public int getLandmark(int index) {
+        return this.landmarks[index];
+    }
+
+    public double[] getDistancesFrom(int node) {
+        // Reisezeiten von allen Landmarks zu diesem Knoten, wie sie am Knoten gespeichert werden
+        double[] distances = new double[this.landmarks.length];
+        for (int landmark = 0; landmark < this.landmarks.length; landmark++) {
+            distances[landmark] = this.distancesFromLandmark[landmark][node];
+        }
+        return distances;
+    }
+
+    public double[] getDistancesTo(int node) {
+        double[] distances = new double[this.landmarks.length];
+        for (int landmark = 0; landmark < this.landmarks.length; landmark++) {
+            distances[landmark] = this.distancesToLandmark[landmark][node];
+        }
+        return distances;
+    }
+
+    private static int farthest(double[] distances, double[] reachable) {
+        // Liefert den Knoten mit der groessten endlichen Entfernung, oder -1 falls alle Knoten bereits Entfernung 0 haben
+        int farthest = -1;
+        double maxDistance = 0.0;
+        for (int node = 0; node < distances.length; node++) {
+            if (reachable != null && Double.isInfinite(reachable[node])) {
+                // Nicht von der ersten Landmark erreichbare Knoten liegen in einer anderen Komponente
+                continue;
+            }
+            if (!Double.isInfinite(distances[node]) && distances[node] > maxDistance) {
+                maxDistance = distances[node];
+                farthest = node;
+            }
+        }
+        return farthest;
+    }
+
+    private static double[] shortestPaths(GraphSnapshot graph, int source, boolean forward) {
+        // Dijkstra ueber die Kantendauer, vorwaerts ueber ausgehende bzw. rueckwaerts ueber eingehende Kanten
+        double[] distances = new double[graph.getNodeCount()];
+        Arrays.fill(distances, Double.POSITIVE_INFINITY);
+        distances[source] = 0.0;
+        java.util.PriorityQueue<double[]> queue = new java.util.PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        queue.add(new double[]{0.0, source});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int node = (int) entry[1];
+            if (entry[0] > distances[node]) {
+                // Veralteter Eintrag, der Knoten wurde bereits mit kuerzerer Reisezeit abgeschlossen
+                continue;
+            }
+            int first = forward ? graph.getFirstEdge(node) : graph.getFirstIncomingEdge(node);
+            int end = forward ? graph.getEndEdge(node) : graph.getEndIncomingEdge(node);
+            for (int i = first; i < end; i++) {
+                int edge = forward ? i : graph.getIncomingEdge(i);
+                int neighbour = forward ? graph.getTarget(edge) : graph.getSource(edge);
+                double distance = distances[node] + graph.getDuration(edge);
+                if (distance < distances[neighbour]) {
+                    distances[neighbour] = distance;
+                    queue.add(new double[]{distance, neighbour});
+                }
+            }
+        }
+        return distances;
+    }
+}
@@ -0,0 +1,70 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.data.Path;
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Many-to-many Suche: je Startknoten eine einzige {@link ReachabilitySearch}, die endet, sobald alle Zielknoten abgearbeitet sind.
+ * Eine Instanz haelt keinen Zustand zwischen den Startknoten und kann daher von mehreren Threads gleichzeitig genutzt werden,
+ * sofern der Graph dies erlaubt.
+ */
+public class MatrixSearch {
+
+    private final RoadGraph graph;
+    private final double maxSoc;
+    private final double initialCharge;
+    private final double minChargingTime;
+
+    public MatrixSearch(RoadGraph graph, double maxSoc, double initialCharge, double minChargingTime) {
+        this.graph = graph;
+        this.maxSoc = maxSoc;
+        this.initialCharge = initialCharge;
+        this.minChargingTime = minChargingTime;
+    }
+
+    public List<Path> searchFrom(int source, int[] targets, SearchLimits limits) {
+        // Liefert je erreichbarem Zielknoten das Label, das auch executeDiBaSEM fuer dieses Paar liefern wuerde, in der Reihenfolge von targets.
+        // Die noch offenen Zielknoten stehen in einer Bitmenge ueber den Knotenindizes, die gefundenen Wege an der Position ihres Knotens in den
+        // sortierten Zielknoten. Wird eine Grenze erreicht, fehlen die bis dahin nicht abgearbeiteten Zielknoten.
+        int[] sortedTargets = targets.clone();
+        Arrays.sort(sortedTargets);
+        Path[] pathOfTarget = new Path[sortedTargets.length];
+        BitSet remaining = new BitSet();
+        for (int target : targets) {
+            remaining.set(target);
+        }
+        int remainingCount = remaining.cardinality();
+        ReachabilitySearch search = new ReachabilitySearch(this.graph, source, this.maxSoc, this.initialCharge, this.minChargingTime, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+        search.setLimits(limits);
+        try {
+            while (remainingCount > 0) {
+                Path path = search.next();
+                if (path == null) {
+                    // Die uebrigen Zielknoten sind von diesem Startknoten aus nicht erreichbar
+                    break;
+                }
+                int node = path.getLastNode().id().getNode();
+                if (remaining.get(node)) {
+                    remaining.clear(node);
+                    remainingCount--;
+                    pathOfTarget[Arrays.binarySearch(sortedTargets, node)] = path;
+                }
+            }
+        } finally {
+            search.release();
+        }
+        List<Path> paths = new ArrayList<>(targets.length);
+        for (int target : targets) {
+            Path path = pathOfTarget[Arrays.binarySearch(sortedTargets, target)];
+            if (path != null) {
+                paths.add(path);
+            }
+        }
+        return paths;
+    }
+}
@@ -0,0 +1,123 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.data.LabelStore;
+import de.evpathfinder.data.Path;
+import de.evpathfinder.data.VisitedNodeId;
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * DiBaSEM-Suche, die die Nachbarn mehrerer Labels gleichzeitig berechnet, aehnlich wie Delta-Stepping.
+ * Muss ein Label expandiert werden, dessen Nachbarn noch nicht berechnet sind, werden alle wartenden Labels, deren Prioritaet
+ * hoechstens delta ueber der kleinsten liegt, auf einem Fork-Join-Pool relaxiert. Das Hinzufuegen zu den Pareto-Fronten und zur Queue
+ * geschieht danach in genau der Reihenfolge der sequentiellen Suche, da DiBaSEM wegen des nachtraeglichen Ladens von dieser Reihenfolge abhaengt.
+ * Dadurch sind die gefundenen Wege identisch. Die Threads lesen den Graphen gleichzeitig, er muss daher unveraenderlich sein (z.B. ein Snapshot).
+ * Die Threads lesen die Fronten nur bei Kanten ohne nachtraegliches Laden: dort verwerfen sie Labels, die am Zielknoten bereits exakt dominiert
+ * sind und es daher bleiben. Wege mit nachtraeglichem Laden berechnen sie ohne Blick auf die Fronten, geprueft werden diese erst beim Einfuegen
+ * durch die aufrufende Suche. Mit maxLabelsPerNode gilt das Verwerfen nicht mehr, da dort Labels ohne dominierendes Label entfernt werden,
+ * daher ist diese Einstellung nicht erlaubt.
+ * Die Pareto-Fronten werden bewusst nicht gestreift oder lock-frei von den Threads veraendert: welches Label ein anderes verdraengt, haengt
+ * von der Reihenfolge des Einfuegens ab, und gleichzeitiges Einfuegen wuerde andere Wege als die sequentielle Suche liefern. Die Threads
+ * lesen die Fronten nur, waehrend die aufrufende Suche im Pool wartet, und brauchen dafuer keine Sperren.
+ * Die Aufgaben laufen im gemeinsamen Pool aus {@link SearchThreads}, die Anzahl Threads ist daher auf die Anzahl Prozessoren begrenzt.
+ */
+public class ParallelDiBaSEMSearch extends DiBaSEMSearch {
+
+    // Wenige Labels werden ohne den Pool relaxiert, da sich das Verteilen auf die Threads erst ab einigen Kanten lohnt
+    private static final int MIN_PARALLEL_LABELS = 8;
+    private static final int MAX_BUCKET_LABELS = 4096;
+    // Labels je Teilaufgabe des Pools
+    private static final int LABELS_PER_TASK = 16;
+
+    // Relaxiert die Kanten in den Threads des Pools. Er liest die Fronten nur, solange diese Suche auf die Threads wartet.
+    private final DiBaSEMSearch relaxer;
+    private final int threads;
+    private final double delta;
+    // Bereits berechnete Nachbarn wartender Labels
+    private final Map<VisitedNodeId, Path[]> expansions = new IdentityHashMap<>();
+
+    public ParallelDiBaSEMSearch(RoadGraph graph, double maxSoc, double initialCharge, double minChargingTime, Heuristic heuristic, int threads, double delta) {
+        this(graph, maxSoc, initialCharge, minChargingTime, heuristic, threads, delta, LabelStore.acquire(), new AtomicLong());
+    }
+
+    private ParallelDiBaSEMSearch(RoadGraph graph, double maxSoc, double initialCharge, double minChargingTime, Heuristic heuristic, int threads, double delta,
+                                  LabelStore store, AtomicLong versions) {
+        super(graph, maxSoc, initialCharge, minChargingTime, heuristic, store, versions);
+        // Ohne Statistik, Schranken und Toleranzen, damit die Threads keinen Zustand der Suche veraendern
+        this.relaxer = new DiBaSEMSearch(graph, maxSoc, initialCharge, minChargingTime, Heuristic.NONE, store, versions);
+        this.threads = SearchThreads.clamp(threads);
+        this.delta = delta;
+    }
+
+    @Override
+    public void expand(Path pathOfU) {
+        Path[] candidates = this.expansions.remove(pathOfU.getLastNode().id());
+        if (candidates == null) {
+            candidates = this.relaxBucket(pathOfU);
+        }
+        for (Path candidate : candidates) {
+            this.addCandidate(candidate);
+        }
+    }
+
+    private Path[] relaxBucket(Path pathOfU) {
+        // Relaxiert u und die wartenden Labels des Buckets gleichzeitig und liefert die Nachbarn von u
+        this.expansions.keySet().removeIf(nodeId -> !this.isQueued(nodeId));
+        List<Path> bucket = new ArrayList<>();
+        bucket.add(pathOfU);
+        this.collectQueued(this.delta, MAX_BUCKET_LABELS, bucket);
+        bucket.removeIf(path -> this.expansions.containsKey(path.getLastNode().id()));
+        if (bucket.size() < MIN_PARALLEL_LABELS) {
+            // pathOfU ist nie in expansions enthalten und daher weiterhin das erste Label
+            return this.relaxer.relaxAll(pathOfU);
+        }
+        Path[][] candidates = new Path[bucket.size()][];
+        // Hoechstens threads Aufgaben, jede mit mindestens LABELS_PER_TASK Labels
+        int labelsPerTask = Math.max(LABELS_PER_TASK, -Math.floorDiv(-bucket.size(), this.threads));
+        ForkJoinPool pool = SearchThreads.get();
+        pool.invoke(new RelaxTask(bucket, candidates, 0, bucket.size(), labelsPerTask));
+        for (int i = 1; i < bucket.size(); i++) {
+            this.expansions.put(bucket.get(i).getLastNode().id(), candidates[i]);
+        }
+        return candidates[0];
+    }
+
+    private final class RelaxTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient List<Path> bucket;
+        private final transient Path[][] candidates;
+        private final int from;
+        private final int to;
+        private final int labelsPerTask;
+
+        private RelaxTask(List<Path> bucket, Path[][] candidates, int from, int to, int labelsPerTask) {
+            this.bucket = bucket;
+            this.candidates = candidates;
+            this.from = from;
+            this.to = to;
+            this.labelsPerTask = labelsPerTask;
+        }
+
+        @Override
+        protected void compute() {
+            if (this.to - this.from <= this.labelsPerTask) {
+                for (int i = this.from; i < this.to; i++) {
+                    this.candidates[i] = ParallelDiBaSEMSearch.this.relaxer.relaxAll(this.bucket.get(i));
+                }
+                return;
+            }
+            int middle = (this.from + this.to) >>> 1;
+            invokeAll(new RelaxTask(this.bucket, this.candidates, this.from, middle, this.labelsPerTask),
+                    new RelaxTask(this.bucket, this.candidates, middle, this.to, this.labelsPerTask));
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.data.Path;
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.BitSet;
+
+/**
+ * Erreichbarkeitssuche (one-to-all) auf Basis von {@link DiBaSEMSearch} mit denselben Lade- und Dominanzregeln.
+ * Die Labels werden nach Reisezeit abgearbeitet, sodass das erste abgearbeitete Label eines Knotens dessen schnellstes ist.
+ * Dieses wird sofort ueber {@link #next()} zurueckgegeben, statt zuerst alle Knoten zu sammeln.
+ * Mit {@link SearchLimits} endet die Suche an der ersten erreichten Grenze wie ein ausgeschoepftes Budget.
+ */
+public class ReachabilitySearch {
+
+    private final DiBaSEMSearch search;
+    private final double maxTravelTime;
+    private final double maxConsumption;
+    private final BitSet settledNodes = new BitSet();
+    private boolean finished = false;
+    private boolean released = false;
+
+    public ReachabilitySearch(RoadGraph graph, int start, double maxSoc, double initialCharge, double minChargingTime, double maxTravelTime, double maxConsumption) {
+        this.search = new DiBaSEMSearch(graph, maxSoc, initialCharge, minChargingTime);
+        this.maxTravelTime = maxTravelTime;
+        this.maxConsumption = maxConsumption;
+        this.search.initialize(start);
+    }
+
+    public void setLimits(SearchLimits limits) {
+        this.search.setLimits(limits);
+    }
+
+    public Path next() {
+        // Liefert das beste Label des naechsten erreichten Knotens, oder null falls kein weiterer Knoten im Budget liegt
+        while (!this.finished && !this.search.isFinished()) {
+            if (this.search.isLimitExceeded()) {
+                this.finished = true;
+                break;
+            }
+            Path path = this.search.poll();
+            if (path.getLastNode().travelTime() > this.maxTravelTime) {
+                // Alle uebrigen Labels in der Queue sind mindestens genauso langsam
+                this.finished = true;
+                break;
+            }
+            if (path.getConsumption() > this.maxConsumption) {
+                // Der Verbrauch waechst entlang des Weges, sodass auch alle Nachfolger ausserhalb des Budgets liegen
+                continue;
+            }
+            this.search.expand(path);
+            int node = path.getLastNode().id().getNode();
+            if (!this.settledNodes.get(node)) {
+                this.settledNodes.set(node);
+                return path;
+            }
+        }
+        // Ohne weitere Knoten wird der Speicher sofort freigegeben, nicht erst beim Schliessen des Streams
+        this.release();
+        return null;
+    }
+
+    public void release() {
+        // Gibt den Speicher der Suche frei, wenn keine weiteren Knoten mehr abgefragt werden. Ein zweiter Aufruf darf die Tabellen,
+        // die inzwischen eine andere Suche dieses Threads verwendet, nicht noch einmal leeren.
+        if (this.released) {
+            return;
+        }
+        this.released = true;
+        this.finished = true;
+        this.search.release();
+    }
+}
@@ -0,0 +1,264 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.graph.RoadGraph;
+
+import java.util.Map;
+
+/**
+ * Optionale Einstellungen einer Routing-Anfrage, die als Map an die Procedures uebergeben werden.
+ * Fehlende Eintraege behalten das Verhalten des urspruenglichen DiBaSEM bei.
+ */
+public class SearchConfig {
+
+    public static final String HEURISTIC = "heuristic";
+    public static final String MAX_SPEED = "maxSpeed";
+    public static final String BACKWARD_POTENTIAL = "backwardPotential";
+    // Eine bidirektionale Suche gibt es nicht, der fruehere Schluessel wird abgelehnt statt stillschweigend ignoriert
+    private static final String BIDIRECTIONAL = "bidirectional";
+    public static final String ENGINE = "engine";
+    public static final String MAX_TRAVEL_TIME = "maxTravelTime";
+    public static final String MAX_CONSUMPTION = "maxConsumption";
+    public static final String INCLUDE_PATH = "includePath";
+    public static final String THREADS = "threads";
+    public static final String CACHE = "cache";
+    public static final String ENERGY_PRUNING = "energyPruning";
+    public static final String TIMEOUT = "timeout";
+    public static final String MAX_LABELS = "maxLabels";
+    public static final String MAX_RETAINED_LABELS = "maxRetainedLabels";
+    public static final String EPSILON_TIME = "epsilonTime";
+    public static final String EPSILON_SOC = "epsilonSoc";
+    public static final String MAX_LABELS_PER_NODE = "maxLabelsPerNode";
+    public static final String DELTA = "delta";
+
+    public static final String HEURISTIC_NONE = "none";
+    public static final String HEURISTIC_COORDINATES = "coordinates";
+    public static final String HEURISTIC_LANDMARKS = "landmarks";
+
+    public static final String ENGINE_DIJKSTRA = "dijkstra";
+    public static final String ENGINE_HIERARCHY = "hierarchy";
+    public static final String ENGINE_OVERLAY = "overlay";
+    public static final String ENGINE_PARALLEL = "parallel";
+
+    private static final double DEFAULT_MAX_SPEED = 130.0;
+    private static final double DEFAULT_DELTA = 10.0;
+
+    private final String heuristic;
+    // Hoechstgeschwindigkeit in km/h, die auf keiner Kante ueberschritten wird
+    private final double maxSpeed;
+    // Ob die Schranke zusaetzlich aus einer schrittweisen Rueckwaertssuche ueber die Reisezeit kommt
+    private final boolean backwardPotential;
+    private final String engine;
+    // Budgets der Erreichbarkeitssuche in Minuten bzw. kWh Gesamtverbrauch
+    private final double maxTravelTime;
+    private final double maxConsumption;
+    private final boolean includePath;
+    // Anzahl der Threads der Matrix-Suche und der parallelen Suche
+    private final int threads;
+    // Ob executeDiBaSEM den Routen-Cache verwenden darf, sofern fuer die Datenbank einer eingerichtet ist
+    private final boolean cache;
+    // Ob Labels verworfen werden, deren Energie weder fuer das Ziel noch fuer die naechste Ladestation reicht
+    private final boolean energyPruning;
+    // Grenzen einer Suche: Laufzeit in Millisekunden, erzeugte Labels und gleichzeitig gehaltene Labels
+    private final double timeout;
+    private final double maxLabels;
+    private final double maxRetainedLabels;
+    // Toleranzen der approximativen Dominanz in Minuten bzw. kWh und Obergrenze der Labels je Knoten
+    private final double epsilonTime;
+    private final double epsilonSoc;
+    private final double maxLabelsPerNode;
+    // Breite der Buckets der parallelen Suche in Minuten
+    private final double delta;
+
+    private SearchConfig(String heuristic, double maxSpeed, boolean backwardPotential, String engine, double maxTravelTime, double maxConsumption, boolean includePath, int threads, boolean cache,
+                         boolean energyPruning, double timeout, double maxLabels, double maxRetainedLabels, double epsilonTime, double epsilonSoc, double maxLabelsPerNode,
+                         double delta) {
+        this.heuristic = heuristic;
+        this.maxSpeed = maxSpeed;
+        this.backwardPotential = backwardPotential;
+        this.engine = engine;
+        this.maxTravelTime = maxTravelTime;
+        this.maxConsumption = maxConsumption;
+        this.includePath = includePath;
+        this.threads = threads;
+        this.cache = cache;
+        this.energyPruning = energyPruning;
+        this.timeout = timeout;
+        this.maxLabels = maxLabels;
+        this.maxRetainedLabels = maxRetainedLabels;
+        this.epsilonTime = epsilonTime;
+        this.epsilonSoc = epsilonSoc;
+        this.maxLabelsPerNode = maxLabelsPerNode;
+        this.delta = delta;
+    }
+
+    public static SearchConfig from(Map<String, Object> config) {
+        Map<String, Object> values = config == null ? Map.of() : config;
+        String heuristic = String.valueOf(values.getOrDefault(HEURISTIC, HEURISTIC_NONE));
+        if (!heuristic.equals(HEURISTIC_NONE) && !heuristic.equals(HEURISTIC_COORDINATES) && !heuristic.equals(HEURISTIC_LANDMARKS)) {
+            throw new IllegalArgumentException("Unknown heuristic '" + heuristic + "', expected one of none, coordinates, landmarks");
+        }
+        double maxSpeed = getDouble(values, MAX_SPEED, DEFAULT_MAX_SPEED);
+        if (maxSpeed <= 0.0) {
+            throw new IllegalArgumentException("maxSpeed must be positive");
+        }
+        if (values.containsKey(BIDIRECTIONAL)) {
+            throw new IllegalArgumentException("There is no bidirectional search, use backwardPotential for the backward potential of the forward search");
+        }
+        boolean backwardPotential = getBoolean(values, BACKWARD_POTENTIAL, false);
+        String engine = String.valueOf(values.getOrDefault(ENGINE, ENGINE_DIJKSTRA));
+        if (!engine.equals(ENGINE_DIJKSTRA) && !engine.equals(ENGINE_HIERARCHY) && !engine.equals(ENGINE_OVERLAY) && !engine.equals(ENGINE_PARALLEL)) {
+            throw new IllegalArgumentException("Unknown engine '" + engine + "', expected one of dijkstra, hierarchy, overlay, parallel");
+        }
+        if (engine.equals(ENGINE_HIERARCHY) && (backwardPotential || !heuristic.equals(HEURISTIC_NONE))) {
+            // Die Hierarchie enthaelt weder Koordinaten noch Landmarks, ihr Suchraum ist bereits auf Auf- und Abstieg beschraenkt
+            throw new IllegalArgumentException("The hierarchy engine cannot be combined with a heuristic or the backward potential");
+        }
+        if (engine.equals(ENGINE_OVERLAY) && backwardPotential) {
+            // Der Overlay-Graph kennt nur ausgehende Kanten
+            throw new IllegalArgumentException("The overlay engine cannot be combined with the backward potential");
+        }
+        double maxTravelTime = getDouble(values, MAX_TRAVEL_TIME, Double.POSITIVE_INFINITY);
+        double maxConsumption = getDouble(values, MAX_CONSUMPTION, Double.POSITIVE_INFINITY);
+        if (maxTravelTime < 0.0 || maxConsumption < 0.0) {
+            throw new IllegalArgumentException("maxTravelTime and maxConsumption must not be negative");
+        }
+        boolean includePath = getBoolean(values, INCLUDE_PATH, false);
+        int threads = (int) getDouble(values, THREADS, Runtime.getRuntime().availableProcessors());
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1");
+        }
+        boolean cache = getBoolean(values, CACHE, true);
+        boolean energyPruning = getBoolean(values, ENERGY_PRUNING, false);
+        if (energyPruning && !engine.equals(ENGINE_DIJKSTRA) && !engine.equals(ENGINE_PARALLEL)) {
+            // Die Schranke wird rueckwaerts im Strassennetz berechnet, Hierarchie und Overlay kennen keine eingehenden Kanten
+            throw new IllegalArgumentException("energyPruning is only supported by the dijkstra and parallel engines");
+        }
+        double timeout = getDouble(values, TIMEOUT, Double.POSITIVE_INFINITY);
+        double maxLabels = getDouble(values, MAX_LABELS, Double.POSITIVE_INFINITY);
+        double maxRetainedLabels = getDouble(values, MAX_RETAINED_LABELS, Double.POSITIVE_INFINITY);
+        if (timeout <= 0.0 || maxLabels < 1.0 || maxRetainedLabels < 1.0) {
+            throw new IllegalArgumentException("timeout must be positive, maxLabels and maxRetainedLabels at least 1");
+        }
+        double epsilonTime = getDouble(values, EPSILON_TIME, 0.0);
+        double epsilonSoc = getDouble(values, EPSILON_SOC, 0.0);
+        double maxLabelsPerNode = getDouble(values, MAX_LABELS_PER_NODE, Double.POSITIVE_INFINITY);
+        if (epsilonTime < 0.0 || epsilonSoc < 0.0 || maxLabelsPerNode < 1.0) {
+            throw new IllegalArgumentException("epsilonTime and epsilonSoc must not be negative, maxLabelsPerNode must be at least 1");
+        }
+        if (engine.equals(ENGINE_PARALLEL) && maxLabelsPerNode != Double.POSITIVE_INFINITY) {
+            // Die parallele Suche setzt voraus, dass dominierte Labels dominiert bleiben, was beim Entfernen ueberzaehliger Labels nicht gilt
+            throw new IllegalArgumentException("maxLabelsPerNode cannot be combined with the parallel engine");
+        }
+        double delta = getDouble(values, DELTA, DEFAULT_DELTA);
+        if (delta <= 0.0) {
+            throw new IllegalArgumentException("delta must be positive");
+        }
+        return new SearchConfig(heuristic, maxSpeed, backwardPotential, engine, maxTravelTime, maxConsumption, includePath, threads, cache, energyPruning, timeout, maxLabels, maxRetainedLabels,
+                epsilonTime, epsilonSoc, maxLabelsPerNode, delta);
+    }
+
+    public Heuristic createHeuristic(RoadGraph graph, int target) {
+        Heuristic heuristic = switch (this.heuristic) {
+            case HEURISTIC_COORDINATES -> new CoordinateHeuristic(graph, target, this.maxSpeed);
+            case HEURISTIC_LANDMARKS -> new LandmarkHeuristic(graph, target);
+            default -> Heuristic.NONE;
+        };
+        // Die Rueckwaertssuche kann mit jeder anderen Schranke kombiniert werden
+        return this.backwardPotential ? new BackwardPotentialHeuristic(graph, target, heuristic) : heuristic;
+    }
+
+    public String getHeuristic() {
+        return this.heuristic;
+    }
+
+    public double getMaxSpeed() {
+        return this.maxSpeed;
+    }
+
+    public boolean isBackwardPotential() {
+        return this.backwardPotential;
+    }
+
+    public String getEngine() {
+        return this.engine;
+    }
+
+    public double getMaxTravelTime() {
+        return this.maxTravelTime;
+    }
+
+    public double getMaxConsumption() {
+        return this.maxConsumption;
+    }
+
+    public boolean isIncludePath() {
+        return this.includePath;
+    }
+
+    public int getThreads() {
+        return this.threads;
+    }
+
+    public boolean isCache() {
+        return this.cache;
+    }
+
+    public boolean isEnergyPruning() {
+        return this.energyPruning;
+    }
+
+    public double getTimeout() {
+        return this.timeout;
+    }
+
+    public double getMaxLabels() {
+        return this.maxLabels;
+    }
+
+    public double getMaxRetainedLabels() {
+        return this.maxRetainedLabels;
+    }
+
+    public double getEpsilonTime() {
+        return this.epsilonTime;
+    }
+
+    public double getEpsilonSoc() {
+        return this.epsilonSoc;
+    }
+
+    public double getMaxLabelsPerNode() {
+        return this.maxLabelsPerNode;
+    }
+
+    public double getDelta() {
+        return this.delta;
+    }
+
+    public String getRouteSettings() {
+        // Alle Einstellungen, die den gefundenen Weg beeinflussen koennen, als Teil des Cache-Schluessels
+        return this.engine + "/" + this.heuristic + "/" + this.backwardPotential + "/" + this.maxSpeed + "/" + this.energyPruning + "/" + this.epsilonTime + "/" + this.epsilonSoc + "/" + this.maxLabelsPerNode;
+    }
+
+    private static double getDouble(Map<String, Object> values, String key, double defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Number)) {
+            throw new IllegalArgumentException(key + " must be a number");
+        }
+        return ((Number) value).doubleValue();
+    }
+
+    private static boolean getBoolean(Map<String, Object> values, String key, boolean defaultValue) {
+        Object value = values.get(key);
+        if (value == null) {
+            return defaultValue;
+        }
+        if (!(value instanceof Boolean)) {
+            throw new IllegalArgumentException(key + " must be a boolean");
+        }
+        return (Boolean) value;
+    }
+}
@@ -0,0 +1,61 @@
+package de.evpathfinder.search;
+
+/**
+ * Grenzen einer einzelnen Suche fuer Laufzeit, Anzahl erzeugter Labels und Anzahl gleichzeitig gehaltener Labels.
+ * Die Frist beginnt beim Erzeugen, daher erhaelt jeder Aufruf eine eigene Instanz. Nach der Suche gibt {@link #getStatus()}
+ * an, ob und an welcher Grenze abgebrochen wurde.
+ */
+public class SearchLimits {
+
+    // Uhr und Abbruch der Transaktion werden nur bei jedem CHECK_INTERVAL-ten abgeschlossenen Label abgefragt
+    private static final long CHECK_INTERVAL = 256;
+
+    private final boolean hasDeadline;
+    private final long deadline;
+    private final double maxLabels;
+    private final double maxRetainedLabels;
+    // Wirft eine Exception, falls die Transaktion des Aufrufs abgebrochen wurde
+    private final Runnable terminationCheck;
+    // Reisezeit eines bereits bekannten Weges, langsamere Labels koennen keinen besseren Weg mehr ergeben
+    private double upperBound = Double.POSITIVE_INFINITY;
+    private SearchStatus status = SearchStatus.COMPLETE;
+
+    public SearchLimits(double timeoutMillis, double maxLabels, double maxRetainedLabels, Runnable terminationCheck) {
+        this.hasDeadline = timeoutMillis != Double.POSITIVE_INFINITY;
+        this.deadline = this.hasDeadline ? System.nanoTime() + (long) (timeoutMillis * 1_000_000.0) : 0L;
+        this.maxLabels = maxLabels;
+        this.maxRetainedLabels = maxRetainedLabels;
+        this.terminationCheck = terminationCheck;
+    }
+
+    public static SearchLimits from(SearchConfig config, Runnable terminationCheck) {
+        return new SearchLimits(config.getTimeout(), config.getMaxLabels(), config.getMaxRetainedLabels(), terminationCheck);
+    }
+
+    public boolean isExceeded(long settledLabels, long createdLabels, int retainedLabels) {
+        // Liefert true, sobald eine Grenze erreicht ist, und merkt sich welche
+        if (createdLabels > this.maxLabels) {
+            this.status = SearchStatus.LABEL_LIMIT;
+        } else if (retainedLabels > this.maxRetainedLabels) {
+            this.status = SearchStatus.MEMORY_LIMIT;
+        } else if (settledLabels % CHECK_INTERVAL == 0) {
+            this.terminationCheck.run();
+            if (this.hasDeadline && System.nanoTime() - this.deadline > 0) {
+                this.status = SearchStatus.TIMEOUT;
+            }
+        }
+        return this.status != SearchStatus.COMPLETE;
+    }
+
+    public void setUpperBound(double upperBound) {
+        this.upperBound = upperBound;
+    }
+
+    public double getUpperBound() {
+        return this.upperBound;
+    }
+
+    public SearchStatus getStatus() {
+        return this.status;
+    }
+}
@@ -0,0 +1,20 @@
+package de.evpathfinder.search;
+
+/**
+ * Ergebnis einer Suche mit {@link SearchLimits}. Bei TIMEOUT, LABEL_LIMIT und MEMORY_LIMIT wurde die Suche an der genannten Grenze abgebrochen.
+ * REPAIRED bedeutet, dass reroute den bisherigen Weg nachgerechnet hat und die durch dessen Reisezeit beschraenkte Suche keinen Weg gefunden hat,
+ * der hoechstens so schnell ist.
+ * CACHED bedeutet, dass der Weg aus dem Cache stammt und fuer die Anfangsladung nachgerechnet wurde. Er ist ausfuehrbar, aber eine neue Suche
+ * mit dieser Anfangsladung kann einen schnelleren Weg finden.
+ * HEURISTIC bedeutet, dass die Suche vollstaendig auf einem abgeleiteten Graphen lief. Der Weg ist ausfuehrbar, kann aber von dem Weg
+ * der Suche auf dem Strassennetz abweichen, da die Ladeentscheidungen von der Reihenfolge der Labels abhaengen.
+ */
+public enum SearchStatus {
+    COMPLETE,
+    HEURISTIC,
+    CACHED,
+    REPAIRED,
+    TIMEOUT,
+    LABEL_LIMIT,
+    MEMORY_LIMIT
+}
@@ -0,0 +1,45 @@
+package de.evpathfinder.search;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+
+/**
+ * Prozessweiter Pool fuer alle Suchen, die auf mehreren Threads laufen. Er hat so viele Threads wie Prozessoren, sodass gleichzeitige
+ * Aufrufe die Maschine nicht ueberbuchen, und wird beim ersten Zugriff angelegt. Beim Herunterfahren des DBMS beendet
+ * {@link SearchThreadsExtensionFactory} den Pool, ein spaeterer Zugriff legt einen neuen an.
+ */
+public final class SearchThreads {
+
+    private static ForkJoinPool pool = null;
+
+    private SearchThreads() {
+    }
+
+    public static synchronized ForkJoinPool get() {
+        if (pool == null || pool.isShutdown()) {
+            pool = new ForkJoinPool(getMaxThreads(), forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("dibasem-search-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    public static int getMaxThreads() {
+        return Runtime.getRuntime().availableProcessors();
+    }
+
+    public static int clamp(int threads) {
+        // Mehr Aufgaben als Threads im Pool wuerden nur nacheinander laufen
+        return Math.max(1, Math.min(threads, getMaxThreads()));
+    }
+
+    public static synchronized void shutdown() {
+        if (pool != null) {
+            pool.shutdownNow();
+            pool = null;
+        }
+    }
+}
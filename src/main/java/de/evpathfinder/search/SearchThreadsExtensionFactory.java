@@ -0,0 +1,32 @@
+package de.evpathfinder.search;
+
+import org.neo4j.annotations.service.ServiceProvider;
+import org.neo4j.kernel.extension.ExtensionFactory;
+import org.neo4j.kernel.extension.ExtensionType;
+import org.neo4j.kernel.extension.context.ExtensionContext;
+import org.neo4j.kernel.lifecycle.Lifecycle;
+import org.neo4j.kernel.lifecycle.LifecycleAdapter;
+
+/**
+ * Beendet beim Herunterfahren des DBMS die Threads von {@link SearchThreads}, die von allen Datenbanken gemeinsam genutzt werden.
+ */
+@ServiceProvider
+public class SearchThreadsExtensionFactory extends ExtensionFactory<SearchThreadsExtensionFactory.Dependencies> {
+
+    public interface Dependencies {
+    }
+
+    public SearchThreadsExtensionFactory() {
+        super(ExtensionType.GLOBAL, "dibasem-search-threads");
+    }
+
+    @Override
+    public Lifecycle newInstance(ExtensionContext context, Dependencies dependencies) {
+        return new LifecycleAdapter() {
+            @Override
+            public void shutdown() {
+                SearchThreads.shutdown();
+            }
+        };
+    }
+}
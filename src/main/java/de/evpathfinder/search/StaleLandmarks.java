@@ -0,0 +1,30 @@
+package de.evpathfinder.search;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Datenbanken, deren gespeicherte Landmark-Distanzen nach einer Aenderung des Strassennetzes zu gross sein koennen.
+ * Eine kuerzere Fahrzeit oder eine neue Kante verkuerzt Wege, sodass die ALT-Schranke die Restreisezeit ueberschaetzen kann.
+ * Laengere Fahrzeiten und geloeschte Kanten lassen die Schranke zulaessig. Die Markierung gilt bis zum naechsten
+ * dibasem.computeLandmarks und liegt nur im Speicher.
+ */
+public final class StaleLandmarks {
+
+    private static final Set<String> databases = ConcurrentHashMap.newKeySet();
+
+    private StaleLandmarks() {
+    }
+
+    public static void mark(String databaseName) {
+        databases.add(databaseName);
+    }
+
+    public static void clear(String databaseName) {
+        databases.remove(databaseName);
+    }
+
+    public static boolean isStale(String databaseName) {
+        return databases.contains(databaseName);
+    }
+}
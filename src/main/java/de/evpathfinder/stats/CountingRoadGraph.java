@@ -0,0 +1,113 @@
+package de.evpathfinder.stats;
+
+import de.evpathfinder.graph.RoadGraph;
+
+/**
+ * Zaehlt die Zugriffe einer Suche auf den Graphen. Wird nur bei eingeschalteter Instrumentierung um den Graphen gelegt,
+ * sodass Anfragen ohne Statistik den Graphen direkt lesen.
+ */
+public class CountingRoadGraph implements RoadGraph {
+
+    private final RoadGraph graph;
+    private final SearchStatistics statistics;
+
+    public CountingRoadGraph(RoadGraph graph, SearchStatistics statistics) {
+        this.graph = graph;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public int findNode(String id) {
+        this.statistics.nodeLookedUp();
+        return this.graph.findNode(id);
+    }
+
+    @Override
+    public String getId(int node) {
+        return this.graph.getId(node);
+    }
+
+    @Override
+    public double getChargingPower(int node) {
+        return this.graph.getChargingPower(node);
+    }
+
+    @Override
+    public int[] getStations() {
+        return this.graph.getStations();
+    }
+
+    @Override
+    public int getFirstEdge(int node) {
+        this.statistics.edgesScanned();
+        return this.graph.getFirstEdge(node);
+    }
+
+    @Override
+    public int getEndEdge(int node) {
+        return this.graph.getEndEdge(node);
+    }
+
+    @Override
+    public int getTarget(int edge) {
+        return this.graph.getTarget(edge);
+    }
+
+    @Override
+    public int getFirstIncomingEdge(int node) {
+        this.statistics.edgesScanned();
+        return this.graph.getFirstIncomingEdge(node);
+    }
+
+    @Override
+    public int getEndIncomingEdge(int node) {
+        return this.graph.getEndIncomingEdge(node);
+    }
+
+    @Override
+    public int getIncomingEdge(int index) {
+        return this.graph.getIncomingEdge(index);
+    }
+
+    @Override
+    public int getSource(int edge) {
+        return this.graph.getSource(edge);
+    }
+
+    @Override
+    public double getDuration(int edge) {
+        return this.graph.getDuration(edge);
+    }
+
+    @Override
+    public double getConsumption(int edge) {
+        return this.graph.getConsumption(edge);
+    }
+
+    @Override
+    public double getLatitude(int node) {
+        return this.graph.getLatitude(node);
+    }
+
+    @Override
+    public double getLongitude(int node) {
+        return this.graph.getLongitude(node);
+    }
+
+    @Override
+    public double[] getLandmarkDistancesFrom(int node) {
+        return this.graph.getLandmarkDistancesFrom(node);
+    }
+
+    @Override
+    public double[] getLandmarkDistancesTo(int node) {
+        return this.graph.getLandmarkDistancesTo(node);
+    }
+
+    @Override
+    public int getShortestEdge(int source, int destination) {
+        // Die Kanten werden direkt im Graphen gesucht, damit dieser Zugriff nicht zusaetzlich als Kantenscan zaehlt
+        this.statistics.shortestEdgeLookedUp();
+        return this.graph.getShortestEdge(source, destination);
+    }
+}
@@ -0,0 +1,80 @@
+package de.evpathfinder.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramm mit Zweierpotenzen als Bucketgrenzen, das von mehreren Threads ohne Sperren beschrieben werden kann.
+ * Bucket i enthaelt die Werte im Bereich [2^(i-1), 2^i), Bucket 0 den Wert 0.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 64;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+    private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+
+    public void record(long value) {
+        long clamped = Math.max(0L, value);
+        this.buckets.incrementAndGet(BUCKETS - Long.numberOfLeadingZeros(clamped));
+        this.count.increment();
+        this.sum.add(clamped);
+        this.min.accumulate(clamped);
+        this.max.accumulate(clamped);
+    }
+
+    public long getCount() {
+        return this.count.sum();
+    }
+
+    public long getSum() {
+        return this.sum.sum();
+    }
+
+    public long getMin() {
+        return this.getCount() == 0 ? 0L : this.min.get();
+    }
+
+    public long getMax() {
+        return this.getCount() == 0 ? 0L : this.max.get();
+    }
+
+    public long getPercentile(double percentile) {
+        // Obere Grenze des Buckets, in dem das Perzentil liegt, hoechstens jedoch das Maximum
+        long total = this.getCount();
+        if (total == 0) {
+            return 0L;
+        }
+        long rank = (long) Math.ceil(percentile / 100.0 * total);
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            seen += this.buckets.get(bucket);
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(upperBound(bucket), this.getMax());
+            }
+        }
+        return this.getMax();
+    }
+
+    public Map<String, Long> getBuckets() {
+        // Nicht leere Buckets mit ihrer oberen Grenze als Schluessel
+        Map<String, Long> buckets = new LinkedHashMap<>();
+        for (int bucket = 0; bucket < BUCKETS; bucket++) {
+            long value = this.buckets.get(bucket);
+            if (value > 0) {
+                buckets.put("<=" + upperBound(bucket), value);
+            }
+        }
+        return buckets;
+    }
+
+    private static long upperBound(int bucket) {
+        return bucket == 0 ? 0L : bucket >= BUCKETS - 1 ? Long.MAX_VALUE : (1L << bucket) - 1;
+    }
+}
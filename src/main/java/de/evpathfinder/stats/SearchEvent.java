@@ -0,0 +1,92 @@
+package de.evpathfinder.stats;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * JFR-Event je Routing-Anfrage mit den Zaehlern der Suche. Wird nur erzeugt, wenn das Event in einer laufenden Aufzeichnung aktiviert ist.
+ */
+@Name("de.evpathfinder.Search")
+@Label("DiBaSEM Search")
+@Category("DiBaSEM")
+@Description("Counters of a single DiBaSEM routing call")
+public class SearchEvent extends Event {
+
+    private static final EventType TYPE = EventType.getEventType(SearchEvent.class);
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Route Found")
+    boolean found;
+
+    @Label("Status")
+    String status;
+
+    @Label("Labels Created")
+    long labelsCreated;
+
+    @Label("Labels Dominated")
+    long labelsDominated;
+
+    @Label("Labels Pruned")
+    long labelsPruned;
+
+    @Label("Queue Polls")
+    long queuePolls;
+
+    @Label("Recharge Backtracks")
+    long rechargeBacktracks;
+
+    @Label("Node Lookups")
+    long nodeLookups;
+
+    @Label("Edge Scans")
+    long edgeScans;
+
+    @Label("Shortest Edge Lookups")
+    long shortestEdgeLookups;
+
+    @Label("Peak Labels")
+    long peakLabels;
+
+    @Label("Setup Nanos")
+    long setupNanos;
+
+    @Label("Search Nanos")
+    long searchNanos;
+
+    @Label("Unpack Nanos")
+    long unpackNanos;
+
+    public static boolean isRecording() {
+        return TYPE.isEnabled();
+    }
+
+    public static void commit(String engine, boolean found, String status, SearchStatistics statistics) {
+        SearchEvent event = new SearchEvent();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        event.engine = engine;
+        event.found = found;
+        event.status = status;
+        event.labelsCreated = statistics.getLabelsCreated();
+        event.labelsDominated = statistics.getLabelsDominated();
+        event.labelsPruned = statistics.getLabelsPruned();
+        event.queuePolls = statistics.getQueuePolls();
+        event.rechargeBacktracks = statistics.getRechargeBacktracks();
+        event.nodeLookups = statistics.getNodeLookups();
+        event.edgeScans = statistics.getEdgeScans();
+        event.shortestEdgeLookups = statistics.getShortestEdgeLookups();
+        event.peakLabels = statistics.getPeakLabels();
+        event.setupNanos = statistics.getSetupNanos();
+        event.searchNanos = statistics.getSearchNanos();
+        event.unpackNanos = statistics.getUnpackNanos();
+        event.commit();
+    }
+}
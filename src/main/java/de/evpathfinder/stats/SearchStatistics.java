@@ -0,0 +1,120 @@
+package de.evpathfinder.stats;
+
+/**
+ * Zaehler einer einzelnen Suche. Eine Instanz gehoert genau einer Suche und wird nur von deren Thread beschrieben.
+ * Ist die Instrumentierung ausgeschaltet, erhaelt die Suche null statt einer Instanz und ueberspringt alle Zaehler.
+ */
+public class SearchStatistics {
+
+    private long labelsCreated;
+    private long labelsDominated;
+    private long labelsPruned;
+    private long queuePolls;
+    private long rechargeBacktracks;
+    private long nodeLookups;
+    private long edgeScans;
+    private long shortestEdgeLookups;
+    private long peakLabels;
+    private long setupNanos;
+    private long searchNanos;
+    private long unpackNanos;
+
+    public void labelCreated() {
+        this.labelsCreated++;
+    }
+
+    public void labelsDominated(int count) {
+        this.labelsDominated += count;
+    }
+
+    public void labelPruned() {
+        this.labelsPruned++;
+    }
+
+    public void queuePolled() {
+        this.queuePolls++;
+    }
+
+    public void rechargeBacktracked() {
+        this.rechargeBacktracks++;
+    }
+
+    public void nodeLookedUp() {
+        this.nodeLookups++;
+    }
+
+    public void edgesScanned() {
+        this.edgeScans++;
+    }
+
+    public void shortestEdgeLookedUp() {
+        this.shortestEdgeLookups++;
+    }
+
+    public void labelsStored(int count) {
+        // Anzahl der gleichzeitig gehaltenen, nicht dominierten Labels
+        if (count > this.peakLabels) {
+            this.peakLabels = count;
+        }
+    }
+
+    public void setupFinished(long nanos) {
+        this.setupNanos += nanos;
+    }
+
+    public void searchFinished(long nanos) {
+        this.searchNanos += nanos;
+    }
+
+    public void unpackFinished(long nanos) {
+        this.unpackNanos += nanos;
+    }
+
+    public long getLabelsCreated() {
+        return this.labelsCreated;
+    }
+
+    public long getLabelsDominated() {
+        return this.labelsDominated;
+    }
+
+    public long getLabelsPruned() {
+        return this.labelsPruned;
+    }
+
+    public long getQueuePolls() {
+        return this.queuePolls;
+    }
+
+    public long getRechargeBacktracks() {
+        return this.rechargeBacktracks;
+    }
+
+    public long getNodeLookups() {
+        return this.nodeLookups;
+    }
+
+    public long getEdgeScans() {
+        return this.edgeScans;
+    }
+
+    public long getShortestEdgeLookups() {
+        return this.shortestEdgeLookups;
+    }
+
+    public long getPeakLabels() {
+        return this.peakLabels;
+    }
+
+    public long getSetupNanos() {
+        return this.setupNanos;
+    }
+
+    public long getSearchNanos() {
+        return this.searchNanos;
+    }
+
+    public long getUnpackNanos() {
+        return this.unpackNanos;
+    }
+}
@@ -0,0 +1,65 @@
+package de.evpathfinder.stats;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * Prozessweite Histogramme ueber die Zaehler aller Routing-Anfragen, solange die Sammlung ueber dibasem.collectStats eingeschaltet ist.
+ */
+public final class SearchStatisticsCollector {
+
+    private static final Map<String, ToLongFunction<SearchStatistics>> METRICS = new LinkedHashMap<>();
+
+    static {
+        METRICS.put("labelsCreated", SearchStatistics::getLabelsCreated);
+        METRICS.put("labelsDominated", SearchStatistics::getLabelsDominated);
+        METRICS.put("labelsPruned", SearchStatistics::getLabelsPruned);
+        METRICS.put("queuePolls", SearchStatistics::getQueuePolls);
+        METRICS.put("rechargeBacktracks", SearchStatistics::getRechargeBacktracks);
+        METRICS.put("nodeLookups", SearchStatistics::getNodeLookups);
+        METRICS.put("edgeScans", SearchStatistics::getEdgeScans);
+        METRICS.put("shortestEdgeLookups", SearchStatistics::getShortestEdgeLookups);
+        METRICS.put("peakLabels", SearchStatistics::getPeakLabels);
+        METRICS.put("setupMicros", statistics -> statistics.getSetupNanos() / 1_000);
+        METRICS.put("searchMicros", statistics -> statistics.getSearchNanos() / 1_000);
+        METRICS.put("unpackMicros", statistics -> statistics.getUnpackNanos() / 1_000);
+    }
+
+    private static volatile boolean enabled = false;
+    private static volatile Map<String, Histogram> histograms = createHistograms();
+
+    private SearchStatisticsCollector() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        // Beim Einschalten beginnt die Sammlung mit leeren Histogrammen
+        if (enabled) {
+            histograms = createHistograms();
+        }
+        SearchStatisticsCollector.enabled = enabled;
+    }
+
+    public static void record(SearchStatistics statistics) {
+        Map<String, Histogram> current = histograms;
+        for (Map.Entry<String, ToLongFunction<SearchStatistics>> metric : METRICS.entrySet()) {
+            current.get(metric.getKey()).record(metric.getValue().applyAsLong(statistics));
+        }
+    }
+
+    public static Map<String, Histogram> getHistograms() {
+        return histograms;
+    }
+
+    private static Map<String, Histogram> createHistograms() {
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        for (String metric : METRICS.keySet()) {
+            histograms.put(metric, new Histogram());
+        }
+        return histograms;
+    }
+}
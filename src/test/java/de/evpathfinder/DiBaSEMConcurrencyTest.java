@@ -0,0 +1,132 @@
+package de.evpathfinder;
+
+import de.evpathfinder.graph.StoreGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ruft die Procedures aus mehreren Threads gleichzeitig auf, waehrend ein weiterer Thread Fahrzeiten und Verbraeuche aendert.
+ * Danach muss der aktualisierte Snapshot dieselben Routen liefern wie ein neu geladener Snapshot.
+ */
+class DiBaSEMConcurrencyTest {
+
+    private static final int SIZE = 12;
+    private static final int READERS = 4;
+    private static final double MAX_SOC = 30.0;
+    // Ladezeit und geladene Energie werden auf 0.01 gerundet, der SoC kann daher um diesen Betrag unter 0 fallen
+    private static final double SOC_TOLERANCE = 0.01 + 1e-6;
+
+    private static final String QUERY = "CALL de.evpathfinder.executeDiBaSEM($start, $end, $maxSoc, 20.0, 0.0, $config) "
+            + "YIELD id, travelTime, soc, chargingTime RETURN id, travelTime, soc, chargingTime";
+
+    private Neo4j neo4j;
+    private GraphDatabaseService db;
+
+    @BeforeEach
+    void setUp() {
+        this.neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().withProcedure(DiBaSEM.class).withProcedure(GraphProcedures.class).build();
+        this.db = this.neo4j.defaultDatabaseService();
+        TestGraphs.createGrid(this.db, 5, SIZE);
+        TestGraphs.execute(this.db, "CALL dibasem.loadGraph()", Map.of());
+        TestGraphs.execute(this.db, "CALL dibasem.configureCache(1000, 1.0)", Map.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        TestGraphs.execute(this.db, "CALL dibasem.configureCache(0)", Map.of());
+        TestGraphs.execute(this.db, "CALL dibasem.unloadGraph()", Map.of());
+        this.neo4j.close();
+    }
+
+    @Test
+    void searchesWhileTheGraphChanges() throws Exception {
+        List<String[]> queries = TestGraphs.randomQueries(9, SIZE, 20);
+        List<String> roads = new ArrayList<>();
+        try (Transaction tx = this.db.beginTx()) {
+            tx.getAllRelationships().forEach(relationship -> roads.add(relationship.getElementId()));
+        }
+        AtomicBoolean writing = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(READERS + 1);
+        try {
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int reader = 0; reader < READERS; reader++) {
+                Map<String, Object> config = reader % 2 == 0 ? Map.of() : Map.of("engine", "parallel", "threads", 2L);
+                readers.add(executor.submit(() -> {
+                    int searches = 0;
+                    while (writing.get() || searches < queries.size()) {
+                        String[] query = queries.get(searches++ % queries.size());
+                        this.assertFeasible(query, this.route(query, config));
+                    }
+                    return searches;
+                }));
+            }
+            Future<?> writer = executor.submit(() -> {
+                Random random = new Random(13);
+                for (int change = 0; change < 60; change++) {
+                    try (Transaction tx = this.db.beginTx()) {
+                        for (int road = 0; road < 5; road++) {
+                            Relationship relationship = tx.getRelationshipByElementId(roads.get(random.nextInt(roads.size())));
+                            relationship.setProperty(StoreGraph.DURATION_PROPERTY, 1.0 + random.nextInt(900) / 100.0);
+                            relationship.setProperty(StoreGraph.CONSUMPTION_PROPERTY, 0.5 + random.nextInt(450) / 100.0);
+                        }
+                        tx.commit();
+                    }
+                }
+                writing.set(false);
+            });
+            writer.get(5, TimeUnit.MINUTES);
+            for (Future<Integer> reader : readers) {
+                assertTrue(reader.get(5, TimeUnit.MINUTES) >= queries.size());
+            }
+        } finally {
+            writing.set(false);
+            executor.shutdownNow();
+        }
+
+        List<List<Map<String, Object>>> updated = new ArrayList<>();
+        for (String[] query : queries) {
+            updated.add(this.route(query, Map.of("cache", false)));
+        }
+        TestGraphs.execute(this.db, "CALL dibasem.unloadGraph()", Map.of());
+        TestGraphs.execute(this.db, "CALL dibasem.loadGraph()", Map.of());
+        for (int i = 0; i < queries.size(); i++) {
+            List<Map<String, Object>> fresh = this.route(queries.get(i), Map.of("cache", false));
+            assertEquals(fresh, updated.get(i), "query " + i);
+            assertEquals(fresh, this.route(queries.get(i), Map.of("engine", "parallel", "threads", 2L, "cache", false)), "query " + i);
+        }
+    }
+
+    private void assertFeasible(String[] query, List<Map<String, Object>> route) {
+        if (route.isEmpty()) {
+            return;
+        }
+        assertEquals(query[0], route.get(0).get("id"));
+        assertEquals(query[1], route.get(route.size() - 1).get("id"));
+        for (Map<String, Object> node : route) {
+            assertTrue((double) node.get("soc") >= -SOC_TOLERANCE, "soc at " + node.get("id"));
+        }
+    }
+
+    private List<Map<String, Object>> route(String[] query, Map<String, Object> config) {
+        return TestGraphs.execute(this.db, QUERY, Map.of("start", query[0], "end", query[1], "maxSoc", MAX_SOC, "config", config));
+    }
+}
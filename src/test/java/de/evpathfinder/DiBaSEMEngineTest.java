@@ -0,0 +1,149 @@
+package de.evpathfinder;
+
+import de.evpathfinder.hierarchy.Hierarchies;
+import de.evpathfinder.search.SearchStatus;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.io.TempDir;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Vergleicht die Routen der Suchverfahren mit denen der Standardsuche. Die parallele Suche muss identische Routen liefern.
+ * ALT, Hierarchie und Overlay koennen wegen der Abhaengigkeit von DiBaSEM von der Reihenfolge der Labels andere Routen finden,
+ * diese muessen aber zulaessig sein.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DiBaSEMEngineTest {
+
+    private static final int SIZE = 14;
+    private static final double MAX_SOC = 30.0;
+    private static final double EPSILON = 1e-6;
+    // Ladezeit und geladene Energie werden auf 0.01 gerundet, der SoC kann daher um diesen Betrag unter 0 fallen
+    private static final double SOC_TOLERANCE = 0.01 + EPSILON;
+
+    private static final String QUERY = "CALL de.evpathfinder.executeDiBaSEM($start, $end, $maxSoc, $initialCharge, 0.0, $config) "
+            + "YIELD id, travelTime, soc, chargingTime, status RETURN id, travelTime, soc, chargingTime, status";
+    private static final String EDGE_QUERY = "MATCH (:Location {id: $source})-[road]->(:Location {id: $target}) RETURN count(road) AS count";
+
+    @TempDir
+    static Path hierarchyDirectory;
+
+    private Neo4j neo4j;
+    private GraphDatabaseService db;
+    private List<String[]> queries;
+    private List<List<Map<String, Object>>> baseline;
+
+    @BeforeAll
+    void setUp() {
+        System.setProperty(Hierarchies.DIRECTORY_PROPERTY, hierarchyDirectory.toString());
+        this.neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().withProcedure(DiBaSEM.class).withProcedure(GraphProcedures.class).build();
+        this.db = this.neo4j.defaultDatabaseService();
+        TestGraphs.createGrid(this.db, 42, SIZE);
+        TestGraphs.execute(this.db, "CALL dibasem.computeLandmarks(8)", Map.of());
+        TestGraphs.execute(this.db, "CALL dibasem.loadGraph()", Map.of());
+        this.queries = TestGraphs.randomQueries(7, SIZE, 30);
+        this.baseline = new ArrayList<>();
+        for (String[] query : this.queries) {
+            this.baseline.add(this.route(query, Map.of()));
+        }
+    }
+
+    @AfterAll
+    void tearDown() {
+        TestGraphs.execute(this.db, "CALL dibasem.dropOverlay()", Map.of());
+        TestGraphs.execute(this.db, "CALL dibasem.unloadGraph()", Map.of());
+        Hierarchies.invalidate(this.db.databaseName());
+        this.neo4j.close();
+        System.clearProperty(Hierarchies.DIRECTORY_PROPERTY);
+    }
+
+    @Test
+    void baselineFindsRoutes() {
+        assertTrue(this.baseline.stream().filter(route -> !route.isEmpty()).count() > this.queries.size() / 2);
+        for (int i = 0; i < this.queries.size(); i++) {
+            this.assertFeasible(this.queries.get(i), this.baseline.get(i));
+        }
+    }
+
+    @Test
+    void parallelEngineReturnsIdenticalRoutes() {
+        for (int i = 0; i < this.queries.size(); i++) {
+            List<Map<String, Object>> route = this.route(this.queries.get(i), Map.of("engine", "parallel", "threads", 4L, "delta", 5.0));
+            assertEquals(this.withoutStatus(this.baseline.get(i)), this.withoutStatus(route), "query " + i);
+        }
+    }
+
+    @Test
+    void landmarkHeuristicReturnsFeasibleRoutes() {
+        this.assertFeasibleRoutes(Map.of("heuristic", "landmarks"), SearchStatus.COMPLETE);
+    }
+
+    @Test
+    void hierarchyReturnsFeasibleRoutes() {
+        TestGraphs.execute(this.db, "CALL dibasem.buildHierarchy()", Map.of());
+        this.assertFeasibleRoutes(Map.of("engine", "hierarchy"), SearchStatus.HEURISTIC);
+    }
+
+    @Test
+    void overlayReturnsFeasibleRoutes() {
+        TestGraphs.execute(this.db, "CALL dibasem.buildOverlay($maxBattery)", Map.of("maxBattery", MAX_SOC));
+        this.assertFeasibleRoutes(Map.of("engine", "overlay"), SearchStatus.HEURISTIC);
+    }
+
+    private void assertFeasibleRoutes(Map<String, Object> config, SearchStatus status) {
+        for (int i = 0; i < this.queries.size(); i++) {
+            List<Map<String, Object>> route = this.route(this.queries.get(i), config);
+            this.assertFeasible(this.queries.get(i), route);
+            if (!this.baseline.get(i).isEmpty()) {
+                assertFalse(route.isEmpty(), "query " + i);
+            }
+            if (!route.isEmpty()) {
+                assertEquals(status.name(), route.get(0).get("status"), "query " + i);
+            }
+        }
+    }
+
+    private void assertFeasible(String[] query, List<Map<String, Object>> route) {
+        if (route.isEmpty()) {
+            return;
+        }
+        assertEquals(query[0], route.get(0).get("id"));
+        assertEquals(query[1], route.get(route.size() - 1).get("id"));
+        for (int i = 0; i < route.size(); i++) {
+            Map<String, Object> node = route.get(i);
+            double soc = (double) node.get("soc");
+            assertTrue(soc >= -SOC_TOLERANCE && soc <= MAX_SOC + EPSILON, "soc " + soc + " at " + node.get("id"));
+            if (i > 0) {
+                Map<String, Object> previous = route.get(i - 1);
+                assertTrue((double) node.get("travelTime") >= (double) previous.get("travelTime") - EPSILON);
+                List<Map<String, Object>> edges = TestGraphs.execute(this.db, EDGE_QUERY, Map.of("source", previous.get("id"), "target", node.get("id")));
+                assertEquals(1L, edges.get(0).get("count"), "no road from " + previous.get("id") + " to " + node.get("id"));
+            }
+        }
+    }
+
+    private List<Map<String, Object>> route(String[] query, Map<String, Object> config) {
+        Map<String, Object> searchConfig = new HashMap<>(config);
+        searchConfig.put("cache", false);
+        double initialCharge = 10.0 + Math.abs(query[0].hashCode() % 20);
+        return TestGraphs.execute(this.db, QUERY, Map.of("start", query[0], "end", query[1], "maxSoc", MAX_SOC, "initialCharge", initialCharge, "config", searchConfig));
+    }
+
+    private List<List<Object>> withoutStatus(List<Map<String, Object>> route) {
+        return route.stream().map(node -> List.of(node.get("id"), node.get("travelTime"), node.get("soc"), node.get("chargingTime"))).toList();
+    }
+}
@@ -0,0 +1,224 @@
+package de.evpathfinder;
+
+import de.evpathfinder.graph.StoreGraph;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.QueryExecutionException;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Verhalten der Procedures auf einem kleinen Gitter, das jeder Test fuer sich veraendern darf.
+ */
+class DiBaSEMProceduresTest {
+
+    private static final int SIZE = 8;
+    private static final double MAX_SOC = 30.0;
+
+    private static final String QUERY = "CALL de.evpathfinder.executeDiBaSEM($start, $end, $maxSoc, 15.0, 0.0, $config) "
+            + "YIELD id, travelTime, soc, chargingTime, status RETURN id, travelTime, soc, chargingTime, status";
+    private static final String SET_DURATION = "MATCH (:Location {id: $source})-[road]->(:Location {id: $target}) SET road." + StoreGraph.DURATION_PROPERTY + " = road."
+            + StoreGraph.DURATION_PROPERTY + " * $factor";
+
+    private Neo4j neo4j;
+    private GraphDatabaseService db;
+
+    @BeforeEach
+    void setUp() {
+        this.neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().withProcedure(DiBaSEM.class).withProcedure(GraphProcedures.class).build();
+        this.db = this.neo4j.defaultDatabaseService();
+        TestGraphs.createGrid(this.db, 21, SIZE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Snapshots werden prozessweit je Datenbankname gehalten und muessen vor dem naechsten Test verworfen werden
+        TestGraphs.execute(this.db, "CALL dibasem.unloadGraph()", Map.of());
+        this.neo4j.close();
+    }
+
+    @Test
+    void rejectsLandmarksAfterAShorterDuration() {
+        TestGraphs.execute(this.db, "CALL dibasem.computeLandmarks(4)", Map.of());
+        Map<String, Object> landmarks = Map.of("heuristic", "landmarks", "cache", false);
+        assertFalse(this.route("n0_0", "n7_7", landmarks).isEmpty());
+
+        // Laengere Fahrzeiten lassen die Schranke zulaessig
+        TestGraphs.execute(this.db, SET_DURATION, Map.of("source", "n0_0", "target", "n0_1", "factor", 2.0));
+        assertFalse(this.route("n0_0", "n7_7", landmarks).isEmpty());
+
+        TestGraphs.execute(this.db, SET_DURATION, Map.of("source", "n0_0", "target", "n0_1", "factor", 0.25));
+        QueryExecutionException exception = assertThrows(QueryExecutionException.class, () -> this.route("n0_0", "n7_7", landmarks));
+        assertTrue(exception.getMessage().contains("computeLandmarks"), exception.getMessage());
+        assertFalse(this.route("n0_0", "n7_7", Map.of("cache", false)).isEmpty());
+
+        TestGraphs.execute(this.db, "CALL dibasem.computeLandmarks(4)", Map.of());
+        assertFalse(this.route("n0_0", "n7_7", landmarks).isEmpty());
+    }
+
+    @Test
+    void rejectsTheFormerBidirectionalOption() {
+        QueryExecutionException exception = assertThrows(QueryExecutionException.class, () -> this.route("n0_0", "n7_7", Map.of("bidirectional", true)));
+        assertTrue(exception.getMessage().contains("backwardPotential"), exception.getMessage());
+        assertFalse(this.route("n0_0", "n7_7", Map.of("backwardPotential", true, "cache", false)).isEmpty());
+    }
+
+    @Test
+    void streamsReachableNodesUntilTheCallerStops() {
+        String query = "CALL de.evpathfinder.executeReachability('n0_0', 60.0, 60.0, 0.0) YIELD id RETURN id";
+        assertEquals(SIZE * SIZE, TestGraphs.execute(this.db, query, Map.of()).size());
+        assertEquals(3, TestGraphs.execute(this.db, query + " LIMIT 3", Map.of()).size());
+    }
+
+    @Test
+    void returnsMatrixRowsInTheOrderOfTheTargets() {
+        List<String> sources = List.of("n3_3", "n0_7", "n6_1");
+        List<String> targets = List.of("n7_7", "n0_0", "missing", "n4_2", "n0_0", "n7_0");
+        String query = "CALL de.evpathfinder.executeMatrix($sources, $targets, $maxSoc, 15.0, 0.0, $config) "
+                + "YIELD source, target, travelTime, finalSoc RETURN source, target, travelTime, finalSoc";
+        for (Map<String, Object> config : List.of(Map.<String, Object>of("threads", 1L), Map.<String, Object>of("threads", 4L))) {
+            if ((long) config.get("threads") > 1) {
+                TestGraphs.execute(this.db, "CALL dibasem.loadGraph()", Map.of());
+            }
+            List<Map<String, Object>> rows = TestGraphs.execute(this.db, query, Map.of("sources", sources, "targets", targets, "maxSoc", MAX_SOC, "config", config));
+            int row = 0;
+            for (String source : sources) {
+                for (String target : List.of("n7_7", "n0_0", "n4_2", "n7_0")) {
+                    List<Map<String, Object>> route = this.route(source, target, Map.of("cache", false));
+                    if (route.isEmpty()) {
+                        continue;
+                    }
+                    Map<String, Object> end = route.get(route.size() - 1);
+                    assertEquals(Map.of("source", source, "target", target, "travelTime", end.get("travelTime"), "finalSoc", end.get("soc")), rows.get(row++), config.toString());
+                }
+            }
+            assertEquals(row, rows.size());
+        }
+    }
+
+    @Test
+    void evictsCachedRoutesWhenAChangeCanMakeThemFaster() {
+        TestGraphs.execute(this.db, "CALL dibasem.configureCache(100, 1.0)", Map.of());
+        try {
+            List<Map<String, Object>> route = this.route("n0_0", "n3_3", Map.of());
+            assertEquals("COMPLETE", route.get(0).get("status"));
+            assertEquals("CACHED", this.route("n0_0", "n3_3", Map.of()).get(0).get("status"));
+            Set<Object> routeNodes = route.stream().map(node -> node.get("id")).collect(Collectors.toSet());
+            assertFalse(routeNodes.contains("n7_6") || routeNodes.contains("n7_7"));
+
+            // Eine langsamere Kante abseits des Weges laesst den Eintrag bestehen
+            TestGraphs.execute(this.db, SET_DURATION, Map.of("source", "n7_6", "target", "n7_7", "factor", 2.0));
+            assertEquals("CACHED", this.route("n0_0", "n3_3", Map.of()).get(0).get("status"));
+
+            // Eine schnellere Kante kann jeden Weg verkuerzen, auch wenn sie bisher nicht befahren wird
+            TestGraphs.execute(this.db, SET_DURATION, Map.of("source", "n7_6", "target", "n7_7", "factor", 0.5));
+            assertEquals("COMPLETE", this.route("n0_0", "n3_3", Map.of()).get(0).get("status"));
+            assertEquals("CACHED", this.route("n0_0", "n3_3", Map.of()).get(0).get("status"));
+
+            // Ebenso eine neue Ladestation
+            TestGraphs.execute(this.db, "MATCH (node:Location {id: 'n7_7'}) SET node." + StoreGraph.CHARGING_POWER_PROPERTY + " = 50.0", Map.of());
+            assertEquals("COMPLETE", this.route("n0_0", "n3_3", Map.of()).get(0).get("status"));
+        } finally {
+            TestGraphs.execute(this.db, "CALL dibasem.configureCache(0)", Map.of());
+        }
+    }
+
+    @Test
+    void reroutesFromTheCurrentNodeOfThePreviousRoute() {
+        String query = "CALL de.evpathfinder.reroute($previousRoute, $currentId, $currentSoc, $maxSoc, 0.0, {}) "
+                + "YIELD id, travelTime, soc, chargingTime, status RETURN id, travelTime, soc, chargingTime, status";
+        List<Map<String, Object>> previousRoute = this.route("n0_0", "n7_7", Map.of("cache", false));
+        Map<String, Object> current = previousRoute.get(2);
+        double remainingTime = (double) previousRoute.get(previousRoute.size() - 1).get("travelTime") - (double) current.get("travelTime");
+        Map<String, Object> parameters = Map.of("previousRoute", previousRoute, "currentId", current.get("id"), "currentSoc", current.get("soc"), "maxSoc", MAX_SOC);
+
+        // Ohne Aenderung ist der restliche Weg hoechstens so schnell wie der bisherige
+        List<Map<String, Object>> route = TestGraphs.execute(this.db, query, parameters);
+        assertEquals(current.get("id"), route.get(0).get("id"));
+        assertEquals("n7_7", route.get(route.size() - 1).get("id"));
+        assertTrue((double) route.get(route.size() - 1).get("travelTime") <= remainingTime + 1e-6);
+        assertTrue(Set.of("COMPLETE", "REPAIRED").contains((String) route.get(0).get("status")), String.valueOf(route.get(0).get("status")));
+
+        // Nach einer Sperrung auf dem restlichen Weg liefert die Suche dasselbe wie eine neue Anfrage ab dem aktuellen Knoten
+        Map<String, Object> next = previousRoute.get(3);
+        TestGraphs.execute(this.db, SET_DURATION, Map.of("source", current.get("id"), "target", next.get("id"), "factor", 100.0));
+        route = TestGraphs.execute(this.db, query, parameters);
+        List<Map<String, Object>> fresh = TestGraphs.execute(this.db,
+                "CALL de.evpathfinder.executeDiBaSEM($start, 'n7_7', $maxSoc, $initialCharge, 0.0, {cache: false}) YIELD id, travelTime RETURN id, travelTime",
+                Map.of("start", current.get("id"), "maxSoc", MAX_SOC, "initialCharge", current.get("soc")));
+        assertEquals(fresh.stream().map(node -> node.get("id")).toList(), route.stream().map(node -> node.get("id")).toList());
+    }
+
+    @Test
+    void reportsNoErrorEstimateOnceMaxLabelsPerNodeRemovedALabel() {
+        String query = "CALL de.evpathfinder.profileDiBaSEM('n0_0', 'n7_7', $maxSoc, 15.0, 0.0, $config) YIELD found, errorEstimate RETURN found, errorEstimate";
+        Map<String, Object> exact = TestGraphs.execute(this.db, query, Map.of("maxSoc", MAX_SOC, "config", Map.of())).get(0);
+        assertEquals(true, exact.get("found"));
+        assertEquals(0.0, exact.get("errorEstimate"));
+        Map<String, Object> merged = TestGraphs.execute(this.db, query, Map.of("maxSoc", MAX_SOC, "config", Map.of("epsilonTime", 0.5))).get(0);
+        assertTrue((double) merged.get("errorEstimate") >= 0.0);
+        Map<String, Object> capped = TestGraphs.execute(this.db, query, Map.of("maxSoc", MAX_SOC, "config", Map.of("maxLabelsPerNode", 1L))).get(0);
+        assertEquals(true, capped.get("found"));
+        assertNull(capped.get("errorEstimate"));
+    }
+
+    @Test
+    void stopsAtALimitWithTheStatusOfThatLimit() {
+        // Ohne Heuristik besteht der Teilweg bis zum naechsten Knoten nur aus dem Start
+        List<Map<String, Object>> route = this.route("n0_0", "n7_7", Map.of("maxLabels", 1L, "cache", false));
+        assertEquals(List.of("n0_0"), route.stream().map(node -> node.get("id")).toList());
+        assertEquals("LABEL_LIMIT", route.get(0).get("status"));
+        assertEquals("MEMORY_LIMIT", this.route("n0_0", "n7_7", Map.of("maxRetainedLabels", 1L, "cache", false)).get(0).get("status"));
+        // Die Zeit wird nicht bei jedem Label geprueft, eine kurze Suche kann daher noch vor der Grenze fertig werden
+        String status = (String) this.route("n0_0", "n7_7", Map.of("timeout", 1e-6, "cache", false)).get(0).get("status");
+        assertTrue(Set.of("TIMEOUT", "COMPLETE").contains(status), status);
+
+        // Abgebrochene Wege landen nicht im Cache
+        TestGraphs.execute(this.db, "CALL dibasem.configureCache(100, 1.0)", Map.of());
+        try {
+            assertEquals("LABEL_LIMIT", this.route("n0_0", "n7_7", Map.of("maxLabels", 1L)).get(0).get("status"));
+            assertEquals("COMPLETE", this.route("n0_0", "n7_7", Map.of()).get(0).get("status"));
+        } finally {
+            TestGraphs.execute(this.db, "CALL dibasem.configureCache(0)", Map.of());
+        }
+        assertThrows(QueryExecutionException.class, () -> this.route("n0_0", "n7_7", Map.of("maxLabels", 0L)));
+    }
+
+    @Test
+    void energyPruningNeverReturnsASlowerRoute() {
+        int found = 0;
+        for (String[] query : TestGraphs.randomQueries(31, SIZE, 20)) {
+            List<Map<String, Object>> route = this.route(query[0], query[1], Map.of("cache", false));
+            List<Map<String, Object>> pruned = this.route(query[0], query[1], Map.of("energyPruning", true, "cache", false));
+            if (route.isEmpty()) {
+                continue;
+            }
+            found++;
+            assertFalse(pruned.isEmpty(), query[0] + " -> " + query[1]);
+            double travelTime = (double) route.get(route.size() - 1).get("travelTime");
+            double prunedTravelTime = (double) pruned.get(pruned.size() - 1).get("travelTime");
+            assertTrue(prunedTravelTime <= travelTime + 1e-6, query[0] + " -> " + query[1]);
+            for (Map<String, Object> node : pruned) {
+                assertTrue((double) node.get("soc") >= -0.01 - 1e-6, "soc at " + node.get("id"));
+            }
+        }
+        assertTrue(found > 10);
+    }
+
+    private List<Map<String, Object>> route(String start, String end, Map<String, Object> config) {
+        return TestGraphs.execute(this.db, QUERY, Map.of("start", start, "end", end, "maxSoc", MAX_SOC, "config", config));
+    }
+}
@@ -0,0 +1,83 @@
+package de.evpathfinder;
+
+import de.evpathfinder.graph.StoreGraph;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Erzeugt reproduzierbare Strassennetze fuer die Tests: ein Gitter mit Strassen in beide Richtungen, zufaelligen Fahrzeiten und Verbraeuchen
+ * und etwa 15 % Ladestationen.
+ */
+public final class TestGraphs {
+
+    public static final RelationshipType ROAD = RelationshipType.withName("ROAD");
+
+    private TestGraphs() {
+    }
+
+    public static String id(int row, int column) {
+        return "n" + row + "_" + column;
+    }
+
+    public static void createGrid(GraphDatabaseService db, long seed, int size) {
+        Random random = new Random(seed);
+        try (Transaction tx = db.beginTx()) {
+            Node[][] nodes = new Node[size][size];
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    Node node = tx.createNode(StoreGraph.NODE_LABEL);
+                    node.setProperty(StoreGraph.ID_PROPERTY, id(row, column));
+                    node.setProperty(StoreGraph.CHARGING_POWER_PROPERTY, random.nextDouble() < 0.15 ? (random.nextBoolean() ? 50.0 : 150.0) : 0.0);
+                    node.setProperty(StoreGraph.LATITUDE_PROPERTY, 50.0 + row * 0.01);
+                    node.setProperty(StoreGraph.LONGITUDE_PROPERTY, 8.0 + column * 0.015);
+                    nodes[row][column] = node;
+                }
+            }
+            for (int row = 0; row < size; row++) {
+                for (int column = 0; column < size; column++) {
+                    if (row + 1 < size) {
+                        createRoads(nodes[row][column], nodes[row + 1][column], random);
+                    }
+                    if (column + 1 < size) {
+                        createRoads(nodes[row][column], nodes[row][column + 1], random);
+                    }
+                }
+            }
+            tx.commit();
+        }
+    }
+
+    public static List<String[]> randomQueries(long seed, int size, int count) {
+        // Paare aus Start- und Zielknoten
+        Random random = new Random(seed);
+        List<String[]> queries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            queries.add(new String[]{id(random.nextInt(size), random.nextInt(size)), id(random.nextInt(size), random.nextInt(size))});
+        }
+        return queries;
+    }
+
+    public static List<Map<String, Object>> execute(GraphDatabaseService db, String query, Map<String, Object> parameters) {
+        try (Transaction tx = db.beginTx()) {
+            List<Map<String, Object>> rows = tx.execute(query, parameters).stream().toList();
+            tx.commit();
+            return rows;
+        }
+    }
+
+    private static void createRoads(Node first, Node second, Random random) {
+        for (Node[] road : new Node[][]{{first, second}, {second, first}}) {
+            Relationship relationship = road[0].createRelationshipTo(road[1], ROAD);
+            relationship.setProperty(StoreGraph.DURATION_PROPERTY, 1.0 + Math.round(random.nextDouble() * 900) / 100.0);
+            relationship.setProperty(StoreGraph.CONSUMPTION_PROPERTY, 0.5 + Math.round(random.nextDouble() * 450) / 100.0);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package de.evpathfinder.cache;
+
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.data.VisitedNodeId;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class RouteCacheTest {
+
+    @Test
+    void dropsRoutesWhoseSearchStartedBeforeAnInvalidation() {
+        RouteCache cache = new RouteCache(10, 1.0);
+        RouteKey key = cache.createKey("a", "b", 30.0, 10.0, 0.0, "");
+        long generation = cache.getGeneration();
+        // Die Invalidierung betrifft einen anderen Knoten, der Weg kann trotzdem auf dem alten Graphen gefunden worden sein
+        cache.invalidate(Set.of("c"));
+        cache.put(key, route(), generation);
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get(key, 10.0));
+
+        cache.put(key, route(), cache.getGeneration());
+        assertEquals(1, cache.getSize());
+        assertNotNull(cache.get(key, 10.0));
+    }
+
+    @Test
+    void evictsOnlyRoutesThroughChangedNodes() {
+        RouteCache cache = new RouteCache(10, 1.0);
+        RouteKey key = cache.createKey("a", "b", 30.0, 10.0, 0.0, "");
+        cache.put(key, route(), cache.getGeneration());
+        cache.invalidate(Set.of("c"));
+        assertEquals(1, cache.getSize());
+        cache.invalidate(Set.of("b"));
+        assertEquals(0, cache.getSize());
+        assertEquals(1, cache.getInvalidations());
+    }
+
+    private static CachedRoute route() {
+        // a -> b, 5 Minuten und 2 kWh ohne Laden
+        List<VisitedNode> route = List.of(new VisitedNode(new VisitedNodeId("a", -1, 0), 0.0, 10.0, 0.0),
+                new VisitedNode(new VisitedNodeId("b", -1, 1), 5.0, 8.0, 0.0));
+        return new CachedRoute(10.0, route, new double[]{0.0, 5.0}, new double[]{0.0, 2.0}, new double[]{0.0, 0.0});
+    }
+}
@@ -0,0 +1,62 @@
+package de.evpathfinder.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LabelStoreTest {
+
+    @Test
+    void reusesFreedSlots() {
+        LabelStore store = LabelStore.acquire();
+        List<Path> paths = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            Path path = path(i);
+            store.put(path.getLastNode().id(), path);
+            paths.add(path);
+        }
+        for (int i = 0; i < 50; i++) {
+            store.remove(paths.get(i).getLastNode().id());
+        }
+        int capacity = store.capacity();
+        for (int i = 100; i < 150; i++) {
+            Path path = path(i);
+            store.put(path.getLastNode().id(), path);
+        }
+        assertEquals(100, store.size());
+        assertEquals(capacity, store.capacity());
+        assertNull(store.get(paths.get(0).getLastNode().id()));
+        assertSame(paths.get(99), store.get(paths.get(99).getLastNode().id()));
+        store.release();
+    }
+
+    @Test
+    void keepsOnlySmallTablesForTheNextSearch() {
+        LabelStore store = LabelStore.acquire();
+        for (int i = 0; i <= LabelStore.MAX_POOLED_LABELS; i++) {
+            Path path = path(i);
+            store.put(path.getLastNode().id(), path);
+        }
+        store.getOrCreateFront(LabelStore.MAX_POOLED_NODES * 4);
+        store.release();
+
+        // Derselbe Speicher wird wiederverwendet, aber ohne die grossen Tabellen
+        LabelStore next = LabelStore.acquire();
+        assertSame(store, next);
+        assertTrue(next.capacity() <= LabelStore.MAX_POOLED_LABELS);
+        assertTrue(next.frontCapacity() <= LabelStore.MAX_POOLED_NODES);
+        assertEquals(0, next.size());
+        assertNull(next.getFront(LabelStore.MAX_POOLED_NODES * 4));
+        next.release();
+    }
+
+    private static Path path(int node) {
+        return new Path(new VisitedNode(new VisitedNodeId("n" + node, node, node), node, 10.0, 0.0), false);
+    }
+}
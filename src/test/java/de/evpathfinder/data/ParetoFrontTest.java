@@ -0,0 +1,120 @@
+package de.evpathfinder.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ParetoFrontTest {
+
+    @Test
+    void dominatesOnlyWithStrictlyBetterTravelTimeAndSoc() {
+        ParetoFront front = new ParetoFront();
+        front.add(label(10.0, 5.0));
+        assertTrue(front.isDominated(11.0, 4.0));
+        // Gleiche Reisezeit oder gleicher SoC dominiert nicht
+        assertFalse(front.isDominated(10.0, 4.0));
+        assertFalse(front.isDominated(11.0, 5.0));
+        assertFalse(front.isDominated(9.0, 4.0));
+        assertFalse(front.isDominated(11.0, 6.0));
+    }
+
+    @Test
+    void removesDominatedLabels() {
+        ParetoFront front = new ParetoFront();
+        VisitedNode slow = label(20.0, 3.0);
+        VisitedNode slower = label(30.0, 4.0);
+        VisitedNode slowest = label(40.0, 9.0);
+        front.add(slow);
+        front.add(slower);
+        front.add(slowest);
+        assertEquals(3, front.size());
+
+        VisitedNode fast = label(10.0, 5.0);
+        assertEquals(2, front.add(fast));
+        Set<VisitedNode> dominated = Set.of(front.getDominated(0), front.getDominated(1));
+        assertEquals(Set.of(slow, slower), dominated);
+        assertEquals(2, front.size());
+        assertSame(fast, front.getFastest());
+    }
+
+    @Test
+    void keepsLabelsWithEqualTravelTime() {
+        ParetoFront front = new ParetoFront();
+        VisitedNode first = label(10.0, 5.0);
+        VisitedNode second = label(10.0, 3.0);
+        front.add(first);
+        assertEquals(0, front.add(second));
+        assertEquals(2, front.size());
+        assertSame(first, front.getFastest());
+    }
+
+    @Test
+    void removesTheLabelWithTheSmallestSocGain() {
+        ParetoFront front = new ParetoFront();
+        VisitedNode fastest = label(10.0, 1.0);
+        VisitedNode small = label(20.0, 1.5);
+        VisitedNode large = label(30.0, 6.0);
+        front.add(fastest);
+        front.add(small);
+        front.add(large);
+        assertSame(small, front.removeMostRedundant());
+        assertEquals(2, front.size());
+        assertSame(large, front.removeMostRedundant());
+        assertSame(fastest, front.getFastest());
+    }
+
+    @Test
+    void isEmptyWithoutLabels() {
+        ParetoFront front = new ParetoFront();
+        assertEquals(0, front.size());
+        assertNull(front.getFastest());
+        assertFalse(front.isDominated(0.0, 0.0));
+    }
+
+    @Test
+    void matchesABruteForceFront() {
+        // Wie in der Suche werden nur nicht dominierte Labels hinzugefuegt
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            ParetoFront front = new ParetoFront();
+            List<VisitedNode> reference = new ArrayList<>();
+            for (int i = 0; i < 50; i++) {
+                VisitedNode label = label(random.nextInt(30), random.nextInt(30));
+                boolean dominated = reference.stream().anyMatch(other -> other.travelTime() < label.travelTime() && other.soc() > label.soc());
+                assertEquals(dominated, front.isDominated(label.travelTime(), label.soc()));
+                if (dominated) {
+                    continue;
+                }
+                Set<VisitedNode> expected = new HashSet<>();
+                for (VisitedNode other : reference) {
+                    if (other.travelTime() > label.travelTime() && other.soc() < label.soc()) {
+                        expected.add(other);
+                    }
+                }
+                reference.removeAll(expected);
+                reference.add(label);
+                int count = front.add(label);
+                Set<VisitedNode> removed = new HashSet<>();
+                for (int j = 0; j < count; j++) {
+                    removed.add(front.getDominated(j));
+                }
+                assertEquals(expected, removed);
+                assertEquals(reference.size(), front.size());
+            }
+        }
+    }
+
+    private static VisitedNode label(double travelTime, double soc) {
+        return new VisitedNode(new VisitedNodeId("n", 0, 0), travelTime, soc, 0.0);
+    }
+}
@@ -0,0 +1,151 @@
+package de.evpathfinder.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PriorityQueueTest {
+
+    @Test
+    void pollsInOrderOfPriority() {
+        PriorityQueue queue = new PriorityQueue();
+        VisitedNodeId a = label(0);
+        VisitedNodeId b = label(1);
+        VisitedNodeId c = label(2);
+        queue.put(a, 3.0);
+        queue.put(b, 1.0);
+        queue.put(c, 2.0);
+        assertEquals(1.0, queue.peekPriority());
+        assertSame(b, queue.poll());
+        assertSame(c, queue.poll());
+        assertSame(a, queue.poll());
+        assertTrue(queue.isEmpty());
+        assertThrows(NoSuchElementException.class, queue::poll);
+        assertThrows(NoSuchElementException.class, queue::peekPriority);
+    }
+
+    @Test
+    void pollsEqualPrioritiesInInsertionOrder() {
+        PriorityQueue queue = new PriorityQueue();
+        List<VisitedNodeId> labels = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            VisitedNodeId label = label(i);
+            labels.add(label);
+            queue.put(label, 5.0);
+        }
+        for (VisitedNodeId label : labels) {
+            assertSame(label, queue.poll());
+        }
+    }
+
+    @Test
+    void updatesThePriorityOfContainedLabels() {
+        PriorityQueue queue = new PriorityQueue();
+        VisitedNodeId a = label(0);
+        VisitedNodeId b = label(1);
+        VisitedNodeId c = label(2);
+        queue.put(a, 1.0);
+        queue.put(b, 2.0);
+        queue.put(c, 3.0);
+        // decrease-key
+        queue.put(c, 0.5);
+        // increase-key
+        queue.put(a, 4.0);
+        assertEquals(3, queue.size());
+        assertSame(c, queue.poll());
+        assertSame(b, queue.poll());
+        assertSame(a, queue.poll());
+    }
+
+    @Test
+    void removesLabels() {
+        PriorityQueue queue = new PriorityQueue();
+        VisitedNodeId a = label(0);
+        VisitedNodeId b = label(1);
+        VisitedNodeId c = label(2);
+        queue.put(a, 1.0);
+        queue.put(b, 2.0);
+        queue.put(c, 3.0);
+        assertTrue(queue.remove(a));
+        assertFalse(queue.remove(a));
+        assertFalse(queue.contains(a));
+        assertTrue(queue.contains(b));
+        assertSame(b, queue.poll());
+        assertFalse(queue.contains(b));
+        assertFalse(queue.remove(b));
+        assertSame(c, queue.poll());
+    }
+
+    @Test
+    void collectsLabelsUpToAPriority() {
+        PriorityQueue queue = new PriorityQueue();
+        for (int i = 0; i < 100; i++) {
+            queue.put(label(i), i);
+        }
+        List<VisitedNodeId> collected = new ArrayList<>();
+        queue.collect(9.5, Integer.MAX_VALUE, collected);
+        assertEquals(10, collected.size());
+        assertTrue(collected.stream().allMatch(label -> label.getNode() < 10));
+        assertEquals(100, queue.size());
+
+        collected.clear();
+        queue.collect(50.0, 5, collected);
+        assertEquals(5, collected.size());
+    }
+
+    @Test
+    void matchesASortedReference() {
+        // Zufaellige Folge aus put, decrease-key, remove und poll gegen eine sortierte Liste
+        Random random = new Random(3);
+        PriorityQueue queue = new PriorityQueue();
+        List<Entry> reference = new ArrayList<>();
+        long order = 0;
+        for (int step = 0; step < 20_000; step++) {
+            int operation = random.nextInt(4);
+            if (operation == 0 || reference.isEmpty()) {
+                Entry entry = new Entry(label(step), random.nextInt(100), order++);
+                reference.add(entry);
+                queue.put(entry.label, entry.priority);
+            } else if (operation == 1) {
+                Entry entry = reference.get(random.nextInt(reference.size()));
+                entry.priority = random.nextInt(100);
+                queue.put(entry.label, entry.priority);
+            } else if (operation == 2) {
+                Entry entry = reference.remove(random.nextInt(reference.size()));
+                assertTrue(queue.remove(entry.label));
+            } else {
+                Entry first = reference.stream().min(Comparator.comparingDouble((Entry entry) -> entry.priority).thenComparingLong(entry -> entry.order)).orElseThrow();
+                reference.remove(first);
+                assertSame(first.label, queue.poll());
+            }
+            assertEquals(reference.size(), queue.size());
+        }
+    }
+
+    private static VisitedNodeId label(int node) {
+        return new VisitedNodeId("n" + node, node, node);
+    }
+
+    private static final class Entry {
+
+        private final VisitedNodeId label;
+        private double priority;
+        private final long order;
+
+        private Entry(VisitedNodeId label, double priority, long order) {
+            this.label = label;
+            this.priority = priority;
+            this.order = order;
+        }
+    }
+}
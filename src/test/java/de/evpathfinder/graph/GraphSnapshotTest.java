@@ -0,0 +1,142 @@
+package de.evpathfinder.graph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.Relationship;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GraphSnapshotTest {
+
+    private static final RelationshipType ROAD = RelationshipType.withName("ROAD");
+    // Mehr Kanten als ein Segment der Kantenwerte fasst
+    private static final int CHAIN_LENGTH = 3000;
+
+    private Neo4j neo4j;
+    private GraphDatabaseService db;
+
+    @BeforeEach
+    void setUp() {
+        this.neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        this.db = this.neo4j.defaultDatabaseService();
+        try (Transaction tx = this.db.beginTx()) {
+            // Kette in beide Richtungen, dazu ein Knoten ohne Label mit Kanten von und zum Netz
+            Node previous = null;
+            for (int i = 0; i < CHAIN_LENGTH; i++) {
+                Node node = tx.createNode(StoreGraph.NODE_LABEL);
+                node.setProperty(StoreGraph.ID_PROPERTY, "n" + i);
+                if (previous != null) {
+                    road(previous, node, i);
+                    road(node, previous, i + 0.5);
+                }
+                previous = node;
+            }
+            Node other = tx.createNode(Label.label("Other"));
+            other.setProperty(StoreGraph.ID_PROPERTY, "other");
+            road(previous, other, 1.0);
+            road(other, previous, 1.0);
+            tx.commit();
+        }
+        try (Transaction tx = this.db.beginTx()) {
+            GraphSnapshots.load(this.db.databaseName(), tx);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        GraphSnapshots.unload(this.db.databaseName());
+        this.neo4j.close();
+    }
+
+    @Test
+    void containsOnlyTheNetwork() {
+        GraphSnapshot snapshot = GraphSnapshots.get(this.db.databaseName());
+        assertEquals(CHAIN_LENGTH, snapshot.getNodeCount());
+        assertEquals(2 * (CHAIN_LENGTH - 1), snapshot.getEdgeCount());
+        assertEquals(-1, snapshot.findNode("other"));
+    }
+
+    @Test
+    void patchesChangedEdgesIntoACopy() {
+        GraphSnapshot snapshot = GraphSnapshots.get(this.db.databaseName());
+        GraphSnapshot updated = snapshot.withEdgeUpdates(List.of(
+                new GraphSnapshot.EdgeUpdate("n1", "n2", 2.0, 0.0, 7.0, 3.0),
+                new GraphSnapshot.EdgeUpdate("n2999", "n2998", 2999.5, 0.0, 1.0, 1.0)));
+        assertEquals(7.0, updated.getDuration(findEdge(updated, "n1", "n2")));
+        assertEquals(3.0, updated.getConsumption(findEdge(updated, "n1", "n2")));
+        assertEquals(1.0, updated.getDuration(findEdge(updated, "n2999", "n2998")));
+        assertEquals(2.0, snapshot.getDuration(findEdge(snapshot, "n1", "n2")));
+        assertEquals(2999.5, snapshot.getDuration(findEdge(snapshot, "n2999", "n2998")));
+        for (int edge = 0; edge < snapshot.getEdgeCount(); edge++) {
+            if (edge != findEdge(snapshot, "n1", "n2") && edge != findEdge(snapshot, "n2999", "n2998")) {
+                assertEquals(snapshot.getDuration(edge), updated.getDuration(edge));
+            }
+        }
+    }
+
+    @Test
+    void followsCommittedChangesOfTheNetworkOnly() {
+        String databaseName = this.db.databaseName();
+        GraphSnapshot snapshot = GraphSnapshots.get(databaseName);
+        // Kanten zu Knoten ohne Label gehoeren nicht zum Netz
+        try (Transaction tx = this.db.beginTx()) {
+            Node other = tx.findNode(Label.label("Other"), StoreGraph.ID_PROPERTY, "other");
+            other.getRelationships().forEach(relationship -> relationship.setProperty(StoreGraph.DURATION_PROPERTY, 9.0));
+            tx.commit();
+        }
+        assertSame(snapshot, GraphSnapshots.get(databaseName));
+
+        try (Transaction tx = this.db.beginTx()) {
+            Node node = tx.findNode(StoreGraph.NODE_LABEL, StoreGraph.ID_PROPERTY, "n1");
+            for (Relationship relationship : node.getRelationships()) {
+                if (relationship.getEndNode().getProperty(StoreGraph.ID_PROPERTY).equals("n2")) {
+                    relationship.setProperty(StoreGraph.DURATION_PROPERTY, 5.0);
+                }
+            }
+            tx.commit();
+        }
+        GraphSnapshot updated = GraphSnapshots.get(databaseName);
+        assertNotSame(snapshot, updated);
+        assertEquals(5.0, updated.getDuration(findEdge(updated, "n1", "n2")));
+
+        // Mit dem Label kommt der Knoten zum Netz hinzu, der Snapshot wird neu aufgebaut
+        try (Transaction tx = this.db.beginTx()) {
+            tx.findNode(Label.label("Other"), StoreGraph.ID_PROPERTY, "other").addLabel(StoreGraph.NODE_LABEL);
+            tx.commit();
+        }
+        assertTrue(GraphSnapshots.get(databaseName) == null || GraphSnapshots.get(databaseName).findNode("other") >= 0);
+        try (Transaction tx = this.db.beginTx()) {
+            assertEquals(CHAIN_LENGTH + 1, GraphSnapshot.build(tx).getNodeCount());
+        }
+    }
+
+    private static void road(Node source, Node target, double duration) {
+        Relationship relationship = source.createRelationshipTo(target, ROAD);
+        relationship.setProperty(StoreGraph.DURATION_PROPERTY, duration);
+        relationship.setProperty(StoreGraph.CONSUMPTION_PROPERTY, 0.0);
+    }
+
+    private static int findEdge(GraphSnapshot snapshot, String sourceId, String targetId) {
+        int source = snapshot.findNode(sourceId);
+        int target = snapshot.findNode(targetId);
+        for (int edge = snapshot.getFirstEdge(source); edge < snapshot.getEndEdge(source); edge++) {
+            if (snapshot.getTarget(edge) == target) {
+                return edge;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,76 @@
+package de.evpathfinder.graph;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.GraphDatabaseService;
+import org.neo4j.graphdb.Label;
+import org.neo4j.graphdb.Node;
+import org.neo4j.graphdb.RelationshipType;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StoreGraphTest {
+
+    private Neo4j neo4j;
+    private GraphDatabaseService db;
+
+    @BeforeEach
+    void setUp() {
+        this.neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build();
+        this.db = this.neo4j.defaultDatabaseService();
+        try (Transaction tx = this.db.beginTx()) {
+            Node a = createNode(tx, StoreGraph.NODE_LABEL, "a", 0.0);
+            Node b = createNode(tx, StoreGraph.NODE_LABEL, "b", 50.0);
+            createNode(tx, StoreGraph.NODE_LABEL, "c", 150.0);
+            // Gleiche Eigenschaften, aber ohne das Label des Netzes
+            createNode(tx, Label.label("Other"), "d", 150.0);
+            a.createRelationshipTo(b, RelationshipType.withName("ROAD")).setProperty(StoreGraph.DURATION_PROPERTY, 2.0);
+            tx.commit();
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        this.neo4j.close();
+    }
+
+    @Test
+    void findsOnlyNodesOfTheNetwork() {
+        try (Transaction tx = this.db.beginTx()) {
+            StoreGraph graph = new StoreGraph(tx);
+            int a = graph.findNode("a");
+            assertTrue(a >= 0);
+            assertEquals("a", graph.getId(a));
+            assertEquals(a, graph.findNode("a"));
+            assertEquals(-1, graph.findNode("d"));
+            assertEquals(-1, graph.findNode("missing"));
+            assertEquals(1, graph.getEndEdge(a) - graph.getFirstEdge(a));
+            assertEquals(2.0, graph.getDuration(graph.getFirstEdge(a)));
+        }
+    }
+
+    @Test
+    void readsOnlyStationsOfTheNetwork() {
+        try (Transaction tx = this.db.beginTx()) {
+            StoreGraph graph = new StoreGraph(tx);
+            Set<String> stations = Arrays.stream(graph.getStations()).mapToObj(graph::getId).collect(Collectors.toSet());
+            assertEquals(Set.of("b", "c"), stations);
+        }
+    }
+
+    private static Node createNode(Transaction tx, Label label, String id, double chargingPower) {
+        Node node = tx.createNode(label);
+        node.setProperty(StoreGraph.ID_PROPERTY, id);
+        node.setProperty(StoreGraph.CHARGING_POWER_PROPERTY, chargingPower);
+        return node;
+    }
+}
@@ -0,0 +1,47 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.TestGraphs;
+import de.evpathfinder.data.Path;
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.graph.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DiBaSEMSearchTest {
+
+    private static final int SIZE = 18;
+    // Ladezeit und geladene Energie werden auf 0.01 gerundet, der SoC kann daher um diesen Betrag unter 0 fallen
+    private static final double SOC_TOLERANCE = 0.01 + 1e-6;
+
+    @Test
+    void keepsTheSocPositiveWhenAStationIsAddedAfterACharge() {
+        // Wird nach einer Ladestation eine weitere eingefuegt, laedt die erste weniger. Die Ladezeit der neuen Ladestation
+        // muss dann mit dem niedrigeren Ladestand berechnet werden, vorher endeten hier Routen mit negativem Ladestand.
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build()) {
+            TestGraphs.createGrid(neo4j.defaultDatabaseService(), 11, SIZE);
+            GraphSnapshot graph;
+            try (Transaction tx = neo4j.defaultDatabaseService().beginTx()) {
+                graph = GraphSnapshot.build(tx);
+            }
+            int query = 0;
+            int routes = 0;
+            for (String[] ids : TestGraphs.randomQueries(23, SIZE, 60)) {
+                Path path = new DiBaSEMSearch(graph, 20.0, 10.0, 0.0).search(graph.findNode(ids[0]), graph.findNode(ids[1]));
+                if (path != null) {
+                    routes++;
+                    assertEquals(ids[1], path.getLastNode().id().getName());
+                    for (VisitedNode node : path.getPath()) {
+                        assertTrue(node.soc() >= -SOC_TOLERANCE, "query " + query + ": soc " + node.soc() + " at " + node.id().getName());
+                    }
+                }
+                query++;
+            }
+            assertTrue(routes > 30);
+        }
+    }
+}
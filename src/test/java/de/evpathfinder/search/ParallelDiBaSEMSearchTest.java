@@ -0,0 +1,58 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.TestGraphs;
+import de.evpathfinder.data.Path;
+import de.evpathfinder.data.VisitedNode;
+import de.evpathfinder.graph.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Die parallele Suche wird hier direkt auf dem Snapshot aufgerufen, sodass der Pool auch auf Maschinen mit einem Prozessor verwendet wird,
+ * auf denen der Procedure sequentiell sucht.
+ */
+class ParallelDiBaSEMSearchTest {
+
+    private static final int SIZE = 16;
+
+    @Test
+    void findsTheSameRoutesAsTheSequentialSearch() {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build()) {
+            TestGraphs.createGrid(neo4j.defaultDatabaseService(), 3, SIZE);
+            GraphSnapshot graph;
+            try (Transaction tx = neo4j.defaultDatabaseService().beginTx()) {
+                graph = GraphSnapshot.build(tx);
+            }
+            int query = 0;
+            for (String[] ids : TestGraphs.randomQueries(17, SIZE, 40)) {
+                int start = graph.findNode(ids[0]);
+                int end = graph.findNode(ids[1]);
+                double maxSoc = 20.0 + query % 20;
+                double initialCharge = maxSoc / 2;
+                for (double delta : new double[]{1.0, 10.0, 100.0}) {
+                    Path expected = new DiBaSEMSearch(graph, maxSoc, initialCharge, 0.0).search(start, end);
+                    Path actual = new ParallelDiBaSEMSearch(graph, maxSoc, initialCharge, 0.0, Heuristic.NONE, 4, delta).search(start, end);
+                    assertEquals(toRows(expected), toRows(actual), "query " + query + " with delta " + delta);
+                }
+                query++;
+            }
+        }
+    }
+
+    private static List<List<Object>> toRows(Path path) {
+        if (path == null) {
+            return List.of();
+        }
+        return path.getPath().stream().map(ParallelDiBaSEMSearchTest::toRow).toList();
+    }
+
+    private static List<Object> toRow(VisitedNode node) {
+        return List.of(node.id().getName(), node.travelTime(), node.soc(), node.chargingTime());
+    }
+}
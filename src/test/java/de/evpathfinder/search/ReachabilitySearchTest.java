@@ -0,0 +1,76 @@
+package de.evpathfinder.search;
+
+import de.evpathfinder.TestGraphs;
+import de.evpathfinder.data.Path;
+import de.evpathfinder.graph.GraphSnapshot;
+import org.junit.jupiter.api.Test;
+import org.neo4j.graphdb.Transaction;
+import org.neo4j.harness.Neo4j;
+import org.neo4j.harness.Neo4jBuilders;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReachabilitySearchTest {
+
+    private static final int SIZE = 10;
+
+    @Test
+    void streamsEveryNodeOnceAndReleasesItsLabelsOnlyOnce() {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build()) {
+            TestGraphs.createGrid(neo4j.defaultDatabaseService(), 8, SIZE);
+            GraphSnapshot graph;
+            try (Transaction tx = neo4j.defaultDatabaseService().beginTx()) {
+                graph = GraphSnapshot.build(tx);
+            }
+            int start = graph.findNode(TestGraphs.id(0, 0));
+            ReachabilitySearch first = new ReachabilitySearch(graph, start, 60.0, 60.0, 0.0, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+            List<String> firstNodes = drain(first);
+            assertEquals(SIZE * SIZE, firstNodes.size());
+            assertEquals(SIZE * SIZE, new HashSet<>(firstNodes).size());
+            assertEquals(TestGraphs.id(0, 0), firstNodes.get(0));
+            assertNull(first.next());
+
+            // Nach dem letzten Knoten ist der Speicher bereits freigegeben und wird von der naechsten Suche verwendet.
+            // Ein weiteres release(), etwa beim Schliessen des Streams, darf diese Suche nicht stoeren.
+            ReachabilitySearch second = new ReachabilitySearch(graph, start, 60.0, 60.0, 0.0, Double.POSITIVE_INFINITY, Double.POSITIVE_INFINITY);
+            first.release();
+            assertEquals(firstNodes, drain(second));
+        }
+    }
+
+    @Test
+    void stopsAtTheTravelTimeBudget() {
+        try (Neo4j neo4j = Neo4jBuilders.newInProcessBuilder().withDisabledServer().build()) {
+            TestGraphs.createGrid(neo4j.defaultDatabaseService(), 8, SIZE);
+            GraphSnapshot graph;
+            try (Transaction tx = neo4j.defaultDatabaseService().beginTx()) {
+                graph = GraphSnapshot.build(tx);
+            }
+            ReachabilitySearch search = new ReachabilitySearch(graph, graph.findNode(TestGraphs.id(0, 0)), 60.0, 60.0, 0.0, 20.0, Double.POSITIVE_INFINITY);
+            Set<String> nodes = new HashSet<>();
+            double previous = 0.0;
+            for (Path path = search.next(); path != null; path = search.next()) {
+                assertTrue(path.getLastNode().travelTime() <= 20.0);
+                assertTrue(path.getLastNode().travelTime() >= previous);
+                previous = path.getLastNode().travelTime();
+                nodes.add(path.getLastNode().id().getName());
+            }
+            assertTrue(nodes.size() > 1 && nodes.size() < SIZE * SIZE, "nodes " + nodes.size());
+        }
+    }
+
+    private static List<String> drain(ReachabilitySearch search) {
+        List<String> nodes = new ArrayList<>();
+        for (Path path = search.next(); path != null; path = search.next()) {
+            nodes.add(path.getLastNode().id().getName());
+        }
+        return nodes;
+    }
+}